@@ -0,0 +1,55 @@
+package com.javarush.kostenko.benchmark;
+
+import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the Spring contexts shared by the benchmarks.
+ * The benchmarks run against the in-memory H2 database configured by TestServiceConfig.
+ */
+final class BenchmarkContexts {
+
+    /**
+     * JVM arguments of the forked benchmark JVMs: quiet logging and no SQL echo.
+     */
+    static final String LOG_CONFIG = "-Dlog4j2.configurationFile=log4j2-benchmark.properties";
+    static final String NO_SQL_ECHO = "-Dhibernate.show_sql=false";
+
+    private static final int SEED_CHUNK_SIZE = 10_000;
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * Starts the service layer on an empty H2 database.
+     *
+     * @return the started context
+     */
+    static AnnotationConfigApplicationContext serviceContext() {
+        return new AnnotationConfigApplicationContext(TestServiceConfig.class);
+    }
+
+    /**
+     * Inserts the given number of tasks with batched inserts.
+     *
+     * @param taskService the service to insert the tasks with
+     * @param count the number of tasks to insert
+     */
+    static void seed(TaskService taskService, int count) {
+        Status[] statuses = Status.values();
+        for (int from = 0; from < count; from += SEED_CHUNK_SIZE) {
+            int to = Math.min(count, from + SEED_CHUNK_SIZE);
+            List<Task> tasks = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                tasks.add(new Task("Task " + i, statuses[i % statuses.length]));
+            }
+            taskService.createAll(tasks);
+        }
+    }
+}
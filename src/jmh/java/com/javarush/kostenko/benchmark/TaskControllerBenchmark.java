@@ -0,0 +1,75 @@
+package com.javarush.kostenko.benchmark;
+
+import com.javarush.kostenko.config.AppConfig;
+import com.javarush.kostenko.controller.TaskApiController;
+import com.javarush.kostenko.controller.TaskController;
+import com.javarush.kostenko.controller.TaskEventBroadcaster;
+import com.javarush.kostenko.service.TaskChangeFeed;
+import com.javarush.kostenko.service.TaskSearchService;
+import com.javarush.kostenko.service.TaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Benchmarks complete requests through the Spring MVC dispatcher, from request mapping
+ * to the rendered HTML page or the JSON body, against the H2 service layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkContexts.LOG_CONFIG, BenchmarkContexts.NO_SQL_ECHO})
+public class TaskControllerBenchmark {
+
+    private static final int TABLE_SIZE = 10_000;
+
+    private AnnotationConfigApplicationContext context;
+    private MockMvc mockMvc;
+    private int taskId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.serviceContext();
+        TaskService taskService = context.getBean(TaskService.class);
+        BenchmarkContexts.seed(taskService, TABLE_SIZE);
+        taskId = taskService.findAll(0, 1).getContent().get(0).getId();
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(
+                        new TaskController(taskService, context.getBean(TaskSearchService.class),
+                                new TaskEventBroadcaster(context.getBean(TaskChangeFeed.class),
+                                        new SimpleMeterRegistry(), 1000, 256)),
+                        new TaskApiController(taskService))
+                .setViewResolvers(new AppConfig(new SimpleMeterRegistry()).viewResolver())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getTasksPage() throws Exception {
+        return mockMvc.perform(get("/tasks").param("page", "5").param("size", "10")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getTaskJson() throws Exception {
+        return mockMvc.perform(get("/tasks/{id}", taskId)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getTaskViewsJson() throws Exception {
+        return mockMvc.perform(get("/api/tasks").param("page", "5").param("size", "100")).andReturn();
+    }
+}
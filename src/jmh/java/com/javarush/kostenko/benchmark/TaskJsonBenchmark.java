@@ -0,0 +1,58 @@
+package com.javarush.kostenko.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JSON serialization and deserialization of tasks
+ * with an ObjectMapper configured like the one of Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkContexts.LOG_CONFIG)
+public class TaskJsonBenchmark {
+
+    private static final int LIST_SIZE = 100;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Task task;
+    private List<Task> tasks;
+    private String taskJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        task = new Task("Write the quarterly report", Status.IN_PROGRESS);
+        tasks = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            tasks.add(new Task("Task " + i, Status.DONE));
+        }
+        taskJson = "{\"id\":42,\"description\":\"Write the quarterly report\",\"status\":\"IN_PROGRESS\",\"version\":3}";
+    }
+
+    @Benchmark
+    public String serializeTask() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(task);
+    }
+
+    @Benchmark
+    public String serializeTaskList() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(tasks);
+    }
+
+    @Benchmark
+    public Task deserializeTask() throws JsonProcessingException {
+        return objectMapper.readValue(taskJson, Task.class);
+    }
+}
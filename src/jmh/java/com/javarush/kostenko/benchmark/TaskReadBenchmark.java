@@ -0,0 +1,88 @@
+package com.javarush.kostenko.benchmark;
+
+import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.dto.TaskView;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the task read paths at different table sizes and page depths.
+ * The service list goes through the query cache, the repository projection and the keyset
+ * seek show the cost of the database query itself at the given depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkContexts.LOG_CONFIG, BenchmarkContexts.NO_SQL_ECHO})
+public class TaskReadBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"1000", "100000"})
+    int tableSize;
+
+    /**
+     * Position of the requested page in the table, in percent.
+     */
+    @Param({"0", "50", "100"})
+    int depth;
+
+    private AnnotationConfigApplicationContext context;
+    private TaskService taskService;
+    private TaskRepository taskRepository;
+
+    private int page;
+    private Integer seekAfterId;
+    private int firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.serviceContext();
+        taskService = context.getBean(TaskService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        BenchmarkContexts.seed(taskService, tableSize);
+
+        int lastPage = (tableSize - 1) / PAGE_SIZE;
+        page = lastPage * depth / 100;
+
+        firstId = taskRepository.findViews(PageRequest.of(0, 1)).getContent().get(0).id();
+        seekAfterId = page == 0 ? null : taskRepository.findViews(PageRequest.of(page * PAGE_SIZE - 1, 1))
+                .getContent().get(0).id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Task> serviceFindAll() {
+        return taskService.findAll(page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Slice<TaskView> repositoryFindViewsByOffset() {
+        return taskRepository.findViews(PageRequest.of(page, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Slice<Task> serviceFindAfterByKeyset() {
+        return taskService.findAfter(seekAfterId, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Optional<Task> serviceFindById() {
+        return taskService.findById(firstId + ThreadLocalRandom.current().nextInt(tableSize));
+    }
+}
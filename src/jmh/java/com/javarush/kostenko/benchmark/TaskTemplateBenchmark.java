@@ -0,0 +1,75 @@
+package com.javarush.kostenko.benchmark;
+
+import com.javarush.kostenko.config.AppConfig;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the rendering of the tasks.html template with the template engine configured in AppConfig.
+ * The output is written to a discarding writer, so only the rendering is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkContexts.LOG_CONFIG)
+public class TaskTemplateBenchmark {
+
+    @Param({"10", "100"})
+    int rows;
+
+    private TemplateEngine templateEngine;
+    private IWebExchange webExchange;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        templateEngine = new AppConfig(new SimpleMeterRegistry()).templateEngine();
+
+        MockServletContext servletContext = new MockServletContext();
+        webExchange = JakartaServletWebApplication.buildApplication(servletContext)
+                .buildExchange(new MockHttpServletRequest(servletContext, "GET", "/tasks"), new MockHttpServletResponse());
+
+        Status[] statuses = Status.values();
+        tasks = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            tasks.add(new Task("Task " + i, statuses[i % statuses.length]));
+        }
+    }
+
+    @Benchmark
+    public void renderOffsetPage() {
+        WebContext context = new WebContext(webExchange);
+        context.setVariable("tasks", tasks);
+        context.setVariable("pageNumber", 3);
+        context.setVariable("totalPages", 10);
+        context.setVariable("pageSize", rows);
+        templateEngine.process("tasks", context, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void renderCursorPage() {
+        WebContext context = new WebContext(webExchange);
+        context.setVariable("tasks", tasks);
+        context.setVariable("pageSize", rows);
+        context.setVariable("cursorMode", true);
+        context.setVariable("prevCursor", "aWQ6MTA");
+        context.setVariable("nextCursor", "aWQ6MjA");
+        templateEngine.process("tasks", context, Writer.nullWriter());
+    }
+}
@@ -0,0 +1,121 @@
+package com.javarush.kostenko.benchmark;
+
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks the database round trips of the task service calls behind a request.
+ * Next to the time, every benchmark reports the number of operations, JDBC statements, connection acquisitions
+ * and transactions. Editing a task by loading it and saving it back, as the edit endpoint once did, takes two
+ * transactions and a merge; the single-statement update takes one transaction. Every read is one read-only
+ * transaction on one connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkContexts.LOG_CONFIG, BenchmarkContexts.NO_SQL_ECHO})
+public class TaskTransactionBenchmark {
+
+    private static final int TABLE_SIZE = 1000;
+    private static final int PAGE_SIZE = 10;
+
+    private AnnotationConfigApplicationContext context;
+    private TaskService taskService;
+    private Statistics statistics;
+    private int firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.serviceContext();
+        taskService = context.getBean(TaskService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        BenchmarkContexts.seed(taskService, TABLE_SIZE);
+        firstId = taskService.findViews(null, 0, 1).getContent().get(0).id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * The operations measured and the database work they did, as totals over the measurement iterations.
+     * Divide a counter by "operations" for the work of a single operation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        public long operations;
+        public long statements;
+        public long connections;
+        public long transactions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            operations = 0;
+            statements = 0;
+            connections = 0;
+            transactions = 0;
+        }
+
+        <T> T count(Statistics statistics, Supplier<T> operation) {
+            long statementsBefore = statistics.getPrepareStatementCount();
+            long connectionsBefore = statistics.getConnectCount();
+            long transactionsBefore = statistics.getTransactionCount();
+            T result = operation.get();
+            statements += statistics.getPrepareStatementCount() - statementsBefore;
+            connections += statistics.getConnectCount() - connectionsBefore;
+            transactions += statistics.getTransactionCount() - transactionsBefore;
+            operations++;
+            return result;
+        }
+    }
+
+    @Benchmark
+    public Task editByFindThenSave(RoundTrips roundTrips) {
+        int id = randomId();
+        return roundTrips.count(statistics, () -> {
+            Task task = taskService.findById(id).orElseThrow();
+            task.setDescription("Edited task " + id);
+            taskService.save(task);
+            return task;
+        });
+    }
+
+    @Benchmark
+    public boolean editByUpdate(RoundTrips roundTrips) {
+        int id = randomId();
+        return roundTrips.count(statistics, () -> taskService.update(id, "Edited task " + id, Status.DONE));
+    }
+
+    @Benchmark
+    public Page<Task> findAll(RoundTrips roundTrips) {
+        int page = ThreadLocalRandom.current().nextInt(TABLE_SIZE / PAGE_SIZE);
+        return roundTrips.count(statistics, () -> taskService.findAll(page, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Optional<Task> findById(RoundTrips roundTrips) {
+        int id = randomId();
+        return roundTrips.count(statistics, () -> taskService.findById(id));
+    }
+
+    private int randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(TABLE_SIZE);
+    }
+}
@@ -0,0 +1,73 @@
+package com.javarush.kostenko.benchmark;
+
+import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.dto.TaskBatchResult;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskCountService;
+import com.javarush.kostenko.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks single saves against batched inserts of tasks.
+ * The table is emptied after every iteration, so its size stays comparable between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkContexts.LOG_CONFIG, BenchmarkContexts.NO_SQL_ECHO})
+public class TaskWriteBenchmark {
+
+    @Param({"50", "500"})
+    int batchSize;
+
+    private AnnotationConfigApplicationContext context;
+    private TaskService taskService;
+    private TaskRepository taskRepository;
+    private TaskCountService taskCountService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.serviceContext();
+        taskService = context.getBean(TaskService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        taskCountService = context.getBean(TaskCountService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearTable() {
+        taskRepository.deleteAllInBatch();
+        taskCountService.resync();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Task saveSingle() {
+        Task task = new Task("Single task", Status.IN_PROGRESS);
+        taskService.save(task);
+        return task;
+    }
+
+    /**
+     * Inserts a batch of tasks; the score is the time per batch, divide by batchSize for the time per task.
+     */
+    @Benchmark
+    public List<TaskBatchResult> saveBatch() {
+        List<Task> tasks = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            tasks.add(new Task("Batched task " + i, Status.IN_PROGRESS));
+        }
+        return taskService.createAll(tasks);
+    }
+}
@@ -0,0 +1,35 @@
+package com.javarush.kostenko.loadtest;
+
+/**
+ * The HTTP endpoints driven by the load test.
+ */
+enum Endpoint {
+    LIST("GET /tasks"),
+    CREATE("POST /tasks"),
+    UPDATE("PUT /tasks/edit/{id}"),
+    DELETE("DELETE /tasks/{id}");
+
+    private final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the HTTP method and path of the endpoint.
+     *
+     * @return the endpoint label
+     */
+    String label() {
+        return label;
+    }
+
+    /**
+     * Returns the name of the endpoint used in the configuration and the output files.
+     *
+     * @return the lower-case endpoint name
+     */
+    String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,72 @@
+package com.javarush.kostenko.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and outcomes of the requests to one endpoint.
+ * Latencies are recorded in microseconds from the intended start of the request,
+ * so the time a request waited because the server was slow is part of its latency.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Endpoint endpoint;
+    private final Recorder recorder = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+    private final Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+    private final AtomicLong intervalErrors = new AtomicLong();
+
+    private Histogram interval;
+    private long lastIntervalErrors;
+    private long errors;
+
+    EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    Endpoint endpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Records the outcome of a request; safe to call from any thread.
+     *
+     * @param latencyMicros the latency from the intended start of the request
+     * @param success false if the request failed or timed out
+     */
+    void record(long latencyMicros, boolean success) {
+        recorder.recordValue(Math.min(latencyMicros, HIGHEST_LATENCY_MICROS));
+        if (!success) {
+            intervalErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Closes the current interval and adds it to the totals; called by the reporter thread only.
+     *
+     * @return the latencies recorded since the previous call
+     */
+    Histogram nextInterval() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        lastIntervalErrors = intervalErrors.getAndSet(0);
+        errors += lastIntervalErrors;
+        return interval;
+    }
+
+    long lastIntervalErrors() {
+        return lastIntervalErrors;
+    }
+
+    Histogram total() {
+        return total;
+    }
+
+    long errors() {
+        return errors;
+    }
+}
@@ -0,0 +1,178 @@
+package com.javarush.kostenko.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator.
+ * Requests are issued at precomputed intended start times, independent of how fast the server answers,
+ * and their latency is measured from that intended start. A slow server therefore shows up as growing
+ * latencies instead of a silently reduced request rate (no coordinated omission).
+ */
+@Slf4j
+final class LoadGenerator {
+
+    private static final int LIST_PAGES = 10;
+    private static final int LIST_PAGE_SIZE = 10;
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final Map<Endpoint, EndpointStats> stats;
+    private final List<Integer> taskIds;
+    private final Random random;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private final Map<CompletableFuture<?>, Boolean> inFlight = new ConcurrentHashMap<>();
+
+    private long sequence;
+
+    /**
+     * Creates a generator.
+     *
+     * @param client the HTTP client sending the requests
+     * @param baseUri the URI of the application
+     * @param settings the load test settings
+     * @param stats the statistics of every endpoint
+     * @param taskIds the IDs of existing tasks, used by updates and consumed by deletes
+     */
+    LoadGenerator(HttpClient client, URI baseUri, LoadTestSettings settings,
+                  Map<Endpoint, EndpointStats> stats, List<Integer> taskIds) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.stats = stats;
+        this.taskIds = taskIds;
+        this.random = new Random(settings.randomSeed());
+
+        this.endpoints = settings.mix().keySet().toArray(Endpoint[]::new);
+        this.cumulativeWeights = new int[endpoints.length];
+        int sum = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            sum += settings.mix().get(endpoints[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    /**
+     * Issues requests at the target rate until the end time; requests intended to start before
+     * the measurement start are sent but not recorded. Waits for the outstanding requests before returning.
+     *
+     * @param start the intended start of the first request, in System.nanoTime() units
+     * @param measurementStart the start of the recorded phase
+     * @param end the time after which no request is issued
+     * @return the number of issued requests
+     */
+    long run(long start, long measurementStart, long end) {
+        long intendedStart = start;
+        long issued = 0;
+        while (intendedStart < end) {
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+
+            send(nextEndpoint(), intendedStart, intendedStart >= measurementStart);
+            issued++;
+            intendedStart += nextInterval();
+        }
+
+        log.info("Issued {} requests, waiting for {} outstanding responses", issued, inFlight.size());
+        CompletableFuture.allOf(inFlight.keySet().toArray(CompletableFuture[]::new)).join();
+        return issued;
+    }
+
+    private void send(Endpoint endpoint, long intendedStart, boolean measured) {
+        HttpRequest request = buildRequest(endpoint);
+        CompletableFuture<HttpResponse<Void>> future = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        inFlight.put(future, Boolean.TRUE);
+        future.whenComplete((response, error) -> {
+            inFlight.remove(future);
+            if (measured) {
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                stats.get(endpoint).record(latencyMicros, error == null && isSuccess(endpoint, response.statusCode()));
+            }
+        });
+    }
+
+    private HttpRequest buildRequest(Endpoint endpoint) {
+        long n = sequence++;
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(settings.requestTimeout());
+        return switch (endpoint) {
+            case LIST -> builder
+                    .uri(baseUri.resolve("/tasks?page=" + random.nextInt(LIST_PAGES) + "&size=" + LIST_PAGE_SIZE))
+                    .GET()
+                    .build();
+            case CREATE -> builder
+                    .uri(baseUri.resolve("/tasks"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"description\":\"Load test task " + n + "\",\"status\":\"IN_PROGRESS\"}"))
+                    .build();
+            case UPDATE -> builder
+                    .uri(baseUri.resolve("/tasks/edit/" + pickTaskId(false)))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(
+                            "{\"description\":\"Updated task " + n + "\",\"status\":\"DONE\"}"))
+                    .build();
+            case DELETE -> builder
+                    .uri(baseUri.resolve("/tasks/" + pickTaskId(true)))
+                    .DELETE()
+                    .build();
+        };
+    }
+
+    /**
+     * Picks a random existing task ID; deleted IDs are removed, so later requests do not target them.
+     * Returns an ID that does not exist once all tasks have been deleted.
+     */
+    private int pickTaskId(boolean remove) {
+        if (taskIds.isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        int index = random.nextInt(taskIds.size());
+        if (!remove) {
+            return taskIds.get(index);
+        }
+        int last = taskIds.size() - 1;
+        int id = taskIds.get(index);
+        taskIds.set(index, taskIds.get(last));
+        taskIds.remove(last);
+        return id;
+    }
+
+    private Endpoint nextEndpoint() {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private long nextInterval() {
+        double meanNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        return settings.poisson()
+                ? (long) (-Math.log(1.0 - random.nextDouble()) * meanNanos)
+                : (long) meanNanos;
+    }
+
+    private static boolean isSuccess(Endpoint endpoint, int status) {
+        // Updates and deletes may race with deletes of the same task; a 404 is a valid answer then.
+        boolean notFoundExpected = endpoint == Endpoint.UPDATE || endpoint == Endpoint.DELETE;
+        return status < 400 || status == 404 && notFoundExpected;
+    }
+}
@@ -0,0 +1,171 @@
+package com.javarush.kostenko.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javarush.kostenko.Application;
+import com.javarush.kostenko.config.AppConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.startup.Tomcat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test of the task endpoints.
+ * Starts the application through Application.start on a free port against an in-memory H2 database,
+ * seeds tasks, drives the configured request mix at the target rate and writes latency histograms
+ * and throughput per second. Exits with status 1 if a latency or error limit is violated,
+ * which fails the Maven build running it.
+ *
+ * <p>Configured with "loadtest.*" system properties, see LoadTestSettings.</p>
+ */
+@Slf4j
+public final class LoadTest {
+
+    private static final int ID_PAGE_SIZE = 1000;
+
+    private LoadTest() {
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args command-line arguments (not used)
+     * @throws Exception if the application cannot be started or the results cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        useInMemoryDatabase();
+
+        Tomcat tomcat = Application.start(0, AppConfig.class);
+        List<String> violations;
+        try {
+            URI baseUri = URI.create("http://localhost:" + tomcat.getConnector().getLocalPort());
+            violations = run(settings, baseUri);
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+
+        if (violations.isEmpty()) {
+            log.info("Load test passed");
+            System.exit(0);
+        }
+        violations.forEach(violation -> log.error("Load test failed - {}", violation));
+        System.exit(1);
+    }
+
+    private static List<String> run(LoadTestSettings settings, URI baseUri) throws IOException, InterruptedException {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()), daemonThreads("loadtest-client"));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(daemonThreads("loadtest-report"));
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+
+        try {
+            seedTasks(client, baseUri, settings.seedTasks());
+            List<Integer> taskIds = loadTaskIds(client, baseUri);
+            log.info("Seeded {} tasks; running {} s warmup and {} s measurement at {} req/s, mix {}",
+                    taskIds.size(), settings.warmup().toSeconds(), settings.duration().toSeconds(),
+                    settings.rate(), settings.mix());
+
+            Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : settings.mix().keySet()) {
+                stats.put(endpoint, new EndpointStats(endpoint));
+            }
+
+            long start = System.nanoTime();
+            long measurementStart = start + settings.warmup().toNanos();
+            long end = measurementStart + settings.duration().toNanos();
+            long measurementStartMillis = System.currentTimeMillis() + settings.warmup().toMillis();
+
+            try (LoadTestReport report = new LoadTestReport(settings, stats.values(), measurementStartMillis)) {
+                long interval = TimeUnit.SECONDS.toNanos(1);
+                reporter.scheduleAtFixedRate(report::recordInterval,
+                        measurementStart + interval - System.nanoTime(), interval, TimeUnit.NANOSECONDS);
+
+                new LoadGenerator(client, baseUri, settings, stats, taskIds).run(start, measurementStart, end);
+
+                reporter.shutdown();
+                reporter.awaitTermination(10, TimeUnit.SECONDS);
+                report.recordInterval();
+                report.writeSummary((System.nanoTime() - measurementStart) / 1e9);
+                return report.checkLimits();
+            }
+        } finally {
+            reporter.shutdownNow();
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Points the application to a private in-memory H2 database, unless another database is configured.
+     * System properties take precedence over application.properties.
+     */
+    private static void useInMemoryDatabase() {
+        setDefault("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        setDefault("spring.datasource.driver-class-name", "org.h2.Driver");
+        setDefault("spring.datasource.username", "sa");
+        setDefault("spring.datasource.password", "");
+        setDefault("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        setDefault("spring.jpa.show-sql", "false");
+    }
+
+    private static void setDefault(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    private static void seedTasks(HttpClient client, URI baseUri, int count) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/tasks"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"description\":\"Seeded task " + i + "\",\"status\":\"IN_PROGRESS\"}"))
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode());
+            }
+        }
+    }
+
+    private static List<Integer> loadTaskIds(HttpClient client, URI baseUri) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Integer> ids = new ArrayList<>();
+        boolean hasNext = true;
+        for (int page = 0; hasNext; page++) {
+            HttpRequest request = HttpRequest.newBuilder(
+                    baseUri.resolve("/api/tasks?page=" + page + "&size=" + ID_PAGE_SIZE)).GET().build();
+            JsonNode body = objectMapper.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            body.get("content").forEach(task -> ids.add(task.get("id").asInt()));
+            hasNext = body.get("hasNext").asBoolean();
+        }
+        return ids;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
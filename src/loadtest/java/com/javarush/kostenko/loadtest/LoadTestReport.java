@@ -0,0 +1,185 @@
+package com.javarush.kostenko.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Writes the results of a load test run and checks them against the configured limits.
+ * The output directory receives:
+ * <ul>
+ *     <li>latency.hlog - per-second interval histograms of every endpoint, in HdrHistogram log format</li>
+ *     <li>throughput.csv - completed requests and errors of every endpoint per second</li>
+ *     <li>&lt;endpoint&gt;.hgrm - the percentile distribution of every endpoint in milliseconds</li>
+ *     <li>summary.properties - the main percentiles in microseconds, usable as baseline of a later run</li>
+ * </ul>
+ */
+@Slf4j
+final class LoadTestReport implements AutoCloseable {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestSettings settings;
+    private final Collection<EndpointStats> stats;
+    private final PrintStream latencyLog;
+    private final HistogramLogWriter latencyLogWriter;
+    private final Writer throughput;
+
+    private long second;
+
+    /**
+     * Creates the report and opens the interval output files.
+     *
+     * @param settings the load test settings
+     * @param stats the statistics of every endpoint
+     * @param startMillis the wall-clock start of the measurement
+     * @throws IOException if the output files cannot be created
+     */
+    LoadTestReport(LoadTestSettings settings, Collection<EndpointStats> stats, long startMillis) throws IOException {
+        this.settings = settings;
+        this.stats = stats;
+        Files.createDirectories(settings.output());
+
+        latencyLog = new PrintStream(Files.newOutputStream(settings.output().resolve("latency.hlog")), false, "UTF-8");
+        latencyLogWriter = new HistogramLogWriter(latencyLog);
+        latencyLogWriter.outputLogFormatVersion();
+        latencyLogWriter.outputStartTime(startMillis);
+        latencyLogWriter.setBaseTime(startMillis);
+        latencyLogWriter.outputLegend();
+
+        throughput = Files.newBufferedWriter(settings.output().resolve("throughput.csv"));
+        StringBuilder header = new StringBuilder("second");
+        for (EndpointStats endpointStats : stats) {
+            header.append(',').append(endpointStats.endpoint().key())
+                    .append(',').append(endpointStats.endpoint().key()).append("_errors");
+        }
+        throughput.write(header.append('\n').toString());
+    }
+
+    /**
+     * Closes the current one-second interval of every endpoint and writes it out.
+     */
+    synchronized void recordInterval() {
+        long endMillis = System.currentTimeMillis();
+        StringBuilder row = new StringBuilder().append(++second);
+        for (EndpointStats endpointStats : stats) {
+            Histogram interval = endpointStats.nextInterval();
+            interval.setTag(endpointStats.endpoint().key());
+            interval.setStartTimeStamp(endMillis - 1000);
+            interval.setEndTimeStamp(endMillis);
+            latencyLogWriter.outputIntervalHistogram(interval);
+            row.append(',').append(interval.getTotalCount()).append(',').append(endpointStats.lastIntervalErrors());
+        }
+        try {
+            throughput.write(row.append('\n').toString());
+        } catch (IOException e) {
+            log.warn("Throughput not written: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the percentile distributions and the summary, and logs a summary table.
+     *
+     * @param measuredSeconds the duration of the measured phase
+     * @throws IOException if an output file cannot be written
+     */
+    void writeSummary(double measuredSeconds) throws IOException {
+        Properties summary = new Properties();
+        log.info(String.format("%-22s %9s %7s %9s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        for (EndpointStats endpointStats : stats) {
+            Histogram total = endpointStats.total();
+            String key = endpointStats.endpoint().key();
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(settings.output().resolve(key + ".hgrm")),
+                    false, "UTF-8")) {
+                total.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+
+            summary.setProperty(key + ".count", String.valueOf(total.getTotalCount()));
+            summary.setProperty(key + ".errors", String.valueOf(endpointStats.errors()));
+            summary.setProperty(key + ".p50.us", String.valueOf(total.getValueAtPercentile(50)));
+            summary.setProperty(key + ".p90.us", String.valueOf(total.getValueAtPercentile(90)));
+            summary.setProperty(key + ".p99.us", String.valueOf(total.getValueAtPercentile(99)));
+            summary.setProperty(key + ".p999.us", String.valueOf(total.getValueAtPercentile(99.9)));
+            summary.setProperty(key + ".max.us", String.valueOf(total.getMaxValue()));
+
+            log.info(String.format("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    endpointStats.endpoint().label(), total.getTotalCount(), endpointStats.errors(),
+                    total.getTotalCount() / measuredSeconds,
+                    total.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                    total.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                    total.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                    total.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                    total.getMaxValue() / MICROS_PER_MILLI));
+        }
+
+        try (Writer writer = Files.newBufferedWriter(settings.output().resolve("summary.properties"))) {
+            summary.store(writer, "Load test summary, latencies in microseconds");
+        }
+        log.info("Load test results written to {}", settings.output().toAbsolutePath());
+    }
+
+    /**
+     * Checks the results against the p99 limit, the baseline and the error rate limit.
+     *
+     * @return the violated limits, empty if the run passed
+     * @throws IOException if the baseline cannot be read
+     */
+    List<String> checkLimits() throws IOException {
+        Properties baseline = new Properties();
+        if (settings.baseline() != null) {
+            try (Reader reader = Files.newBufferedReader(settings.baseline())) {
+                baseline.load(reader);
+            }
+        }
+
+        List<String> violations = new ArrayList<>();
+        long maxP99Micros = settings.maxP99().toNanos() / 1000;
+        for (EndpointStats endpointStats : stats) {
+            Histogram total = endpointStats.total();
+            String key = endpointStats.endpoint().key();
+            String label = endpointStats.endpoint().label();
+            long p99 = total.getValueAtPercentile(99);
+
+            if (maxP99Micros > 0 && p99 > maxP99Micros) {
+                violations.add(String.format("%s: p99 %.2f ms exceeds the limit of %d ms",
+                        label, p99 / MICROS_PER_MILLI, settings.maxP99().toMillis()));
+            }
+
+            String baselineP99 = baseline.getProperty(key + ".p99.us");
+            if (baselineP99 != null) {
+                long limit = (long) (Long.parseLong(baselineP99) * (1 + settings.maxRegression()));
+                if (p99 > limit) {
+                    violations.add(String.format("%s: p99 %.2f ms regressed more than %.0f%% over the baseline %.2f ms",
+                            label, p99 / MICROS_PER_MILLI, settings.maxRegression() * 100,
+                            Long.parseLong(baselineP99) / MICROS_PER_MILLI));
+                }
+            }
+
+            if (total.getTotalCount() > 0
+                    && (double) endpointStats.errors() / total.getTotalCount() > settings.maxErrorRate()) {
+                violations.add(String.format("%s: %d of %d requests failed",
+                        label, endpointStats.errors(), total.getTotalCount()));
+            }
+        }
+        return violations;
+    }
+
+    @Override
+    public void close() throws IOException {
+        throughput.close();
+        latencyLog.close();
+    }
+}
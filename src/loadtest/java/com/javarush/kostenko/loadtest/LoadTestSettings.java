@@ -0,0 +1,76 @@
+package com.javarush.kostenko.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from "loadtest.*" system properties.
+ *
+ * @param rate the target number of requests per second
+ * @param duration the measured duration of the run
+ * @param warmup the duration of the unrecorded warmup before the measurement
+ * @param poisson true for Poisson arrivals, false for a constant arrival interval
+ * @param mix the relative weight of every endpoint
+ * @param seedTasks the number of tasks created before the run
+ * @param randomSeed the seed of the random generator, so runs are reproducible
+ * @param requestTimeout the timeout of a single request
+ * @param maxP99 the p99 latency no endpoint may exceed, or zero to disable the check
+ * @param baseline the summary of a previous run to compare against, or null
+ * @param maxRegression the allowed relative p99 increase over the baseline
+ * @param maxErrorRate the allowed ratio of failed requests
+ * @param output the directory the results are written to
+ */
+record LoadTestSettings(double rate, Duration duration, Duration warmup, boolean poisson,
+                        Map<Endpoint, Integer> mix, int seedTasks, long randomSeed, Duration requestTimeout,
+                        Duration maxP99, Path baseline, double maxRegression, double maxErrorRate,
+                        Path output) {
+
+    /**
+     * Reads the settings from the system properties, using the defaults for missing ones.
+     *
+     * @return the settings
+     * @throws IllegalArgumentException if a property has an invalid value
+     */
+    static LoadTestSettings fromSystemProperties() {
+        String baseline = property("baseline", "");
+        return new LoadTestSettings(
+                Double.parseDouble(property("rate", "200")),
+                Duration.ofSeconds(Long.parseLong(property("duration", "30"))),
+                Duration.ofSeconds(Long.parseLong(property("warmup", "10"))),
+                !"constant".equals(property("arrival", "poisson")),
+                parseMix(property("mix", "list=70,create=10,update=15,delete=5")),
+                Integer.parseInt(property("seed-tasks", "1000")),
+                Long.parseLong(property("random-seed", "42")),
+                Duration.ofMillis(Long.parseLong(property("request-timeout-ms", "10000"))),
+                Duration.ofMillis(Long.parseLong(property("max-p99-ms", "0"))),
+                baseline.isBlank() ? null : Path.of(baseline),
+                Double.parseDouble(property("max-regression", "0.25")),
+                Double.parseDouble(property("max-error-rate", "0.01")),
+                Path.of(property("output", "target/loadtest")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative mix weight: " + entry);
+            }
+            weights.put(Endpoint.valueOf(parts[0].trim().toUpperCase()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The request mix is empty: " + mix);
+        }
+        return weights;
+    }
+}
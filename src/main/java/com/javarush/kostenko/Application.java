@@ -1,11 +1,21 @@
 package com.javarush.kostenko;
 
 import com.javarush.kostenko.config.AppConfig;
+import com.javarush.kostenko.config.ServerSettings;
+import com.javarush.kostenko.config.ServerSettings.ThreadMode;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
 import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
 import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
 import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
 
 import jakarta.servlet.Servlet;
 
@@ -23,28 +33,106 @@ public class Application {
      */
     public static void main(String[] args) {
         try {
-            log.info("Starting embedded Tomcat server...");
+            Tomcat tomcat = start(ServerSettings.load().getPort(), AppConfig.class);
+            tomcat.getServer().await();
+        } catch (Exception e) {
+            log.error("An error occurred while starting the embedded Tomcat server.", e);
+        }
+    }
+
+    /**
+     * Starts an embedded Tomcat server with a DispatcherServlet backed by the given configuration classes.
+     * The server runs in background threads; the caller decides whether to await or stop it.
+     * The connector is configured from the server.* settings (see {@link ServerSettings}),
+     * so every embedded server, including the one of the load test, runs with the production settings.
+     * The dispatcher servlet supports asynchronous requests, which the event streams are served with.
+     *
+     * @param port the HTTP port, or 0 to pick a free port
+     * @param componentClasses the Spring configuration classes of the application context
+     * @return the started Tomcat server
+     * @throws LifecycleException if the server cannot be started
+     */
+    public static Tomcat start(int port, Class<?>... componentClasses) throws LifecycleException {
+        log.info("Starting embedded Tomcat server...");
 
-            Tomcat tomcat = new Tomcat();
-            tomcat.setPort(8080);
-            tomcat.getConnector();
+        Tomcat tomcat = new Tomcat();
+        tomcat.setConnector(createConnector(ServerSettings.load(), port));
 
-            AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
-            context.register(AppConfig.class);
-            log.info("Spring ApplicationContext initialized with AppConfig.");
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.register(componentClasses);
+        log.info("Spring ApplicationContext initialized with {} configuration class(es).", componentClasses.length);
 
-            Servlet dispatcherServlet = new DispatcherServlet(context);
+        Servlet dispatcherServlet = new DispatcherServlet(context);
 
-            Context appContext = tomcat.addContext("", null);
-            Tomcat.addServlet(appContext, "dispatcher", dispatcherServlet).setLoadOnStartup(1);
-            appContext.addServletMappingDecoded("/", "dispatcher");
+        Context appContext = tomcat.addContext("", null);
+        Wrapper dispatcher = Tomcat.addServlet(appContext, "dispatcher", dispatcherServlet);
+        dispatcher.setLoadOnStartup(1);
+        dispatcher.setAsyncSupported(true);
+        appContext.addServletMappingDecoded("/", "dispatcher");
+        addResourceUrlEncodingFilter(appContext);
 
-            tomcat.start();
-            log.info("Embedded Tomcat server started on port 8080.");
+        tomcat.start();
+        log.info("Embedded Tomcat server started on port {}.", tomcat.getConnector().getLocalPort());
 
-            tomcat.getServer().await();
-        } catch (Exception e) {
-            log.error("An error occurred while starting the embedded Tomcat server.", e);
+        return tomcat;
+    }
+
+    /**
+     * Adds the filter rewriting the static resource URLs of the templates into their content-versioned form.
+     *
+     * @param appContext the web application context
+     */
+    private static void addResourceUrlEncodingFilter(Context appContext) {
+        FilterDef filterDef = new FilterDef();
+        filterDef.setFilterName("resourceUrlEncodingFilter");
+        filterDef.setFilter(new ResourceUrlEncodingFilter());
+        filterDef.setAsyncSupported("true");
+        appContext.addFilterDef(filterDef);
+
+        FilterMap filterMap = new FilterMap();
+        filterMap.setFilterName("resourceUrlEncodingFilter");
+        filterMap.addURLPattern("/*");
+        appContext.addFilterMap(filterMap);
+    }
+
+    /**
+     * Creates the HTTP connector with the configured I/O model, thread and connection limits,
+     * keep-alive behavior, HTTP/2 upgrade and response compression.
+     *
+     * @param settings the server settings
+     * @param port the HTTP port, or 0 to pick a free port
+     * @return the configured connector
+     */
+    static Connector createConnector(ServerSettings settings, int port) {
+        Connector connector = new Connector(settings.getProtocolClassName());
+        connector.setPort(port);
+
+        AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+        protocol.setMaxThreads(settings.getMaxThreads());
+        protocol.setMinSpareThreads(settings.getMinSpareThreads());
+        protocol.setAcceptCount(settings.getAcceptCount());
+        protocol.setMaxConnections(settings.getMaxConnections());
+        protocol.setConnectionTimeout(settings.getConnectionTimeout());
+        protocol.setKeepAliveTimeout(settings.getKeepAliveTimeout());
+        protocol.setMaxKeepAliveRequests(settings.getMaxKeepAliveRequests());
+
+        if (settings.getThreadMode() == ThreadMode.VIRTUAL) {
+            connector.setProperty("useVirtualThreads", "true");
         }
+        if (settings.isCompressionEnabled()) {
+            protocol.setCompression("on");
+            protocol.setCompressionMinSize(settings.getCompressionMinSize());
+            protocol.setCompressibleMimeType(settings.getCompressionMimeTypes());
+        }
+        if (settings.isHttp2Enabled()) {
+            connector.addUpgradeProtocol(new Http2Protocol());
+        }
+
+        log.info("Connector {} - threads: {} (max {}), max connections: {}, keep-alive: {} ms / {} requests, "
+                        + "HTTP/2: {}, compression: {}",
+                settings.getProtocolClassName(), settings.getThreadMode().name().toLowerCase(),
+                settings.getMaxThreads(), settings.getMaxConnections(), settings.getKeepAliveTimeout(),
+                settings.getMaxKeepAliveRequests(), settings.isHttp2Enabled(), settings.isCompressionEnabled());
+        return connector;
     }
 }
@@ -1,19 +1,32 @@
 package com.javarush.kostenko.config;
 
+import com.javarush.kostenko.datasource.ReadWriteRoutingDataSource;
+import com.javarush.kostenko.datasource.ReplicaSet;
+import com.javarush.kostenko.metrics.SqlStatistics;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.thymeleaf.cache.StandardCacheManager;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.spring6.view.ThymeleafViewResolver;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
@@ -21,18 +34,21 @@ import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 import jakarta.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import org.springframework.context.annotation.PropertySource;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
  * Main configuration class for the Spring application.
- * This class configures the Spring MVC, JPA, and Thymeleaf components.
+ * This class configures the Spring MVC, JPA, Thymeleaf and scheduling components.
  */
 @Configuration
 @EnableWebMvc
 @ComponentScan(basePackages = "com.javarush.kostenko")
 @EnableJpaRepositories(basePackages = "com.javarush.kostenko.dao")
+@EnableScheduling
+@EnableTransactionManagement
 @PropertySource("classpath:application.properties")
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -51,26 +67,182 @@ public class AppConfig {
     @Value("${spring.datasource.password}")
     String password;
 
+    @Value("${spring.jpa.database-platform:org.hibernate.dialect.MySQLDialect}")
+    String databasePlatform;
+
+    @Value("${spring.jpa.show-sql:false}")
+    boolean showSql;
+
+    @Value("${spring.datasource.hikari.pool-name:task-pool}")
+    String poolName;
+
+    @Value("${spring.datasource.hikari.minimum-idle:5}")
+    int minimumIdle;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:20}")
+    int maximumPoolSize;
+
+    @Value("${spring.datasource.hikari.connection-timeout:3000}")
+    long connectionTimeout;
+
+    @Value("${spring.datasource.hikari.validation-timeout:1000}")
+    long validationTimeout;
+
+    @Value("${spring.datasource.hikari.idle-timeout:600000}")
+    long idleTimeout;
+
+    @Value("${spring.datasource.hikari.keepalive-time:300000}")
+    long keepaliveTime;
+
+    @Value("${spring.datasource.hikari.max-lifetime:1800000}")
+    long maxLifetime;
+
+    @Value("${spring.datasource.hikari.leak-detection-threshold:0}")
+    long leakDetectionThreshold;
+
+    @Value("${spring.datasource.hikari.prep-stmt-cache-size:250}")
+    int prepStmtCacheSize;
+
+    @Value("${spring.datasource.hikari.prep-stmt-cache-sql-limit:2048}")
+    int prepStmtCacheSqlLimit;
+
+    @Value("${spring.datasource.replica.urls:}")
+    String replicaUrls;
+
+    @Value("${spring.datasource.replica.max-lag-ms:5000}")
+    long replicaMaxLagMs;
+
+    @Value("${spring.datasource.replica.timeout-ms:1000}")
+    long replicaTimeoutMs;
+
+    @Value("${tasks.scheduler.pool-size:4}")
+    int schedulerPoolSize;
+
+    @Value("${tasks.sql.slow-threshold-ms:200}")
+    long slowQueryThresholdMillis;
+
+    @Value("${tasks.sql.max-shapes:500}")
+    int maxQueryShapes;
+
+    @Value("${spring.thymeleaf.cache:true}")
+    Boolean templateCache;
+
+    @Value("${spring.thymeleaf.cache-ttl-ms:#{null}}")
+    Long templateCacheTtlMs;
+
+    @Value("${spring.thymeleaf.cache-size:50}")
+    Integer templateCacheSize;
+
+    @Value("${tasks.batch.size:50}")
+    int batchSize;
+
+    final MeterRegistry meterRegistry;
+
+    /**
+     * Configures the primary database and its read replicas, listed in spring.datasource.replica.urls.
+     * Every database gets its own connection pool; the replica pools are named after the primary pool.
+     * The replicas are accessed with the credentials of the primary. Unlike the primary, a replica that is
+     * unreachable at startup does not fail the startup; it is ejected by the ReplicaSet until it is reachable.
+     *
+     * @return the ReplicaSet, checking the health and lag of the replicas
+     */
+    @Bean
+    public ReplicaSet replicaSet() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String replicaUrl : replicaUrls.split(",")) {
+            if (!replicaUrl.isBlank()) {
+                String name = "replica-" + (replicas.size() + 1);
+                replicas.put(name, pool(poolName + "-" + name, replicaUrl.trim(), true));
+            }
+        }
+        if (!replicas.isEmpty()) {
+            log.info("Routing read-only transactions to {} replicas with a maximum lag of {} ms.",
+                    replicas.size(), replicaMaxLagMs);
+        }
+        return new ReplicaSet(pool(poolName, url, false), replicas, replicaMaxLagMs, meterRegistry);
+    }
+
     /**
      * Configures the DataSource bean for database access.
+     * Without replicas, this is the pool of the primary. With replicas, connections are routed by a
+     * ReadWriteRoutingDataSource behind a LazyConnectionDataSourceProxy, so that read-only transactions
+     * go to the replicas and all others to the primary.
+     * The DataSource is wrapped in a proxy reporting every statement to the SQL statistics.
      *
-     * @return a configured DataSource bean
+     * @return the DataSource, wrapped in a ProxyDataSource
      */
     @Bean
     public DataSource dataSource() {
-        log.info("Initializing DataSource with configuration properties.");
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(driverClassName);
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
-
-        Properties connectionProperties = new Properties();
-        connectionProperties.setProperty("useUnicode", "true");
-        connectionProperties.setProperty("characterEncoding", "UTF-8");
-        dataSource.setConnectionProperties(connectionProperties);
-
-        return dataSource;
+        ReplicaSet replicaSet = replicaSet();
+        DataSource target = replicaSet.isEmpty()
+                ? replicaSet.getPrimary()
+                : new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(replicaSet, meterRegistry));
+        return ProxyDataSourceBuilder.create(target)
+                .name(poolName)
+                .listener(sqlStatistics())
+                .build();
+    }
+
+    /**
+     * Creates a connection pool. Pool size, timeouts, validation, statement caching and leak detection
+     * are taken from the application properties. The MySQL driver properties are only set for MySQL URLs,
+     * so the application can also run on H2.
+     * A replica pool starts without connections if its database is unreachable, instead of failing,
+     * and waits at most spring.datasource.replica.timeout-ms for a connection.
+     */
+    private HikariDataSource pool(String name, String jdbcUrl, boolean replica) {
+        log.info("Initializing connection pool '{}'.", name);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDriverClassName(driverClassName);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+
+        config.setMinimumIdle(minimumIdle);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setConnectionTimeout(replica ? replicaTimeoutMs : connectionTimeout);
+        config.setValidationTimeout(replica ? Math.min(validationTimeout, replicaTimeoutMs) : validationTimeout);
+        config.setIdleTimeout(idleTimeout);
+        config.setKeepaliveTime(keepaliveTime);
+        config.setMaxLifetime(maxLifetime);
+        config.setLeakDetectionThreshold(leakDetectionThreshold);
+        if (replica) {
+            config.setInitializationFailTimeout(-1);
+            if (jdbcUrl.startsWith("jdbc:mysql:")) {
+                config.addDataSourceProperty("connectTimeout", String.valueOf(replicaTimeoutMs));
+            }
+        }
+
+        if (jdbcUrl.startsWith("jdbc:mysql:")) {
+            config.addDataSourceProperty("useUnicode", "true");
+            config.addDataSourceProperty("characterEncoding", "UTF-8");
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(prepStmtCacheSize));
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(prepStmtCacheSqlLimit));
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+            config.addDataSourceProperty("useCursorFetch", "true");
+        }
+
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        log.info("Connection pool '{}' configured with min idle: {}, max size: {}",
+                name, minimumIdle, maximumPoolSize);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Configures the per-query-shape statistics and the slow query log.
+     *
+     * @return a SqlStatistics listener
+     */
+    @Bean
+    public SqlStatistics sqlStatistics() {
+        log.info("SQL statements slower than {} ms are logged.", slowQueryThresholdMillis);
+        return new SqlStatistics(slowQueryThresholdMillis, maxQueryShapes);
     }
 
     /**
@@ -88,12 +260,26 @@ public class AppConfig {
         factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
 
         Properties jpaProperties = new Properties();
-        jpaProperties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+        jpaProperties.setProperty("hibernate.dialect", databasePlatform);
         jpaProperties.setProperty("hibernate.connection.useUnicode", "true");
         jpaProperties.setProperty("hibernate.connection.characterEncoding", "UTF-8");
-        jpaProperties.setProperty("hibernate.show_sql", "true");
+        jpaProperties.setProperty("hibernate.show_sql", String.valueOf(showSql));
         jpaProperties.setProperty("hibernate.hbm2ddl.auto", "update");
 
+        jpaProperties.setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        jpaProperties.setProperty("hibernate.order_inserts", "true");
+        jpaProperties.setProperty("hibernate.order_updates", "true");
+        jpaProperties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
+
+        jpaProperties.setProperty("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        jpaProperties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        jpaProperties.setProperty("hibernate.cache.use_query_cache", "true");
+        jpaProperties.setProperty("hibernate.cache.region.factory_class", "jcache");
+        jpaProperties.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        jpaProperties.setProperty("hibernate.javax.cache.uri", "ehcache.xml");
+        jpaProperties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        jpaProperties.setProperty("hibernate.generate_statistics", "true");
+
         factoryBean.setJpaProperties(jpaProperties);
 
         return factoryBean;
@@ -111,8 +297,27 @@ public class AppConfig {
         return new JpaTransactionManager(entityManagerFactory);
     }
 
+    /**
+     * Configures the scheduler of the @Scheduled jobs. Every job gets a thread of a small pool, so a job waiting
+     * on the database, such as a replica check, does not hold up the write-behind flush, the change feed or
+     * the event stream heartbeats.
+     *
+     * @return the TaskScheduler named "taskScheduler", picked up by @EnableScheduling
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        log.info("Scheduled jobs run on a pool of {} threads.", schedulerPoolSize);
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("scheduler-");
+        scheduler.setPoolSize(schedulerPoolSize);
+        return scheduler;
+    }
+
     /**
      * Configures the Thymeleaf template resolver for view resolution.
+     * In production, parsed templates are cached, optionally expiring after spring.thymeleaf.cache-ttl-ms.
+     * With spring.thymeleaf.cache=false (dev mode) templates are re-read on every render,
+     * so changes show up without a restart.
      *
      * @return a configured ClassLoaderTemplateResolver for Thymeleaf
      */
@@ -125,13 +330,18 @@ public class AppConfig {
         resolver.setSuffix(".html");
         resolver.setTemplateMode("HTML");
         resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(isTemplateCacheEnabled());
+        resolver.setCacheTTLMs(templateCacheTtlMs);
 
-        log.info("Thymeleaf template resolver set with prefix: templates/ and suffix: .html");
+        log.info("Thymeleaf template resolver set with prefix: templates/, suffix: .html, cache: {}, cache TTL: {} ms",
+                isTemplateCacheEnabled(), templateCacheTtlMs == null ? "none" : templateCacheTtlMs);
         return resolver;
     }
 
     /**
      * Configures the Thymeleaf template engine.
+     * The template cache is bounded to spring.thymeleaf.cache-size entries,
+     * and SpEL expressions are compiled to bytecode once they have been evaluated a few times.
      *
      * @return a configured SpringTemplateEngine
      */
@@ -139,10 +349,18 @@ public class AppConfig {
     public SpringTemplateEngine templateEngine() {
         log.info("Configuring Thymeleaf template engine.");
 
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        if (templateCacheSize != null) {
+            cacheManager.setTemplateCacheMaxSize(templateCacheSize);
+        }
+
         SpringTemplateEngine engine = new SpringTemplateEngine();
         engine.setTemplateResolver(templateResolver());
+        engine.setCacheManager(cacheManager);
+        engine.setEnableSpringELCompiler(true);
 
-        log.info("Thymeleaf template engine configured.");
+        log.info("Thymeleaf template engine configured with a template cache of {} entries.",
+                cacheManager.getTemplateCacheMaxSize());
         return engine;
     }
 
@@ -159,8 +377,17 @@ public class AppConfig {
         resolver.setTemplateEngine(templateEngine());
         resolver.setCharacterEncoding("UTF-8");
         resolver.setContentType("text/html; charset=UTF-8");
+        resolver.setCache(isTemplateCacheEnabled());
 
         log.info("Thymeleaf view resolver set with UTF-8 encoding.");
         return resolver;
     }
+
+    /**
+     * Tells whether templates are cached; true unless spring.thymeleaf.cache is false.
+     * The property is unset when the configuration is instantiated directly, e.g. by the benchmarks.
+     */
+    private boolean isTemplateCacheEnabled() {
+        return templateCache == null || templateCache;
+    }
 }
@@ -0,0 +1,38 @@
+package com.javarush.kostenko.config;
+
+import com.javarush.kostenko.logging.RequestIdInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration of the request logging.
+ * The logging pipeline itself (async loggers, appenders, rate limits) is configured
+ * in log4j2.component.properties and log4j2.properties.
+ */
+@Configuration
+public class LoggingConfig implements WebMvcConfigurer {
+
+    /**
+     * Configures the interceptor binding a request ID to the log lines of every request.
+     *
+     * @return a RequestIdInterceptor
+     */
+    @Bean
+    public RequestIdInterceptor requestIdInterceptor() {
+        return new RequestIdInterceptor();
+    }
+
+    /**
+     * Registers the request ID interceptor before all other interceptors,
+     * so their log lines carry the request ID as well.
+     *
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestIdInterceptor()).order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
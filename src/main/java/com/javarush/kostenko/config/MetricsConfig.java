@@ -0,0 +1,183 @@
+package com.javarush.kostenko.config;
+
+import com.javarush.kostenko.metrics.RepositoryMetricsAspect;
+import com.javarush.kostenko.metrics.RequestMetricsInterceptor;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration of the application metrics.
+ * Meters are published to a Prometheus registry, scraped through /admin/metrics, and to JMX.
+ * Requests, TaskService methods, TaskRepository calls, the connection pool, Hibernate and the JVM are measured.
+ * Only request and connection pool timers keep histograms; all other meters are counters, sums and maxima,
+ * so recording stays cheap enough for production.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@Slf4j
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private static final String APPLICATION = "task-panel";
+
+    /**
+     * Configures the Prometheus registry backing the scrape endpoint.
+     *
+     * @return a PrometheusMeterRegistry
+     */
+    @Bean
+    public PrometheusMeterRegistry prometheusMeterRegistry() {
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    /**
+     * Configures the registry publishing the meters as JMX MBeans in the "metrics" domain.
+     *
+     * @return a JmxMeterRegistry
+     */
+    @Bean(destroyMethod = "close")
+    public JmxMeterRegistry jmxMeterRegistry() {
+        return new JmxMeterRegistry(JmxConfig.DEFAULT, Clock.SYSTEM);
+    }
+
+    /**
+     * Configures the MeterRegistry bean used by the application components.
+     * It forwards every meter to the Prometheus and JMX registries.
+     * Timers of requests and of the connection pool publish percentile histograms, so latencies can be analyzed.
+     *
+     * @return a configured MeterRegistry
+     */
+    @Bean
+    @Primary
+    public MeterRegistry meterRegistry() {
+        log.info("Initializing MeterRegistry.");
+
+        CompositeMeterRegistry registry = new CompositeMeterRegistry();
+        registry.config()
+                .commonTags("application", APPLICATION)
+                .meterFilter(new MeterFilter() {
+                    @Override
+                    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                        if (id.getName().startsWith("hikaricp.connections")) {
+                            return DistributionStatisticConfig.builder()
+                                    .percentilesHistogram(true)
+                                    .percentiles(0.5, 0.95, 0.99)
+                                    .build()
+                                    .merge(config);
+                        }
+                        if (id.getName().equals("http.server.requests")) {
+                            return DistributionStatisticConfig.builder()
+                                    .percentilesHistogram(true)
+                                    .build()
+                                    .merge(config);
+                        }
+                        return config;
+                    }
+                });
+        registry.add(prometheusMeterRegistry());
+        registry.add(jmxMeterRegistry());
+
+        new ClassLoaderMetrics().bindTo(registry);
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        new UptimeMetrics().bindTo(registry);
+
+        return registry;
+    }
+
+    /**
+     * Configures the garbage collection metrics, closed with the context to release the GC listeners.
+     *
+     * @param meterRegistry the registry to publish the metrics to
+     * @return the bound JvmGcMetrics
+     */
+    @Bean(destroyMethod = "close")
+    public JvmGcMetrics jvmGcMetrics(MeterRegistry meterRegistry) {
+        JvmGcMetrics metrics = new JvmGcMetrics();
+        metrics.bindTo(meterRegistry);
+        return metrics;
+    }
+
+    /**
+     * Publishes the Hibernate statistics: statements, entity loads, transactions and cache hits and misses.
+     *
+     * @param entityManagerFactory the EntityManagerFactory with statistics enabled
+     * @param meterRegistry the registry to publish the metrics to
+     * @return the bound HibernateMetrics
+     */
+    @Bean
+    public HibernateMetrics hibernateMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        HibernateMetrics metrics = new HibernateMetrics(
+                entityManagerFactory.unwrap(SessionFactory.class), "tasks", Tags.empty());
+        metrics.bindTo(meterRegistry);
+        return metrics;
+    }
+
+    /**
+     * Enables the @Timed annotation, used for the per-method timers of TaskService.
+     *
+     * @param meterRegistry the registry to publish the timers to
+     * @return a TimedAspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Configures the aspect timing the TaskRepository calls and counting their statements.
+     *
+     * @param meterRegistry the registry to publish the metrics to
+     * @return a RepositoryMetricsAspect
+     */
+    @Bean
+    public RepositoryMetricsAspect repositoryMetricsAspect(MeterRegistry meterRegistry) {
+        return new RepositoryMetricsAspect(meterRegistry);
+    }
+
+    /**
+     * Configures the interceptor recording the request metrics of every controller mapping.
+     *
+     * @return a RequestMetricsInterceptor
+     */
+    @Bean
+    public RequestMetricsInterceptor requestMetricsInterceptor() {
+        return new RequestMetricsInterceptor(meterRegistry());
+    }
+
+    /**
+     * Registers the request metrics interceptor for all mappings.
+     *
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestMetricsInterceptor());
+    }
+}
@@ -0,0 +1,46 @@
+package com.javarush.kostenko.config;
+
+import com.javarush.kostenko.datasource.ReadYourWritesInterceptor;
+import com.javarush.kostenko.datasource.ReplicaSet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration of the read-your-writes consistency of requests while reads are served by replicas.
+ * The replicas themselves and the routing DataSource are configured in AppConfig.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    private final ReplicaSet replicaSet;
+
+    @Value("${spring.datasource.replica.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    /**
+     * Configures the interceptor pinning requests to the primary after the client wrote.
+     *
+     * @return a ReadYourWritesInterceptor
+     */
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor() {
+        return new ReadYourWritesInterceptor(readYourWritesMs);
+    }
+
+    /**
+     * Registers the read-your-writes interceptor if there are replicas; without them, all reads go to the primary.
+     *
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!replicaSet.isEmpty()) {
+            registry.addInterceptor(readYourWritesInterceptor());
+        }
+    }
+}
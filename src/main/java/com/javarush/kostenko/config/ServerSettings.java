@@ -0,0 +1,234 @@
+package com.javarush.kostenko.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Settings of the embedded Tomcat server.
+ * They are needed before the Spring ApplicationContext exists, so they are read directly
+ * from application.properties; system properties with the same name take precedence.
+ */
+public final class ServerSettings {
+
+    static final String PORT = "server.port";
+    static final String THREADS_MODE = "server.threads.mode";
+    static final String PROTOCOL = "server.tomcat.protocol";
+    static final String MAX_THREADS = "server.tomcat.threads.max";
+    static final String MIN_SPARE_THREADS = "server.tomcat.threads.min-spare";
+    static final String ACCEPT_COUNT = "server.tomcat.accept-count";
+    static final String MAX_CONNECTIONS = "server.tomcat.max-connections";
+    static final String CONNECTION_TIMEOUT = "server.tomcat.connection-timeout";
+    static final String KEEP_ALIVE_TIMEOUT = "server.tomcat.keep-alive-timeout";
+    static final String MAX_KEEP_ALIVE_REQUESTS = "server.tomcat.max-keep-alive-requests";
+    static final String HTTP2_ENABLED = "server.http2.enabled";
+    static final String COMPRESSION_ENABLED = "server.compression.enabled";
+    static final String COMPRESSION_MIN_SIZE = "server.compression.min-response-size";
+    static final String COMPRESSION_MIME_TYPES = "server.compression.mime-types";
+
+    private static final String DEFAULT_MIME_TYPES =
+            "text/html,text/css,text/plain,application/javascript,application/json,application/x-ndjson";
+
+    private final Properties properties;
+
+    private ServerSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the settings from application.properties and the system properties.
+     *
+     * @return the server settings
+     */
+    public static ServerSettings load() {
+        Properties properties = new Properties();
+        try (InputStream input = ServerSettings.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read application.properties", e);
+        }
+        properties.putAll(System.getProperties());
+        return new ServerSettings(properties);
+    }
+
+    /**
+     * Returns the HTTP port.
+     *
+     * @return the port, 8080 by default
+     */
+    public int getPort() {
+        return getInt(PORT, 8080);
+    }
+
+    /**
+     * Returns the class name of the Tomcat protocol handler for the configured I/O model.
+     *
+     * @return the Http11NioProtocol ("nio", default) or Http11Nio2Protocol ("nio2") class name
+     * @throws IllegalArgumentException if the protocol is unknown
+     */
+    public String getProtocolClassName() {
+        String protocol = properties.getProperty(PROTOCOL, "nio").trim().toLowerCase(Locale.ROOT);
+        return switch (protocol) {
+            case "nio" -> "org.apache.coyote.http11.Http11NioProtocol";
+            case "nio2" -> "org.apache.coyote.http11.Http11Nio2Protocol";
+            default -> throw new IllegalArgumentException("Unknown " + PROTOCOL + ": " + protocol);
+        };
+    }
+
+    /**
+     * Returns the maximum number of platform threads handling requests; unused for virtual threads.
+     *
+     * @return the maximum number of threads, 200 by default
+     */
+    public int getMaxThreads() {
+        return getInt(MAX_THREADS, 200);
+    }
+
+    /**
+     * Returns the number of platform threads kept alive when idle.
+     *
+     * @return the minimum number of threads, 10 by default
+     */
+    public int getMinSpareThreads() {
+        return getInt(MIN_SPARE_THREADS, 10);
+    }
+
+    /**
+     * Returns the length of the operating system queue of connections not accepted yet.
+     *
+     * @return the accept count, 100 by default
+     */
+    public int getAcceptCount() {
+        return getInt(ACCEPT_COUNT, 100);
+    }
+
+    /**
+     * Returns the maximum number of connections the server keeps open.
+     *
+     * @return the maximum number of connections, 8192 by default
+     */
+    public int getMaxConnections() {
+        return getInt(MAX_CONNECTIONS, 8192);
+    }
+
+    /**
+     * Returns how long the server waits for the request line after a connection is accepted.
+     *
+     * @return the connection timeout in milliseconds, 20000 by default
+     */
+    public int getConnectionTimeout() {
+        return getInt(CONNECTION_TIMEOUT, 20000);
+    }
+
+    /**
+     * Returns how long an idle keep-alive connection is kept open.
+     *
+     * @return the keep-alive timeout in milliseconds, 20000 by default
+     */
+    public int getKeepAliveTimeout() {
+        return getInt(KEEP_ALIVE_TIMEOUT, 20000);
+    }
+
+    /**
+     * Returns the number of requests served over one keep-alive connection before it is closed.
+     *
+     * @return the maximum number of requests, 100 by default, -1 for unlimited
+     */
+    public int getMaxKeepAliveRequests() {
+        return getInt(MAX_KEEP_ALIVE_REQUESTS, 100);
+    }
+
+    /**
+     * Tells whether clients may upgrade cleartext HTTP/1.1 connections to HTTP/2 (h2c).
+     *
+     * @return true if HTTP/2 is enabled, the default
+     */
+    public boolean isHttp2Enabled() {
+        return Boolean.parseBoolean(properties.getProperty(HTTP2_ENABLED, "true").trim());
+    }
+
+    /**
+     * Tells whether responses are compressed for clients accepting gzip.
+     *
+     * @return true if compression is enabled, the default
+     */
+    public boolean isCompressionEnabled() {
+        return Boolean.parseBoolean(properties.getProperty(COMPRESSION_ENABLED, "true").trim());
+    }
+
+    /**
+     * Returns the size from which responses are compressed.
+     *
+     * @return the minimum response size in bytes, 2048 by default
+     */
+    public int getCompressionMinSize() {
+        return getInt(COMPRESSION_MIN_SIZE, 2048);
+    }
+
+    /**
+     * Returns the content types that are compressed.
+     *
+     * @return a comma-separated list of MIME types
+     */
+    public String getCompressionMimeTypes() {
+        return properties.getProperty(COMPRESSION_MIME_TYPES, DEFAULT_MIME_TYPES).trim();
+    }
+
+    /**
+     * Returns the kind of threads requests are handled on.
+     *
+     * @return the thread mode, PLATFORM by default
+     */
+    public ThreadMode getThreadMode() {
+        return ThreadMode.of(properties.getProperty(THREADS_MODE, "platform"));
+    }
+
+    private int getInt(String name, int defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+        }
+    }
+
+    /**
+     * The kind of threads requests run on.
+     */
+    public enum ThreadMode {
+
+        /**
+         * A bounded pool of platform threads.
+         */
+        PLATFORM,
+
+        /**
+         * A new virtual thread per request; requires Java 21 or newer at runtime.
+         */
+        VIRTUAL;
+
+        /**
+         * Parses a thread mode, case-insensitively.
+         *
+         * @param value "platform" or "virtual"
+         * @return the thread mode
+         * @throws IllegalArgumentException if the value is not a thread mode
+         * @throws IllegalStateException if virtual threads are requested on a Java version without them
+         */
+        public static ThreadMode of(String value) {
+            ThreadMode mode = valueOf(value.trim().toUpperCase(Locale.ROOT));
+            if (mode == VIRTUAL && Runtime.version().feature() < 21) {
+                throw new IllegalStateException(
+                        "Virtual threads require Java 21 or newer, running on " + Runtime.version());
+            }
+            return mode;
+        }
+    }
+}
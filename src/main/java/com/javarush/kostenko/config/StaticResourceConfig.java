@@ -0,0 +1,38 @@
+package com.javarush.kostenko.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the static resources (stylesheets and scripts) under /static/.
+ * URLs carry a hash of the file content (e.g. tasks-5f3a....js) and are rewritten in the templates
+ * by the ResourceUrlEncodingFilter, so the files can be cached forever: a changed file gets a new URL.
+ * Precompressed .gz variants created at build time are served to clients accepting gzip.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    static final String PATH_PATTERN = "/static/**";
+
+    /**
+     * Registers the handler of the static resources with content-versioned URLs,
+     * precompressed variants and an immutable one-year cache lifetime.
+     *
+     * @param registry the resource handler registry
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(PATH_PATTERN)
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.javarush.kostenko.controller;
+
+import com.javarush.kostenko.metrics.SqlStatistics;
+import com.javarush.kostenko.service.CacheStatisticsService;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This controller exposes administrative and diagnostic endpoints.
+ */
+@Controller
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final CacheStatisticsService cacheStatisticsService;
+    private final PrometheusMeterRegistry prometheusMeterRegistry;
+    private final SqlStatistics sqlStatistics;
+
+    /**
+     * Returns all application metrics in the Prometheus text format, for scraping.
+     *
+     * @return 200 OK with the metrics.
+     */
+    @GetMapping("/metrics")
+    @ResponseBody
+    public ResponseEntity<String> getMetrics() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PROMETHEUS_CONTENT_TYPE))
+                .body(prometheusMeterRegistry.scrape());
+    }
+
+    /**
+     * Returns the hit, miss, put and eviction statistics of the caches.
+     *
+     * @return 200 OK with the cache statistics.
+     */
+    @GetMapping(value = "/cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+
+    /**
+     * Evicts all cached entities and query results.
+     *
+     * @return 204 No Content once the caches are cleared.
+     */
+    @DeleteMapping("/cache")
+    @ResponseBody
+    public ResponseEntity<Void> evictCaches() {
+        log.info("Evicting caches on request.");
+        cacheStatisticsService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Returns the execution count, total and maximum time of every query shape,
+     * the shapes with the highest total time first.
+     *
+     * @return 200 OK with the slow query threshold and the query statistics.
+     */
+    @GetMapping(value = "/queries", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getQueryStatistics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("slowThresholdMs", sqlStatistics.getSlowThresholdMillis());
+        response.put("queries", sqlStatistics.getStatistics());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Discards the query statistics.
+     *
+     * @return 204 No Content once the statistics are reset.
+     */
+    @DeleteMapping("/queries")
+    @ResponseBody
+    public ResponseEntity<Void> resetQueryStatistics() {
+        sqlStatistics.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
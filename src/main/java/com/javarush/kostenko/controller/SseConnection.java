@@ -0,0 +1,221 @@
+package com.javarush.kostenko.controller;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Server-Sent Events connection written with non-blocking Servlet I/O.
+ * Messages are queued and written by whichever thread finds the connection writable: the thread sending
+ * a message, or a container thread calling onWritePossible once the client has read what was written before.
+ * No thread waits for a slow client and idle connections hold no thread. A client that falls more than
+ * maxQueued messages behind is disconnected; an EventSource then reconnects and resumes with Last-Event-ID.
+ */
+@Slf4j
+final class SseConnection implements WriteListener, AsyncListener {
+
+    static final String CONTENT_TYPE = "text/event-stream;charset=UTF-8";
+
+    /**
+     * A comment line, ignored by the EventSource. Written to commit the response and to detect closed connections.
+     */
+    static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream out;
+    private final int maxQueued;
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Runnable closeHandler = () -> { };
+
+    /**
+     * Whether messages were written since the last flush. Only accessed by the draining thread.
+     */
+    private boolean flushPending;
+
+    SseConnection(AsyncContext asyncContext, ServletOutputStream out, int maxQueued) {
+        this.asyncContext = asyncContext;
+        this.out = out;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Switches the request into asynchronous mode and opens an event stream on its response.
+     * The response of the container is written directly, bypassing any wrappers of the filters and the framework.
+     *
+     * @param request the request of the event stream
+     * @param maxQueued the number of messages a client may fall behind before it is disconnected
+     * @param timeoutMs the time after which the stream is closed, or 0 to keep it open
+     * @return the open connection
+     * @throws IOException if the response cannot be written
+     */
+    static SseConnection open(HttpServletRequest request, int maxQueued, long timeoutMs) throws IOException {
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(timeoutMs);
+        HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+        response.setContentType(CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        SseConnection connection = new SseConnection(asyncContext, response.getOutputStream(), maxQueued);
+        asyncContext.addListener(connection);
+        connection.out.setWriteListener(connection);
+        connection.send(HEARTBEAT);
+        return connection;
+    }
+
+    /**
+     * Encodes a single event.
+     *
+     * @param id the event ID, sent back by a reconnecting EventSource as Last-Event-ID
+     * @param name the event name
+     * @param data the event data, a single line
+     * @return the encoded event
+     */
+    static byte[] event(String id, String name, String data) {
+        return ("id:" + id + "\nevent:" + name + "\ndata:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sets the handler called once when the connection is closed, for whatever reason.
+     *
+     * @param handler the close handler
+     */
+    void onClose(Runnable handler) {
+        closeHandler = handler;
+        if (closed.get()) {
+            handler.run();
+        }
+    }
+
+    /**
+     * Queues a message and writes as much of the queue as the connection accepts without blocking.
+     *
+     * @param message one or more encoded events
+     * @return false if the connection is closed, or if the client has fallen too far behind and was disconnected
+     */
+    boolean send(byte[] message) {
+        if (closed.get()) {
+            return false;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            log.debug("Event stream client fell more than {} messages behind; disconnecting it.", maxQueued);
+            close();
+            return false;
+        }
+        queue.add(message);
+        drain();
+        return true;
+    }
+
+    /**
+     * Tells whether the connection is open.
+     *
+     * @return true until the connection is closed
+     */
+    boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * Closes the connection, dropping the queued messages.
+     */
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        queue.clear();
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            log.trace("Event stream already completed.", e);
+        }
+        closeHandler.run();
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.debug("Event stream write failed; closing it.", t);
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    /**
+     * Writes the queue on the current thread, unless another thread is writing it; that thread then drains
+     * the queue once more before it returns, so a message is never left behind without a writer.
+     * No locks are held while calling the container.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            try {
+                writeQueued();
+            } catch (IOException | RuntimeException e) {
+                log.debug("Event stream write failed; closing it.", e);
+                close();
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Writes and flushes queued messages while the container accepts them without blocking.
+     * Once isReady returns false, the container calls onWritePossible when the connection is writable again.
+     */
+    private void writeQueued() throws IOException {
+        while (!closed.get() && out.isReady()) {
+            byte[] message = queue.poll();
+            if (message == null) {
+                if (!flushPending) {
+                    return;
+                }
+                flushPending = false;
+                out.flush();
+                continue;
+            }
+            queued.decrementAndGet();
+            out.write(message);
+            flushPending = true;
+        }
+    }
+}
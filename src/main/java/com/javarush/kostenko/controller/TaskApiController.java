@@ -0,0 +1,147 @@
+package com.javarush.kostenko.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.javarush.kostenko.domain.dto.TaskFilter;
+import com.javarush.kostenko.domain.dto.TaskView;
+import com.javarush.kostenko.domain.enums.DescriptionMatch;
+import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This controller serves tasks as JSON for integrations.
+ * It supports paged reads and a streaming export of the whole task table.
+ */
+@Controller
+@RequestMapping("/api/tasks")
+@RequiredArgsConstructor
+@Slf4j
+public class TaskApiController {
+
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final int MAX_PAGE_SIZE = 1000;
+    static final Set<String> SORT_FIELDS = Set.of("id", "description");
+
+    private final TaskService taskService;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Retrieves a slice of tasks as JSON, optionally filtered by status and description.
+     * No count query is executed; the response tells whether there is a next slice.
+     *
+     * @param status the status to filter by, optional.
+     * @param description the text the description starts with or contains, optional.
+     * @param match "prefix" (default) or "contains"; "contains" requires a status.
+     * @param page the slice number to retrieve, defaults to 0.
+     * @param size the number of tasks per slice, defaults to 100.
+     * @param sort the field to sort by, "id" (default) or "description"; "description" cannot be combined with
+     *             a status.
+     * @param direction the sort direction, "asc" (default) or "desc".
+     * @return 200 OK with the tasks and paging information,
+     *         400 Bad Request if a parameter is out of range or the filter is not supported.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getTasks(
+            @RequestParam(name = "status", required = false) Status status,
+            @RequestParam(name = "description", required = false) String description,
+            @RequestParam(name = "match", defaultValue = "prefix") String match,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "100") int size,
+            @RequestParam(name = "sort", defaultValue = "id") String sort,
+            @RequestParam(name = "direction", defaultValue = "asc") String direction) {
+        log.info("Fetching task views - status: {}, description: {}, match: {}, page: {}, size: {}, sort: {} {}",
+                status, description, match, page, size, sort, direction);
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE || !SORT_FIELDS.contains(sort)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Slice<TaskView> views;
+        try {
+            TaskFilter filter = new TaskFilter(status, description,
+                    DescriptionMatch.valueOf(match.toUpperCase(Locale.ROOT)));
+            views = taskService.findViews(filter, page, size, Sort.by(Sort.Direction.fromString(direction), sort));
+        } catch (IllegalArgumentException e) {
+            log.warn("Task views not fetched: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("content", views.getContent());
+        response.put("page", page);
+        response.put("size", size);
+        response.put("hasNext", views.hasNext());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Exports all tasks, optionally filtered by status, as a stream.
+     * Rows are written with the Jackson streaming generator while they are read from the database,
+     * so the heap usage is constant regardless of the number of tasks.
+     *
+     * @param status the status to filter by, optional.
+     * @param format "ndjson" for newline-delimited JSON (default) or "json" for a JSON array.
+     * @param response the response the tasks are written to.
+     * @throws IOException if writing the response fails.
+     */
+    @GetMapping("/export")
+    public void exportTasks(
+            @RequestParam(name = "status", required = false) Status status,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        log.info("Exporting tasks - status: {}, format: {}", status, format);
+        boolean jsonArray = "json".equalsIgnoreCase(format);
+
+        response.setContentType(jsonArray ? MediaType.APPLICATION_JSON_VALUE : NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            if (jsonArray) {
+                generator.writeStartArray();
+            }
+
+            taskService.exportViews(status, view -> writeView(generator, view, !jsonArray));
+
+            if (jsonArray) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeView(JsonGenerator generator, TaskView view, boolean newlineDelimited) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", view.id());
+            generator.writeStringField("description", view.description());
+            generator.writeStringField("status", view.status().name());
+            generator.writeNumberField("version", view.version());
+            generator.writeEndObject();
+            if (newlineDelimited) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
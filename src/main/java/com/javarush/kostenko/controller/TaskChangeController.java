@@ -0,0 +1,117 @@
+package com.javarush.kostenko.controller;
+
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.service.TaskChangeFeed;
+import com.javarush.kostenko.service.TaskChangeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This controller serves the task change feed: the changes recorded in the outbox,
+ * in sequence order and resumable from any sequence number.
+ */
+@Controller
+@RequestMapping("/tasks/changes")
+@RequiredArgsConstructor
+@Slf4j
+public class TaskChangeController {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final TaskChangeService taskChangeService;
+    private final TaskChangeFeed taskChangeFeed;
+
+    @Value("${tasks.changes.stream-timeout-ms:300000}")
+    private long streamTimeoutMs = 300_000;
+
+    @Value("${tasks.events.max-queued-events:256}")
+    private int maxQueuedEvents = 256;
+
+    /**
+     * Retrieves the changes following the given sequence number.
+     * To read the feed, pass the returned "next" as "since" of the following request.
+     * If changes following "since" have already been purged, the reader has to reload the tasks and continue
+     * from the returned "next".
+     *
+     * @param since the sequence number to read after, defaults to 0 (the oldest retained change).
+     * @param limit the maximum number of changes, defaults to 100.
+     * @return 200 OK with the changes and the sequence number to continue from,
+     *         410 Gone with "reset" and the sequence number to continue from after reloading if changes
+     *         following "since" have been purged,
+     *         400 Bad Request if a parameter is out of range.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getChanges(
+            @RequestParam(name = "since", defaultValue = "0") long since,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        log.info("Fetching task changes - since: {}, limit: {}", since, limit);
+        if (since < 0 || limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<TaskChange> changes = taskChangeService.findSince(since, limit);
+        // Only a reader whose next change is missing can have fallen behind the purge.
+        if ((changes.isEmpty() || changes.get(0).getSeq() > since + 1) && taskChangeService.isPurgedAfter(since)) {
+            log.info("Task changes following {} have been purged; the reader has to reload.", since);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("reset", true);
+            body.put("next", taskChangeService.findLastSeq());
+            return ResponseEntity.status(HttpStatus.GONE).body(body);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("changes", changes);
+        body.put("next", changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Streams the changes as Server-Sent Events named "change", with the sequence number as event ID.
+     * A reconnecting EventSource sends the ID of the last event it received, and the stream resumes after it.
+     * If changes following that position have been purged, the stream starts with a "reset" event, like
+     * the task events, and continues with the changes recorded from then on.
+     * The stream is written with non-blocking I/O and closed after tasks.changes.stream-timeout-ms, or when the
+     * client falls tasks.events.max-queued-events batches behind; the EventSource then reconnects.
+     *
+     * @param since the sequence number to start after, optional; without it only new changes are sent.
+     * @param lastEventId the Last-Event-ID header of a reconnecting client, takes precedence over "since".
+     * @param request the request to open the stream on.
+     * @param response the response of the stream, written by the stream rather than rendered as a view.
+     * @throws IOException if the stream cannot be opened.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamChanges(
+            @RequestParam(name = "since", required = false) Long since,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Long from = lastEventId != null ? lastEventId : since;
+        log.info("Streaming task changes - since: {}", from);
+
+        SseConnection connection = SseConnection.open(request, maxQueuedEvents, streamTimeoutMs);
+        if (from != null && taskChangeService.isPurgedAfter(from)) {
+            log.info("Task changes following {} have been purged; resetting the stream.", from);
+            connection.send(TaskEventBroadcaster.RESET);
+            from = null;
+        }
+        TaskChangeFeed.Subscription subscription = taskChangeFeed.subscribe(from, changes -> {
+            if (!connection.send(TaskChangeEvents.encode(changes))) {
+                throw new IllegalStateException("Change stream closed");
+            }
+        });
+        connection.onClose(subscription::cancel);
+    }
+}
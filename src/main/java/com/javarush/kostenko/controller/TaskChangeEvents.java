@@ -0,0 +1,52 @@
+package com.javarush.kostenko.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.javarush.kostenko.domain.entity.TaskChange;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * Encodes task changes as Server-Sent Events named "change", with the sequence number as event ID
+ * and the change as JSON data, the same JSON as returned by the change feed endpoint.
+ */
+final class TaskChangeEvents {
+
+    static final String CHANGE_EVENT = "change";
+
+    private static final ObjectWriter WRITER = Jackson2ObjectMapperBuilder.json().build()
+            .writerFor(TaskChange.class);
+
+    private TaskChangeEvents() {
+    }
+
+    /**
+     * Encodes a single change.
+     *
+     * @param change the change
+     * @return the encoded event
+     */
+    static byte[] encode(TaskChange change) {
+        try {
+            return SseConnection.event(String.valueOf(change.getSeq()), CHANGE_EVENT, WRITER.writeValueAsString(change));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize task change " + change.getSeq(), e);
+        }
+    }
+
+    /**
+     * Encodes the changes as consecutive events, to be sent as a single message.
+     *
+     * @param changes the changes
+     * @return the encoded events
+     */
+    static byte[] encode(List<TaskChange> changes) {
+        ByteArrayOutputStream events = new ByteArrayOutputStream();
+        for (TaskChange change : changes) {
+            events.writeBytes(encode(change));
+        }
+        return events.toByteArray();
+    }
+}
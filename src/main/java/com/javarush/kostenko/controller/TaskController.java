@@ -1,19 +1,35 @@
 package com.javarush.kostenko.controller;
 
+import com.javarush.kostenko.domain.dto.TaskBatchResult;
+import com.javarush.kostenko.domain.dto.TaskSearchHit;
 import com.javarush.kostenko.domain.entity.Task;
 import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskSearchService;
 import com.javarush.kostenko.service.TaskService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -26,7 +42,17 @@ import java.util.Optional;
 @Slf4j
 public class TaskController {
 
+    private static final int MAX_SEARCH_QUERY_LENGTH = 100;
+
     private final TaskService taskService;
+    private final TaskSearchService taskSearchService;
+    private final TaskEventBroadcaster taskEventBroadcaster;
+
+    @Value("${tasks.pagination.mode:offset}")
+    private String paginationMode;
+
+    @Value("${tasks.batch.max-items:10000}")
+    private int maxBatchItems = 10000;
 
     /**
      * Redirects the root URL to the task list page.
@@ -40,72 +66,272 @@ public class TaskController {
 
     /**
      * Retrieves a paginated list of tasks and displays them in the view.
+     * Keyset pagination is used when a cursor is given or when it is the configured mode,
+     * otherwise the list is paged by offset.
      *
      * @param page the page number to retrieve, defaults to 0.
      * @param size the number of tasks per page, defaults to 10.
+     * @param after the cursor to seek after (keyset mode), optional.
+     * @param before the cursor to seek before (keyset mode), optional.
      * @param model the model to populate with task data.
-     * @return the "tasks" view displaying the paginated list.
+     * @param webRequest the current request, used to answer conditional requests.
+     * @return the "tasks" view displaying the paginated list,
+     *         or null with 304 Not Modified if the page matches the If-None-Match header.
      */
     @GetMapping("/tasks")
     public String getAllTasks(
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "10") int size,
-            Model model) {
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "before", required = false) String before,
+            Model model,
+            WebRequest webRequest) {
+        if (after != null || before != null || "keyset".equals(paginationMode)) {
+            return getTasksByCursor(after, before, size, model, webRequest);
+        }
+
         log.info("Fetching tasks - page: {}, size: {}", page, size);
         Page<Task> tasksPage = taskService.findAll(page, size);
+        if (webRequest.checkNotModified(listETag(tasksPage.getContent(), tasksPage.getTotalPages()))) {
+            return null;
+        }
 
         model.addAttribute("tasks", tasksPage.getContent());
         model.addAttribute("pageNumber", tasksPage.getNumber());
         model.addAttribute("totalPages", tasksPage.getTotalPages());
+        model.addAttribute("totalTasks", tasksPage.getTotalElements());
         model.addAttribute("pageSize", tasksPage.getSize());
 
         return "tasks";
     }
 
+    /**
+     * Populates the model with a slice of tasks located by a keyset cursor.
+     * No count query is executed; the pager is driven by the next and previous cursors.
+     */
+    private String getTasksByCursor(String after, String before, int size, Model model, WebRequest webRequest) {
+        log.info("Fetching tasks - after: {}, before: {}, size: {}", after, before, size);
+
+        Slice<Task> tasksSlice;
+        boolean hasPrevious;
+        boolean hasNext;
+        if (before != null && !before.isEmpty()) {
+            tasksSlice = taskService.findBefore(TaskCursor.decode(before), size);
+            hasPrevious = tasksSlice.hasNext();
+            hasNext = true;
+        } else {
+            Integer afterId = after == null || after.isEmpty() ? null : TaskCursor.decode(after);
+            tasksSlice = taskService.findAfter(afterId, size);
+            hasPrevious = afterId != null;
+            hasNext = tasksSlice.hasNext();
+        }
+
+        List<Task> tasks = tasksSlice.getContent();
+        String prevCursor = hasPrevious && !tasks.isEmpty() ? TaskCursor.encode(tasks.get(0).getId()) : null;
+        String nextCursor = hasNext && !tasks.isEmpty() ? TaskCursor.encode(tasks.get(tasks.size() - 1).getId()) : null;
+        if (webRequest.checkNotModified(listETag(tasks, prevCursor, nextCursor))) {
+            return null;
+        }
+
+        model.addAttribute("tasks", tasks);
+        model.addAttribute("pageSize", size);
+        model.addAttribute("cursorMode", true);
+        model.addAttribute("prevCursor", prevCursor);
+        model.addAttribute("nextCursor", nextCursor);
+
+        return "tasks";
+    }
+
+    /**
+     * Renders the table row of a single task, so the page can insert or replace it
+     * after a mutation instead of reloading the whole list.
+     *
+     * @param id the ID of the task to render.
+     * @param model the model to populate with the task.
+     * @return the "row" fragment of the "tasks" view.
+     * @throws ResponseStatusException with 404 Not Found if the task does not exist.
+     */
+    @GetMapping(value = "/tasks/{id}/row", produces = MediaType.TEXT_HTML_VALUE)
+    public String getTaskRow(@PathVariable Integer id, Model model) {
+        log.info("Rendering row of task with id: {}", id);
+        Task task = taskService.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found: " + id));
+
+        model.addAttribute("tasks", List.of(task));
+
+        return "tasks :: row";
+    }
+
+    /**
+     * Renders the pager of the offset-paginated task list, so the page can refresh it
+     * after a task is created or deleted. Only the cached task count is read; no tasks are loaded.
+     *
+     * @param page the current page number, defaults to 0.
+     * @param size the number of tasks per page, defaults to 10.
+     * @param model the model to populate with the paging information.
+     * @return the "pager" fragment of the "tasks" view.
+     * @throws ResponseStatusException with 400 Bad Request if the page or size is out of range.
+     */
+    @GetMapping(value = "/tasks/pager", produces = MediaType.TEXT_HTML_VALUE)
+    public String getPager(
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            Model model) {
+        log.info("Rendering pager - page: {}, size: {}", page, size);
+        if (page < 0 || size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page: " + page + ", size: " + size);
+        }
+
+        long count = taskService.count();
+        model.addAttribute("pageNumber", page);
+        model.addAttribute("totalPages", (int) ((count + size - 1) / size));
+        model.addAttribute("totalTasks", count);
+        model.addAttribute("pageSize", size);
+
+        return "tasks :: pager";
+    }
+
+    /**
+     * Streams the creation, update and deletion of tasks as Server-Sent Events named "change",
+     * so the task list page can apply them without reloading. The request thread is released
+     * as soon as the stream is open; the events are written with non-blocking I/O.
+     *
+     * @param lastEventId the Last-Event-ID header of a reconnecting EventSource, optional;
+     *                    the changes following it are replayed, or a "reset" event is sent if they are no longer kept.
+     * @param request the request to open the stream on.
+     * @param response the response of the stream, written by the broadcaster rather than rendered as a view.
+     * @throws IOException if the stream cannot be opened.
+     */
+    @GetMapping(value = "/tasks/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamEvents(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Opening task event stream - last event: {}", lastEventId);
+        taskEventBroadcaster.connect(request, lastEventId);
+    }
+
+    /**
+     * Retrieves a single task as JSON.
+     * The response carries a strong ETag derived from the task version.
+     *
+     * @param id the ID of the task to retrieve.
+     * @return 200 OK with the task,
+     *         304 Not Modified if the task matches the If-None-Match header,
+     *         404 Not Found if the task does not exist.
+     */
+    @GetMapping(value = "/tasks/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Task> getTask(@PathVariable Integer id) {
+        log.info("Fetching task with id: {}", id);
+        return taskService.findById(id)
+                .map(task -> ResponseEntity.ok().eTag(taskETag(task.getVersion())).body(task))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Searches tasks by the words of their description and returns them as JSON, most relevant first.
+     * No count query is executed; the response tells whether there is a next slice.
+     *
+     * @param query the words to search for.
+     * @param page the slice number to retrieve, defaults to 0.
+     * @param size the number of tasks per slice, defaults to 20.
+     * @return 200 OK with the matching tasks and their scores,
+     *         400 Bad Request if the query is blank or the slice is out of range.
+     */
+    @GetMapping(value = "/tasks/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> searchTasks(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        log.info("Searching tasks - query: {}, page: {}, size: {}", query, page, size);
+        if (page < 0 || size < 1 || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Slice<TaskSearchHit> hits;
+        try {
+            hits = taskSearchService.search(query, page, size);
+        } catch (IllegalArgumentException e) {
+            log.warn("Tasks not searched: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("content", hits.getContent());
+        response.put("page", page);
+        response.put("size", size);
+        response.put("hasNext", hits.hasNext());
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Updates an existing task with new description and status.
+     * The task is updated with a single statement; its affected row count drives the response.
+     * With an If-Match header, the task is only updated if its version matches the ETag.
      *
      * @param id the ID of the task to update.
      * @param taskUpdate a JSON payload containing updated task details.
+     * @param ifMatch the ETag the client expects the task to have, optional.
      * @return 200 OK if the task is updated successfully,
-     *         404 Not Found if the task is not found.
+     *         400 Bad Request if the description or status is missing or the description is invalid,
+     *         404 Not Found if the task is not found,
+     *         412 Precondition Failed if the task was modified since the client read it.
      */
     @PutMapping(value = "/tasks/edit/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public ResponseEntity<Void> updateTask(@PathVariable Integer id, @RequestBody Task taskUpdate) {
+    public ResponseEntity<Void> updateTask(@PathVariable Integer id, @RequestBody Task taskUpdate,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Updating task with id: {}", id);
-        Optional<Task> existingTaskOptional = taskService.findById(id);
-
-        if (existingTaskOptional.isPresent()) {
-            Task existingTask = existingTaskOptional.get();
-            existingTask.setDescription(taskUpdate.getDescription());
-            existingTask.setStatus(taskUpdate.getStatus());
+        if (taskUpdate.getDescription() == null || taskUpdate.getStatus() == null) {
+            log.warn("Task with id {} not updated: description and status are required", id);
+            return ResponseEntity.badRequest().build();
+        }
 
-            taskService.save(existingTask);
-            return ResponseEntity.ok().build();
-        } else {
-            log.warn("Task with id {} not found for update", id);
-            return ResponseEntity.notFound().build();
+        try {
+            Integer expectedVersion = parseIfMatch(ifMatch);
+            if (taskService.update(id, taskUpdate.getDescription(), taskUpdate.getStatus(), expectedVersion)) {
+                return expectedVersion == null
+                        ? ResponseEntity.ok().build()
+                        : ResponseEntity.ok().eTag(taskETag(expectedVersion + 1)).build();
+            } else {
+                log.warn("Task with id {} not found for update", id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Task with id {} not updated: precondition failed", id);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Task with id {} not updated: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
     }
 
     /**
-     * Deletes a task by its ID.
+     * Deletes a task by its ID with a single statement.
+     * With an If-Match header, the task is only deleted if its version matches the ETag.
      *
      * @param id the ID of the task to delete.
+     * @param ifMatch the ETag the client expects the task to have, optional.
      * @return 204 No Content if the task is deleted successfully,
-     *         404 Not Found if the task does not exist.
+     *         404 Not Found if the task does not exist,
+     *         412 Precondition Failed if the task was modified since the client read it.
      */
     @DeleteMapping("/tasks/{id}")
     @ResponseBody
-    public ResponseEntity<Void> deleteTask(@PathVariable Integer id) {
+    public ResponseEntity<Void> deleteTask(@PathVariable Integer id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Deleting task with id: {}", id);
-        if (taskService.findById(id).isPresent()) {
-            taskService.deleteById(id);
-            return ResponseEntity.noContent().build();
-        } else {
-            log.warn("Task with id {} not found for deletion", id);
-            return ResponseEntity.notFound().build();
+        try {
+            if (taskService.deleteById(id, parseIfMatch(ifMatch))) {
+                return ResponseEntity.noContent().build();
+            } else {
+                log.warn("Task with id {} not found for deletion", id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Task with id {} not deleted: precondition failed", id);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         }
     }
 
@@ -114,13 +340,13 @@ public class TaskController {
      * If the status is not provided, defaults to "IN_PROGRESS".
      *
      * @param newTask a JSON payload with task description and optional status.
-     * @return 200 OK if the task is created successfully.
+     * @return 200 OK with the ID of the task if it is created successfully.
      */
     @PostMapping(value = "/tasks", consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
     public ResponseEntity<Map<String, Object>> createTask(@RequestBody Task newTask) {
-        log.info("Creating new task: {}", newTask);
+        log.info("Creating new task with status: {}", newTask.getStatus());
         newTask.setStatus(Optional.of(newTask.getStatus()).orElse(Status.IN_PROGRESS));
 
         taskService.save(newTask);
@@ -128,7 +354,106 @@ public class TaskController {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Task created successfully!");
+        response.put("id", newTask.getId());
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Creates the given tasks in one transaction.
+     *
+     * @param tasks a JSON array of tasks with description and optional status.
+     * @return 200 OK with the result of every item,
+     *         413 Payload Too Large if the batch has too many items.
+     */
+    @PostMapping(value = "/tasks/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<List<TaskBatchResult>> createTasks(@RequestBody List<Task> tasks) {
+        log.info("Creating {} tasks in batch", tasks.size());
+        if (tasks.size() > maxBatchItems) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(taskService.createAll(tasks));
+    }
+
+    /**
+     * Updates the given tasks in one transaction.
+     *
+     * @param tasks a JSON array of tasks with ID, description and status.
+     * @return 200 OK with the result of every item,
+     *         413 Payload Too Large if the batch has too many items.
+     */
+    @PutMapping(value = "/tasks/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<List<TaskBatchResult>> updateTasks(@RequestBody List<Task> tasks) {
+        log.info("Updating {} tasks in batch", tasks.size());
+        if (tasks.size() > maxBatchItems) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(taskService.updateAll(tasks));
+    }
+
+    /**
+     * Deletes the tasks with the given IDs in one transaction.
+     *
+     * @param ids a JSON array of task IDs.
+     * @return 200 OK with the result of every item,
+     *         413 Payload Too Large if the batch has too many items.
+     */
+    @DeleteMapping(value = "/tasks/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<List<TaskBatchResult>> deleteTasks(@RequestBody List<Integer> ids) {
+        log.info("Deleting {} tasks in batch", ids.size());
+        if (ids.size() > maxBatchItems) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(taskService.deleteAll(ids));
+    }
+
+    /**
+     * Builds the strong ETag of a single task from its version.
+     */
+    private static String taskETag(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Builds the weak ETag of a list page from the IDs and versions of its tasks
+     * and the given paging state.
+     */
+    private static String listETag(List<Task> tasks, Object... pagingState) {
+        long hash = 17;
+        for (Task task : tasks) {
+            hash = 31 * hash + Objects.hashCode(task.getId());
+            hash = 31 * hash + Objects.hashCode(task.getVersion());
+        }
+        for (Object state : pagingState) {
+            hash = 31 * hash + Objects.hashCode(state);
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Extracts the expected task version from an If-Match header.
+     *
+     * @return the expected version, or null if the header is absent or matches any version
+     * @throws OptimisticLockingFailureException if the header can never match a task version
+     */
+    private static Integer parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new OptimisticLockingFailureException("If-Match requires a strong ETag: " + ifMatch);
+        }
+        try {
+            return Integer.valueOf(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new OptimisticLockingFailureException("If-Match does not match any task version: " + ifMatch, e);
+        }
+    }
 }
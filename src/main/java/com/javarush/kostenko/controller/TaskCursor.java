@@ -0,0 +1,49 @@
+package com.javarush.kostenko.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used by keyset pagination of tasks.
+ * A cursor wraps the ID of the task a page starts or ends with.
+ */
+public final class TaskCursor {
+
+    private static final String PREFIX = "id:";
+
+    private TaskCursor() {
+    }
+
+    /**
+     * Encodes a task ID into an opaque URL-safe cursor.
+     *
+     * @param id the task ID
+     * @return the encoded cursor
+     */
+    public static String encode(Integer id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor back into the task ID.
+     *
+     * @param cursor the encoded cursor
+     * @return the task ID
+     * @throws ResponseStatusException with 400 Bad Request if the cursor is malformed
+     */
+    public static Integer decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            return Integer.valueOf(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+        }
+    }
+}
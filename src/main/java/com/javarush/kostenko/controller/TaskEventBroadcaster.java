@@ -0,0 +1,187 @@
+package com.javarush.kostenko.controller;
+
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.service.TaskChangeFeed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes task changes to the task list pages as Server-Sent Events.
+ * The broadcaster holds a single subscription to the change feed, encodes every change once and queues it on
+ * every open event stream. The streams are written with non-blocking I/O (see SseConnection), so an idle
+ * subscriber costs a socket and a small queue but no thread, and a slow subscriber never holds up the others:
+ * one that falls more than tasks.events.max-queued-events messages behind is disconnected.
+ * The last tasks.events.replay-size changes are kept, so a reconnecting EventSource resumes after its
+ * Last-Event-ID. A client that missed more than that receives a "reset" event and reloads the list instead.
+ */
+@Component
+@Slf4j
+public class TaskEventBroadcaster implements AutoCloseable {
+
+    static final String SUBSCRIBERS_METRIC = "tasks.events.subscribers";
+    static final String DROPPED_METRIC = "tasks.events.dropped";
+    static final byte[] RESET = SseConnection.event("", "reset", "reset");
+
+    private final TaskChangeFeed taskChangeFeed;
+    private final int replaySize;
+    private final int maxQueuedEvents;
+    private final Counter dropped;
+    private final Set<SseConnection> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The last changes sent, oldest first. Also guards subscription and replayAfter, and orders the replay to a
+     * new connection before the changes broadcast after it.
+     */
+    private final Deque<Event> replay = new ArrayDeque<>();
+
+    private TaskChangeFeed.Subscription subscription;
+
+    /**
+     * Sequence number after which the replayed changes are complete.
+     */
+    private long replayAfter;
+
+    /**
+     * Creates the broadcaster. It subscribes to the change feed when the first client connects.
+     *
+     * @param taskChangeFeed the feed of the changes
+     * @param meterRegistry the registry of the subscriber and dropped client meters
+     * @param replaySize the number of changes kept for reconnecting clients
+     * @param maxQueuedEvents the number of messages a client may fall behind before it is disconnected
+     */
+    public TaskEventBroadcaster(TaskChangeFeed taskChangeFeed, MeterRegistry meterRegistry,
+                                @Value("${tasks.events.replay-size:1000}") int replaySize,
+                                @Value("${tasks.events.max-queued-events:256}") int maxQueuedEvents) {
+        this.taskChangeFeed = taskChangeFeed;
+        this.replaySize = replaySize;
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.dropped = Counter.builder(DROPPED_METRIC)
+                .description("Event stream clients disconnected for falling behind")
+                .register(meterRegistry);
+        Gauge.builder(SUBSCRIBERS_METRIC, connections, Set::size)
+                .description("Open task event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens an event stream on the request, which switches into asynchronous mode and releases its thread.
+     *
+     * @param request the request of the event stream
+     * @param lastEventId the ID of the last event a reconnecting client received, or null for a new client
+     * @throws IOException if the response cannot be written
+     */
+    public void connect(HttpServletRequest request, Long lastEventId) throws IOException {
+        register(SseConnection.open(request, maxQueuedEvents, 0), lastEventId);
+    }
+
+    /**
+     * Returns the number of open event streams.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return connections.size();
+    }
+
+    /**
+     * Sends a comment to every event stream, so that proxies keep idle streams open and closed ones are noticed.
+     * The feed subscription is cancelled while there are no streams.
+     */
+    @Scheduled(fixedDelayString = "${tasks.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        sendToAll(SseConnection.HEARTBEAT);
+        synchronized (replay) {
+            if (connections.isEmpty() && subscription != null) {
+                subscription.cancel();
+                subscription = null;
+                replay.clear();
+                log.debug("No task event streams left; unsubscribed from the change feed.");
+            }
+        }
+    }
+
+    /**
+     * Closes all event streams; the clients reconnect to another instance or once this one is restarted.
+     */
+    @Override
+    public void close() {
+        synchronized (replay) {
+            if (subscription != null) {
+                subscription.cancel();
+                subscription = null;
+            }
+        }
+        connections.forEach(SseConnection::close);
+        connections.clear();
+    }
+
+    void register(SseConnection connection, Long lastEventId) {
+        synchronized (replay) {
+            if (subscription == null) {
+                subscription = taskChangeFeed.subscribe(null, this::broadcast);
+                replayAfter = subscription.getSeq();
+                log.debug("Subscribed to the change feed after seq {}.", replayAfter);
+            }
+            if (lastEventId != null) {
+                connection.send(lastEventId < replayAfter ? RESET : replayed(lastEventId));
+            }
+            connections.add(connection);
+        }
+        connection.onClose(() -> connections.remove(connection));
+    }
+
+    void broadcast(List<TaskChange> changes) {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        synchronized (replay) {
+            for (TaskChange change : changes) {
+                Event event = new Event(change.getSeq(), TaskChangeEvents.encode(change));
+                replay.addLast(event);
+                message.writeBytes(event.data());
+            }
+            while (replay.size() > replaySize) {
+                replayAfter = replay.removeFirst().seq();
+            }
+            sendToAll(message.toByteArray());
+        }
+        log.debug("Broadcast {} task changes to {} event streams.", changes.size(), connections.size());
+    }
+
+    private byte[] replayed(long lastEventId) {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        for (Event event : replay) {
+            if (event.seq() > lastEventId) {
+                message.writeBytes(event.data());
+            }
+        }
+        return message.size() == 0 ? SseConnection.HEARTBEAT : message.toByteArray();
+    }
+
+    private void sendToAll(byte[] message) {
+        for (SseConnection connection : connections) {
+            boolean open = connection.isOpen();
+            if (!connection.send(message)) {
+                connections.remove(connection);
+                if (open) {
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    private record Event(long seq, byte[] data) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.javarush.kostenko.dao;
+
+import com.javarush.kostenko.domain.entity.TaskChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for the task change outbox (TaskChange entity).
+ */
+@Repository
+public interface TaskChangeRepository extends JpaRepository<TaskChange, Long> {
+
+    /**
+     * Retrieves the changes following the given sequence number, as a primary key range scan.
+     *
+     * @param seq the sequence number to read after
+     * @param pageable the maximum number of changes
+     * @return the changes in ascending sequence order
+     */
+    List<TaskChange> findBySeqGreaterThanOrderBySeqAsc(Long seq, Pageable pageable);
+
+    /**
+     * Returns the highest sequence number of all changes.
+     *
+     * @return the sequence number, or null if there are no changes
+     */
+    @Query("select max(c.seq) from TaskChange c")
+    Long findLastSeq();
+
+    /**
+     * Returns the lowest sequence number of all changes, the oldest change retained by the purge.
+     *
+     * @return the sequence number, or null if there are no changes
+     */
+    @Query("select min(c.seq) from TaskChange c")
+    Long findFirstSeq();
+
+    /**
+     * Returns the lowest sequence number of the changes recorded after the given time,
+     * as a range scan of the recorded_at index.
+     *
+     * @param recordedAt the time after which changes are included
+     * @return the sequence number, or null if there are no such changes
+     */
+    @Query("select min(c.seq) from TaskChange c where c.recordedAt > :recordedAt")
+    Long findFirstSeqRecordedAfter(@Param("recordedAt") Instant recordedAt);
+
+    /**
+     * Deletes the changes recorded before the given time and numbered below the given sequence number
+     * with a single statement.
+     *
+     * @param recordedAt the time before which changes are deleted
+     * @param seq the sequence number below which changes are deleted
+     * @return the number of deleted changes
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from TaskChange c where c.recordedAt < :recordedAt and c.seq < :seq")
+    int deleteRecordedBefore(@Param("recordedAt") Instant recordedAt, @Param("seq") Long seq);
+}
@@ -1,14 +1,205 @@
 package com.javarush.kostenko.dao;
 
+import com.javarush.kostenko.domain.dto.StatusCount;
+import com.javarush.kostenko.domain.dto.TaskStatus;
+import com.javarush.kostenko.domain.dto.TaskView;
 import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing tasks (Task entity).
  * Provides standard CRUD operations and pagination support via Spring Data JPA.
+ * The task list queries are cached in the "task-list" query cache region.
+ * Single tasks are updated and deleted through TaskRepositoryCustom, which keeps the other tasks cached.
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Integer> {
+public interface TaskRepository extends JpaRepository<Task, Integer>, TaskRepositoryCustom {
+
+    String TASK_LIST_REGION = "task-list";
+
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming tasks.
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
+    /**
+     * Retrieves one page of tasks without executing a count query.
+     *
+     * @param pageable the page to retrieve
+     * @return the tasks of the requested page
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = TASK_LIST_REGION)
+    })
+    List<Task> findAllBy(Pageable pageable);
+
+    /**
+     * Retrieves a slice of task projections in the order of the given pageable,
+     * without executing a count query.
+     *
+     * @param pageable the slice to retrieve and its sort order
+     * @return the task projections
+     */
+    @Query("select new com.javarush.kostenko.domain.dto.TaskView(t.id, t.description, t.status, t.version) "
+            + "from Task t")
+    Slice<TaskView> findViews(Pageable pageable);
+
+    /**
+     * Retrieves a slice of task projections with the given status, without executing a count query.
+     * Runs as a range scan of the (status, id) index.
+     *
+     * @param status the task status
+     * @param pageable the slice to retrieve and its sort order
+     * @return the task projections
+     */
+    @Query("select new com.javarush.kostenko.domain.dto.TaskView(t.id, t.description, t.status, t.version) "
+            + "from Task t where t.status = :status")
+    Slice<TaskView> findViewsByStatus(@Param("status") Status status, Pageable pageable);
+
+    /**
+     * Retrieves a slice of task projections whose description matches the given LIKE pattern,
+     * without executing a count query. The pattern uses '!' as escape character.
+     * Runs as a range scan of the description index if the pattern has a fixed prefix.
+     *
+     * @param pattern the LIKE pattern
+     * @param pageable the slice to retrieve and its sort order
+     * @return the task projections
+     */
+    @Query("select new com.javarush.kostenko.domain.dto.TaskView(t.id, t.description, t.status, t.version) "
+            + "from Task t where t.description like :pattern escape '!'")
+    Slice<TaskView> findViewsByDescriptionLike(@Param("pattern") String pattern, Pageable pageable);
+
+    /**
+     * Retrieves a slice of task projections with the given status whose description matches
+     * the given LIKE pattern, without executing a count query. The pattern uses '!' as escape character.
+     * Runs as a range scan of the (status, id) or the description index.
+     *
+     * @param status the task status
+     * @param pattern the LIKE pattern
+     * @param pageable the slice to retrieve and its sort order
+     * @return the task projections
+     */
+    @Query("select new com.javarush.kostenko.domain.dto.TaskView(t.id, t.description, t.status, t.version) "
+            + "from Task t where t.status = :status and t.description like :pattern escape '!'")
+    Slice<TaskView> findViewsByStatusAndDescriptionLike(@Param("status") Status status,
+                                                        @Param("pattern") String pattern,
+                                                        Pageable pageable);
+
+    /**
+     * Streams all task projections in ascending ID order.
+     * Rows are fetched from the database in chunks; the stream must be consumed
+     * inside a transaction and closed afterwards.
+     *
+     * @return a stream of task projections
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new com.javarush.kostenko.domain.dto.TaskView(t.id, t.description, t.status, t.version) "
+            + "from Task t order by t.id")
+    Stream<TaskView> streamViews();
+
+    /**
+     * Streams the task projections with the given status in ascending ID order.
+     * Rows are fetched from the database in chunks; the stream must be consumed
+     * inside a transaction and closed afterwards.
+     *
+     * @param status the task status
+     * @return a stream of task projections
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new com.javarush.kostenko.domain.dto.TaskView(t.id, t.description, t.status, t.version) "
+            + "from Task t where t.status = :status order by t.id")
+    Stream<TaskView> streamViewsByStatus(@Param("status") Status status);
+
+    /**
+     * Finds which of the given IDs belong to existing tasks, together with their statuses.
+     *
+     * @param ids the task IDs to check
+     * @return the IDs and statuses of the existing tasks
+     */
+    @Query("select new com.javarush.kostenko.domain.dto.TaskStatus(t.id, t.status) from Task t where t.id in :ids")
+    List<TaskStatus> findStatusesById(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Writes an update queued by the write-behind queue with a single statement, setting the version
+     * the update was acknowledged with. The task is only updated if its version is at least the base version
+     * of the update and less than the new version, so the update is not applied twice or over a change
+     * made bypassing the queue.
+     *
+     * @param id the ID of the task to update
+     * @param description the new description
+     * @param status the new status
+     * @param baseVersion the version of the task the update was first queued for
+     * @param version the version of the task after the update
+     * @return the number of updated rows, 0 if the task does not exist or has a version outside of the range
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Task t set t.description = :description, t.status = :status, t.version = :version "
+            + "where t.id = :id and t.version >= :baseVersion and t.version < :version")
+    int updateDescriptionAndStatusToVersion(@Param("id") Integer id,
+                                            @Param("description") String description,
+                                            @Param("status") Status status,
+                                            @Param("baseVersion") Integer baseVersion,
+                                            @Param("version") Integer version);
+
+    /**
+     * Reads the version of a task.
+     *
+     * @param id the ID of the task
+     * @return the version of the task, or null if the task does not exist
+     */
+    @Query("select t.version from Task t where t.id = :id")
+    Integer findVersionById(@Param("id") Integer id);
+
+    /**
+     * Counts tasks grouped by their status.
+     *
+     * @return the number of tasks for every status having at least one task
+     */
+    @Query("select new com.javarush.kostenko.domain.dto.StatusCount(t.status, count(t)) from Task t group by t.status")
+    List<StatusCount> countGroupedByStatus();
+
+    /**
+     * Seeks tasks with an ID greater than the given one, in ascending ID order.
+     * No count query is executed.
+     *
+     * @param id the ID to seek after
+     * @param pageable the page size restriction
+     * @return a Slice with the next tasks
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = TASK_LIST_REGION)
+    })
+    Slice<Task> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
 
+    /**
+     * Seeks tasks with an ID less than the given one, in descending ID order.
+     * No count query is executed.
+     *
+     * @param id the ID to seek before
+     * @param pageable the page size restriction
+     * @return a Slice with the previous tasks
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = TASK_LIST_REGION)
+    })
+    Slice<Task> findByIdLessThanOrderByIdDesc(Integer id, Pageable pageable);
 }
@@ -0,0 +1,41 @@
+package com.javarush.kostenko.dao;
+
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+
+import java.util.Optional;
+
+/**
+ * Single-task writes of TaskRepository that keep the other tasks in the second-level cache.
+ * Every write is one statement returning its affected row count and evicts only the written task.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Updates the description and status of a task with a single statement, incrementing its version.
+     *
+     * @param id the ID of the task to update
+     * @param description the new description
+     * @param status the new status
+     * @param version the expected current version of the task, or null to update it unconditionally
+     * @return the number of updated rows, 0 if the task does not exist or has another version
+     */
+    int updateDescriptionAndStatus(Integer id, String description, Status status, Integer version);
+
+    /**
+     * Deletes a task with a single statement, without loading it first.
+     *
+     * @param id the ID of the task to delete
+     * @param version the expected current version of the task, or null to delete it unconditionally
+     * @return the number of deleted rows, 0 if the task does not exist or has another version
+     */
+    int removeById(Integer id, Integer version);
+
+    /**
+     * Returns a task only if it is in the second-level cache, without querying the database.
+     *
+     * @param id the ID of the task
+     * @return the detached cached task, or an empty Optional if the task is not cached
+     */
+    Optional<Task> findCachedById(Integer id);
+}
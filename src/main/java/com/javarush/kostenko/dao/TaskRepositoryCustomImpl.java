@@ -0,0 +1,122 @@
+package com.javarush.kostenko.dao;
+
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import static com.javarush.kostenko.dao.TaskRepository.TASK_LIST_REGION;
+
+/**
+ * Implements the single-task writes of TaskRepository.
+ * Hibernate treats every HQL or native update and delete as a bulk statement and evicts all tasks from
+ * the second-level cache after it, even with the task entity as its only synchronized space. The writes
+ * therefore run as plain JDBC statements on the connection of the current transaction, and evict the written task
+ * themselves: right after the statement, and again when the transaction completes, so a concurrent read cannot
+ * cache the old row in between. A delete also evicts the cached task lists, which may still contain the task.
+ * Like the modifying repository queries, the writes flush the persistence context first and clear it afterwards.
+ */
+@RequiredArgsConstructor
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final String UPDATE = "update task set description = ?, status = ?, version = version + 1 "
+            + "where id = ?";
+    private static final String DELETE = "delete from task where id = ?";
+    private static final String VERSION_CONDITION = " and version = ?";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int updateDescriptionAndStatus(Integer id, String description, Status status, Integer version) {
+        return write(id, version, false, UPDATE, statement -> {
+            statement.setString(1, description);
+            // The status is mapped by ordinal.
+            statement.setInt(2, status.ordinal());
+            statement.setInt(3, id);
+            return 4;
+        });
+    }
+
+    @Override
+    public int removeById(Integer id, Integer version) {
+        return write(id, version, true, DELETE, statement -> {
+            statement.setInt(1, id);
+            return 2;
+        });
+    }
+
+    @Override
+    public Optional<Task> findCachedById(Integer id) {
+        if (!entityManager.getEntityManagerFactory().getCache().contains(Task.class, id)) {
+            return Optional.empty();
+        }
+        Task task = entityManager.find(Task.class, id);
+        if (task != null) {
+            entityManager.detach(task);
+        }
+        return Optional.ofNullable(task);
+    }
+
+    private int write(Integer id, Integer version, boolean deleted, String sql, Parameters parameters) {
+        entityManager.flush();
+        int count = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    version == null ? sql : sql + VERSION_CONDITION)) {
+                int next = parameters.set(statement);
+                if (version != null) {
+                    statement.setInt(next, version);
+                }
+                return statement.executeUpdate();
+            }
+        });
+        entityManager.clear();
+
+        if (count > 0) {
+            evict(id, deleted);
+        }
+        return count;
+    }
+
+    private void evict(Integer id, boolean deleted) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        Runnable eviction = () -> {
+            cache.evict(Task.class, id);
+            if (deleted) {
+                cache.evictQueryRegion(TASK_LIST_REGION);
+            }
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Binds the parameters of a write statement, except for its version condition.
+     */
+    @FunctionalInterface
+    private interface Parameters {
+
+        /**
+         * Binds the parameters to the statement.
+         *
+         * @param statement the statement to bind the parameters to
+         * @return the index of the parameter of the version condition
+         * @throws SQLException if a parameter cannot be bound
+         */
+        int set(PreparedStatement statement) throws SQLException;
+    }
+}
@@ -0,0 +1,69 @@
+package com.javarush.kostenko.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes the connections of read-only transactions to a healthy replica and all others to the primary.
+ * Reads fall back to the primary when all replicas are ejected, and while the request is pinned to the
+ * primary for read-your-writes consistency.
+ * The read-only flag of a transaction is only known once it has begun, after the JPA transaction manager
+ * has asked for a connection, so this DataSource must be wrapped in a LazyConnectionDataSourceProxy,
+ * which defers the choice of the connection to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    static final String CONNECTIONS_METRIC = "tasks.datasource.connections";
+
+    private final ReplicaSet replicaSet;
+    private final Map<String, Counter> connections = new HashMap<>();
+
+    /**
+     * Creates the routing DataSource over the primary and the replicas of the replica set.
+     *
+     * @param replicaSet the primary and the replicas
+     * @param meterRegistry the registry of the connection counter per target
+     */
+    public ReadWriteRoutingDataSource(ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+        this.replicaSet = replicaSet;
+
+        Map<Object, Object> targets = new HashMap<>(replicaSet.getReplicas());
+        targets.put(PRIMARY, replicaSet.getPrimary());
+        for (Object target : targets.keySet()) {
+            connections.put((String) target, Counter.builder(CONNECTIONS_METRIC)
+                    .description("Connections handed out per database")
+                    .tag("target", (String) target)
+                    .register(meterRegistry));
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(replicaSet.getPrimary());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = route();
+        connections.get(target).increment();
+        return target;
+    }
+
+    private String route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.onWrite();
+            return PRIMARY;
+        }
+        if (ReadYourWrites.isPinned()) {
+            return PRIMARY;
+        }
+        return replicaSet.next().orElse(PRIMARY);
+    }
+}
@@ -0,0 +1,51 @@
+package com.javarush.kostenko.datasource;
+
+/**
+ * Tracks, per request thread, whether reads must go to the primary so the client sees its own writes.
+ * A request is pinned to the primary if the client wrote shortly before (see ReadYourWritesInterceptor),
+ * and from the moment it writes itself. Outside of requests, such as in scheduled jobs, nothing is pinned.
+ */
+public final class ReadYourWrites {
+
+    /**
+     * Whether the current request is pinned to the primary; null outside of requests.
+     */
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Starts tracking the current request.
+     *
+     * @param pinned whether the reads of the request must go to the primary from the start
+     */
+    public static void begin(boolean pinned) {
+        PINNED.set(pinned);
+    }
+
+    /**
+     * Stops tracking the current request, releasing the thread for other requests.
+     */
+    public static void end() {
+        PINNED.remove();
+    }
+
+    /**
+     * Tells whether the reads of the current request must go to the primary.
+     *
+     * @return true if the request is pinned to the primary
+     */
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * Pins the current request to the primary after it wrote, if it is tracked.
+     */
+    static void onWrite() {
+        if (PINNED.get() != null) {
+            PINNED.set(true);
+        }
+    }
+}
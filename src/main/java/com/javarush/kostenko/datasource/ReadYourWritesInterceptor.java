@@ -0,0 +1,89 @@
+package com.javarush.kostenko.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Gives clients read-your-writes consistency while reads are served by replicas.
+ * A mutating request (any method but GET, HEAD and OPTIONS) runs entirely on the primary and sets a cookie
+ * pinning the following requests of the client to the primary for the stickiness period, by which time
+ * a healthy replica has applied the write.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String COOKIE = "tasks-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final long stickinessMs;
+
+    /**
+     * Creates the interceptor.
+     *
+     * @param stickinessMs how long the requests of a client go to the primary after it wrote
+     */
+    public ReadYourWritesInterceptor(long stickinessMs) {
+        this.stickinessMs = stickinessMs;
+    }
+
+    /**
+     * Pins the request to the primary if it mutates, or if the client wrote within the stickiness period.
+     *
+     * @return always true, the request is processed further
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = System.currentTimeMillis();
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            Cookie cookie = new Cookie(COOKIE, String.valueOf(now + stickinessMs));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.ceil(stickinessMs / 1000.0));
+            response.addCookie(cookie);
+            ReadYourWrites.begin(true);
+            return true;
+        }
+
+        ReadYourWrites.begin(pinnedUntil(request) > now);
+        return true;
+    }
+
+    /**
+     * Stops tracking the request on the current thread, which is reused for other requests.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReadYourWrites.end();
+    }
+
+    /**
+     * Stops tracking the request on the current thread when the request continues asynchronously.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ReadYourWrites.end();
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,249 @@
+package com.javarush.kostenko.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The primary database and its read replicas, with the health of every replica.
+ * Every spring.datasource.replica.check-interval-ms, each replica is checked: it must hand out a connection
+ * and must not lag more than maxLagMs behind the primary. A replica failing the check is ejected, so reads
+ * are no longer routed to it, until a later check passes again.
+ * The lag is measured with the task change outbox, which every write appends to: each check records when the
+ * primary's newest change was first seen, and a replica lags by the age of the oldest change it does not have yet.
+ * The measurement is therefore as precise as the check interval, and a replica of an idle primary has no lag.
+ * The changes the first check finds on the primary may be of any age, so a replica that has not applied them yet
+ * counts as lagging beyond the maximum until it catches up; until then, reads go to the primary.
+ * A check waits for an unreachable replica as long as its pool's connection timeout, plus at most a second
+ * for the query, so the replica pools are configured with a short one (spring.datasource.replica.timeout-ms).
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    static final String HEALTHY_METRIC = "tasks.datasource.replica.healthy";
+    static final String LAG_METRIC = "tasks.datasource.replica.lag";
+
+    private static final String LAST_CHANGE_QUERY = "select max(seq) from task_change";
+    private static final int MAX_OBSERVATIONS = 1000;
+    private static final int QUERY_TIMEOUT_SECONDS = 1;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * The newest change of the primary at every check where it changed, oldest first.
+     * Only accessed by the checking thread.
+     */
+    private final Deque<Observation> observations = new ArrayDeque<>();
+
+    /**
+     * Creates the replica set and checks the replicas once, so that reads are only routed to healthy ones.
+     *
+     * @param primary the primary database, receiving all writes
+     * @param replicas the replicas by name, in the order reads are distributed over them
+     * @param maxLagMs the lag beyond which a replica is ejected
+     * @param meterRegistry the registry of the health and lag gauges of the replicas
+     */
+    public ReplicaSet(DataSource primary, Map<String, DataSource> replicas, long maxLagMs,
+                      MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            Gauge.builder(HEALTHY_METRIC, replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether reads are routed to the replica")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder(LAG_METRIC, replica, r -> r.lagMs)
+                    .description("Replication lag of the replica in milliseconds, -1 if it is unreachable")
+                    .tag("replica", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        });
+        check();
+    }
+
+    /**
+     * Returns the primary database.
+     *
+     * @return the primary DataSource
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Tells whether there are replicas at all, healthy or not.
+     *
+     * @return true if no replicas are configured
+     */
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Returns the replicas by name.
+     *
+     * @return the name and DataSource of every replica
+     */
+    public Map<String, DataSource> getReplicas() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach(replica -> dataSources.put(replica.name, replica.dataSource));
+        return dataSources;
+    }
+
+    /**
+     * Picks the replica to read from, taking turns among the healthy ones.
+     *
+     * @return the name of a healthy replica, or empty if all replicas are ejected
+     */
+    public Optional<String> next() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return Optional.of(replica.name);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks the lag of every replica, ejecting the unreachable and lagging ones and readmitting recovered ones.
+     */
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        try {
+            observe(lastChange(primary), now);
+        } catch (SQLException e) {
+            // Without the primary the lag cannot be measured; the replicas keep their state.
+            log.warn("Replica check skipped, the primary cannot be read: {}", e.getMessage());
+            return;
+        }
+
+        long oldestApplied = Long.MAX_VALUE;
+        for (Replica replica : replicas) {
+            try {
+                long applied = lastChange(replica.dataSource);
+                oldestApplied = Math.min(oldestApplied, applied);
+                replica.lagMs = lag(applied, now);
+            } catch (SQLException e) {
+                log.debug("Replica {} is unreachable.", replica.name, e);
+                replica.lagMs = -1;
+            }
+            boolean healthy = replica.lagMs >= 0 && replica.lagMs <= maxLagMs;
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("Replica {} readmitted, lag {} ms.", replica.name, replica.lagMs);
+                } else {
+                    log.warn("Replica {} ejected, lag {} ms (maximum {} ms).", replica.name, replica.lagMs, maxLagMs);
+                }
+            }
+            replica.healthy = healthy;
+        }
+        forget(oldestApplied);
+    }
+
+    /**
+     * Closes the connection pools of the primary and the replicas.
+     *
+     * @throws Exception if a pool cannot be closed
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static long lastChange(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery(LAST_CHANGE_QUERY)) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void observe(long seq, long now) {
+        if (observations.isEmpty() || observations.getLast().seq() < seq) {
+            observations.addLast(new Observation(seq, now, observations.isEmpty()));
+            if (observations.size() > MAX_OBSERVATIONS) {
+                observations.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Returns the age of the oldest change observed on the primary that the replica has not applied yet.
+     * The age of the changes of the first observation is not known, so it is at least beyond the maximum lag.
+     */
+    private long lag(long applied, long now) {
+        for (Observation observation : observations) {
+            if (observation.seq() > applied) {
+                long age = now - observation.time();
+                return observation.first() ? Math.max(age, maxLagMs + 1) : age;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Drops the observations every replica has applied, keeping the newest.
+     */
+    private void forget(long applied) {
+        while (observations.size() > 1 && observations.getFirst().seq() <= applied) {
+            observations.removeFirst();
+        }
+    }
+
+    /**
+     * The newest change of the primary, when it was first seen, and whether it was seen by the first check,
+     * which has no earlier observation telling how old the change is.
+     */
+    private record Observation(long seq, long time, boolean first) {
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMs = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.javarush.kostenko.domain.dto;
+
+import com.javarush.kostenko.domain.enums.Status;
+
+/**
+ * Number of tasks having the given status.
+ *
+ * @param status the task status
+ * @param count the number of tasks with this status
+ */
+public record StatusCount(Status status, long count) {
+}
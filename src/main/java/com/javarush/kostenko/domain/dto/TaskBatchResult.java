@@ -0,0 +1,22 @@
+package com.javarush.kostenko.domain.dto;
+
+import com.javarush.kostenko.domain.enums.BatchOutcome;
+
+/**
+ * Result of a single item of a batch operation on tasks.
+ *
+ * @param index the position of the item in the request
+ * @param id the ID of the task, or null if no task was created
+ * @param outcome the outcome of the operation
+ * @param message the reason of a failed operation, or null on success
+ */
+public record TaskBatchResult(int index, Integer id, BatchOutcome outcome, String message) {
+
+    public static TaskBatchResult success(int index, Integer id, BatchOutcome outcome) {
+        return new TaskBatchResult(index, id, outcome, null);
+    }
+
+    public static TaskBatchResult failure(int index, Integer id, BatchOutcome outcome, String message) {
+        return new TaskBatchResult(index, id, outcome, message);
+    }
+}
@@ -0,0 +1,48 @@
+package com.javarush.kostenko.domain.dto;
+
+import com.javarush.kostenko.domain.enums.DescriptionMatch;
+import com.javarush.kostenko.domain.enums.Status;
+
+/**
+ * Server-side filter of the task list.
+ * Every criterion is optional; a null criterion matches all tasks.
+ *
+ * @param status the status the tasks must have
+ * @param description the text the task descriptions must start with or contain
+ * @param match how the description text is matched, prefix matching if null
+ */
+public record TaskFilter(Status status, String description, DescriptionMatch match) {
+
+    /**
+     * Filter matching all tasks.
+     */
+    public static final TaskFilter NONE = new TaskFilter(null, null, null);
+
+    /**
+     * Creates a filter matching the tasks with the given status.
+     *
+     * @param status the task status, or null for all tasks
+     * @return the filter
+     */
+    public static TaskFilter byStatus(Status status) {
+        return new TaskFilter(status, null, null);
+    }
+
+    /**
+     * Checks whether the filter restricts the task description.
+     *
+     * @return true if a non-empty description text is set
+     */
+    public boolean hasDescription() {
+        return description != null && !description.isEmpty();
+    }
+
+    /**
+     * Returns the description match mode, defaulting to prefix matching.
+     *
+     * @return the description match mode
+     */
+    public DescriptionMatch descriptionMatch() {
+        return match == null ? DescriptionMatch.PREFIX : match;
+    }
+}
@@ -0,0 +1,15 @@
+package com.javarush.kostenko.domain.dto;
+
+import com.javarush.kostenko.domain.enums.Status;
+
+/**
+ * A task matching a full-text search, with its relevance score.
+ *
+ * @param id the task ID
+ * @param description the task description
+ * @param status the task status
+ * @param version the task version
+ * @param score the relevance of the task, higher is more relevant
+ */
+public record TaskSearchHit(Integer id, String description, Status status, Integer version, double score) {
+}
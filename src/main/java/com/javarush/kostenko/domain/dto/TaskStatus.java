@@ -0,0 +1,12 @@
+package com.javarush.kostenko.domain.dto;
+
+import com.javarush.kostenko.domain.enums.Status;
+
+/**
+ * Status of a task, selected without hydrating a managed Task entity.
+ *
+ * @param id the task ID
+ * @param status the task status
+ */
+public record TaskStatus(Integer id, Status status) {
+}
@@ -0,0 +1,26 @@
+package com.javarush.kostenko.domain.dto;
+
+import com.javarush.kostenko.domain.enums.Status;
+
+/**
+ * Update of a task acknowledged by the write-behind queue and not yet written to the database.
+ * Repeated updates of a task are coalesced into one, which keeps the version the first of them was based on.
+ *
+ * @param id the task ID
+ * @param description the new task description
+ * @param status the new task status
+ * @param baseVersion the version of the task in the database the update is applied to
+ * @param version the version of the task after the update
+ */
+public record TaskUpdate(Integer id, String description, Status status, int baseVersion, int version) {
+
+    /**
+     * Returns this update applied to another version of the task in the database.
+     *
+     * @param baseVersion the new base version
+     * @return the rebased update
+     */
+    public TaskUpdate rebase(int baseVersion) {
+        return new TaskUpdate(id, description, status, baseVersion, version);
+    }
+}
@@ -0,0 +1,15 @@
+package com.javarush.kostenko.domain.dto;
+
+import com.javarush.kostenko.domain.enums.Status;
+
+/**
+ * Read-only projection of a task, selected directly from the query
+ * without hydrating a managed Task entity.
+ *
+ * @param id the task ID
+ * @param description the task description
+ * @param status the task status
+ * @param version the task version
+ */
+public record TaskView(Integer id, String description, Status status, Integer version) {
+}
@@ -1,24 +1,39 @@
 package com.javarush.kostenko.domain.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.javarush.kostenko.domain.enums.Status;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Represents a task in the system.
  * Each task has a description and a status.
- * Mapped to the "task" table in the database.
+ * IDs are allocated from the "task_seq" sequence in blocks, so inserts can be batched;
+ * SequenceInitializer raises the sequence above the existing IDs at startup.
+ * The version is incremented on every update and used for optimistic concurrency control.
+ * Mapped to the "task" table in the database and cached in the second-level cache.
+ * The indexes on (status, id) and on description back the filtered task queries.
+ * The all-arguments constructor creates detached copies, such as tasks with a pending write-behind update.
  */
 @Entity
-@Table(name = "task")
+@Table(name = "task", indexes = {
+        @Index(name = "idx_task_status_id", columnList = "status, id"),
+        @Index(name = "idx_task_description", columnList = "description")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @RequiredArgsConstructor
+@AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     Integer id;
 
@@ -30,4 +45,10 @@ public class Task {
     @Column(nullable = false)
     @NonNull
     Status status;
+
+    @Version
+    @Column(nullable = false)
+    @Setter(AccessLevel.NONE)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    Integer version;
 }
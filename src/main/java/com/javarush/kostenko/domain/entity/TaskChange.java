@@ -0,0 +1,86 @@
+package com.javarush.kostenko.domain.entity;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import com.javarush.kostenko.domain.enums.Status;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * Represents a change of a task, recorded in the "task_change" outbox table
+ * in the same transaction as the change itself.
+ * Sequence numbers are assigned by the identity column of the table when a change is inserted, so they increase
+ * in the order the changes are recorded, also across several application instances, without a sequence table
+ * all inserts contend on, and can serve as the position in the change feed.
+ * Deletions carry only the task ID; creations and updates carry the version the task has after the change.
+ * The index on recorded_at backs the purge of old changes.
+ */
+@Entity
+@Table(name = "task_change", indexes = @Index(name = "idx_task_change_recorded_at", columnList = "recorded_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TaskChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long seq;
+
+    @Column(name = "task_id", nullable = false)
+    Integer taskId;
+
+    @Enumerated
+    @Column(nullable = false)
+    ChangeType type;
+
+    @Column(length = 100)
+    String description;
+
+    @Enumerated
+    Status status;
+
+    Integer version;
+
+    @Column(name = "recorded_at", nullable = false)
+    @JsonSerialize(using = ToStringSerializer.class)
+    Instant recordedAt;
+
+    /**
+     * Creates a change carrying the current state of a task.
+     *
+     * @param type the kind of change
+     * @param task the task after the change
+     * @return the change, to be recorded by TaskChangeService
+     */
+    public static TaskChange of(ChangeType type, Task task) {
+        return of(type, task.getId(), task.getDescription(), task.getStatus(), task.getVersion());
+    }
+
+    /**
+     * Creates a change carrying the given state of a task.
+     *
+     * @param type the kind of change
+     * @param taskId the ID of the task
+     * @param description the description after the change
+     * @param status the status after the change
+     * @param version the version after the change
+     * @return the change, to be recorded by TaskChangeService
+     */
+    public static TaskChange of(ChangeType type, Integer taskId, String description, Status status, Integer version) {
+        return new TaskChange(null, taskId, type, description, status, version, null);
+    }
+
+    /**
+     * Creates the deletion of a task.
+     *
+     * @param taskId the ID of the deleted task
+     * @return the change, to be recorded by TaskChangeService
+     */
+    public static TaskChange deleted(Integer taskId) {
+        return of(ChangeType.DELETED, taskId, null, null, null);
+    }
+}
@@ -0,0 +1,12 @@
+package com.javarush.kostenko.domain.enums;
+
+/**
+ * Enum representing the outcome of a single item of a batch operation on tasks.
+ */
+public enum BatchOutcome {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    INVALID
+}
@@ -0,0 +1,10 @@
+package com.javarush.kostenko.domain.enums;
+
+/**
+ * Enum representing the kind of change recorded for a task in the change feed.
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
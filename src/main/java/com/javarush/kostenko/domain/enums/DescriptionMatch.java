@@ -0,0 +1,9 @@
+package com.javarush.kostenko.domain.enums;
+
+/**
+ * Enum representing how a description filter is matched against task descriptions.
+ */
+public enum DescriptionMatch {
+    PREFIX,
+    CONTAINS
+}
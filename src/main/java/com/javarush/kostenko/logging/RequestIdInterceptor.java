@@ -0,0 +1,77 @@
+package com.javarush.kostenko.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Puts a request ID into the MDC for the duration of every request handled by a controller,
+ * so all log lines of one request can be correlated.
+ * The ID is taken from the X-Request-Id header if the client sent a valid one, otherwise it is generated.
+ * It is echoed back in the X-Request-Id response header.
+ * Asynchronous requests, such as event streams, keep their ID when they are dispatched again to complete.
+ */
+public class RequestIdInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    private static final String ATTRIBUTE = RequestIdInterceptor.class.getName() + ".requestId";
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    /**
+     * Binds the request ID to the current thread and adds it to the response.
+     *
+     * @return always true, the request is processed further
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ATTRIBUTE) instanceof String requestId) {
+            MDC.put(MDC_KEY, requestId);
+            return true;
+        }
+
+        String requestId = request.getHeader(HEADER);
+        if (requestId == null || !VALID_ID.matcher(requestId).matches()) {
+            requestId = generate();
+        }
+        request.setAttribute(ATTRIBUTE, requestId);
+
+        MDC.put(MDC_KEY, requestId);
+        response.setHeader(HEADER, requestId);
+        return true;
+    }
+
+    /**
+     * Removes the request ID from the current thread, which is reused for other requests.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        MDC.remove(MDC_KEY);
+    }
+
+    /**
+     * Removes the request ID from the current thread when the request continues asynchronously.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        MDC.remove(MDC_KEY);
+    }
+
+    /**
+     * Generates a random 16 character hexadecimal ID.
+     * ThreadLocalRandom is used instead of UUID.randomUUID(), which contends on a shared SecureRandom.
+     *
+     * @return a new request ID
+     */
+    static String generate() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+}
@@ -0,0 +1,55 @@
+package com.javarush.kostenko.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Times every TaskRepository call and counts the SQL statements it executes.
+ * A call running many statements points to an N+1 pattern, a findById running none was
+ * answered from the second-level cache.
+ */
+@Aspect
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    static final String CALLS_METRIC = "tasks.repository";
+    static final String QUERIES_METRIC = "tasks.repository.queries";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Measures a repository call.
+     *
+     * @param joinPoint the repository call
+     * @return the result of the call
+     * @throws Throwable the exception thrown by the call
+     */
+    @Around("execution(* *(..)) && target(com.javarush.kostenko.dao.TaskRepository)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long queriesBefore = SqlStatistics.threadStatementCount();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(CALLS_METRIC)
+                    .description("Latency of the task repository calls")
+                    .tags("method", method, "exception", exception)
+                    .register(meterRegistry));
+            DistributionSummary.builder(QUERIES_METRIC)
+                    .description("Number of SQL statements executed per task repository call")
+                    .tags("method", method)
+                    .register(meterRegistry)
+                    .record(SqlStatistics.threadStatementCount() - queriesBefore);
+        }
+    }
+}
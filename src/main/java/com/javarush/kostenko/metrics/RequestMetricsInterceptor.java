@@ -0,0 +1,103 @@
+package com.javarush.kostenko.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the latency, outcome and number of SQL statements of every request handled by a controller.
+ * Requests are tagged with the URI pattern of the matched mapping (e.g. /tasks/{id}),
+ * so the number of time series does not grow with the number of tasks.
+ * An asynchronous request, such as an event stream, is timed until it completes; its statement count
+ * covers the dispatches it was handled in on the request threads.
+ */
+@RequiredArgsConstructor
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    static final String REQUESTS_METRIC = "http.server.requests";
+    static final String QUERIES_METRIC = "http.server.requests.queries";
+
+    private static final String SAMPLE_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".sample";
+    private static final String QUERIES_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".queries";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Starts timing the request. When an asynchronous request is dispatched again, its timing continues.
+     *
+     * @return always true, the request is processed further
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(SAMPLE_ATTRIBUTE) == null) {
+            request.setAttribute(SAMPLE_ATTRIBUTE, Timer.start(meterRegistry));
+            request.setAttribute(QUERIES_ATTRIBUTE, SqlStatistics.threadStatementCount());
+        } else {
+            request.setAttribute(QUERIES_ATTRIBUTE, SqlStatistics.threadStatementCount()
+                    - (long) request.getAttribute(QUERIES_ATTRIBUTE));
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the number of statements the request has run so far when it continues asynchronously,
+     * as the statements of the next dispatch are counted on another thread.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        request.setAttribute(QUERIES_ATTRIBUTE, SqlStatistics.threadStatementCount()
+                - (long) request.getAttribute(QUERIES_ATTRIBUTE));
+    }
+
+    /**
+     * Stops timing the request and records its latency and statement count.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(SAMPLE_ATTRIBUTE) instanceof Timer.Sample sample)) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+
+        sample.stop(Timer.builder(REQUESTS_METRIC)
+                .description("Latency of the requests handled by the controllers")
+                .tags(Tags.of(
+                        "method", request.getMethod(),
+                        "uri", uri,
+                        "status", String.valueOf(status),
+                        "outcome", outcome(status),
+                        "exception", ex == null ? "none" : ex.getClass().getSimpleName()))
+                .register(meterRegistry));
+
+        long queries = SqlStatistics.threadStatementCount() - (long) request.getAttribute(QUERIES_ATTRIBUTE);
+        DistributionSummary.builder(QUERIES_METRIC)
+                .description("Number of SQL statements executed per request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(queries);
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        if (status >= 300) {
+            return "REDIRECTION";
+        }
+        return "SUCCESS";
+    }
+}
@@ -0,0 +1,216 @@
+package com.javarush.kostenko.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Listens to every JDBC statement executed through the proxied DataSource.
+ * Statements are aggregated per query shape (the SQL text with IN lists collapsed),
+ * and statements slower than the threshold are logged with their bound parameters and call site
+ * to the "com.javarush.kostenko.sql.slow" logger.
+ * The statements executed on each thread are also counted, every row of a batch as one statement;
+ * the metrics components read the count before and after a request or repository call,
+ * so the difference is the number of statements it ran.
+ * Fast statements cost two nanoTime calls and a map lookup; nothing is formatted for them.
+ */
+@Slf4j
+public class SqlStatistics implements QueryExecutionListener {
+
+    static final String SLOW_QUERY_LOGGER = "com.javarush.kostenko.sql.slow";
+    static final String OTHER_SHAPE = "<other>";
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger(SLOW_QUERY_LOGGER);
+    private static final String START_KEY = "startNanos";
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_PARAMETER_LENGTH = 64;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final ThreadLocal<long[]> THREAD_STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final Map<String, ShapeStatistics> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the statistics listener.
+     *
+     * @param slowThresholdMillis the latency from which statements are logged as slow
+     * @param maxShapes the number of distinct query shapes kept; further shapes are counted as "&lt;other&gt;"
+     */
+    public SqlStatistics(long slowThresholdMillis, int maxShapes) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_KEY, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long[] threadStatements = THREAD_STATEMENTS.get();
+        for (QueryInfo queryInfo : queryInfoList) {
+            threadStatements[0] += Math.max(1, queryInfo.getParametersList().size());
+        }
+
+        Long start = execInfo.getCustomValue(START_KEY, Long.class);
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        boolean slow = elapsed >= slowThresholdNanos;
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            shapeStatistics(shape(queryInfo.getQuery())).record(elapsed, slow);
+        }
+
+        if (slow && slowQueryLog.isWarnEnabled()) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                slowQueryLog.warn("Slow query - time: {} ms, call site: {}, batch size: {}, sql: {}, parameters: {}",
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), callSite(), execInfo.getBatchSize(),
+                        queryInfo.getQuery(), parameters(queryInfo));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of statements executed on the current thread so far.
+     * Statements answered from the second-level or query cache never reach the database and are not counted.
+     *
+     * @return the statement count of the current thread
+     */
+    public static long threadStatementCount() {
+        return THREAD_STATEMENTS.get()[0];
+    }
+
+    /**
+     * Returns the statistics of all query shapes, the ones with the highest total time first.
+     *
+     * @return the snapshot of every query shape
+     */
+    public List<ShapeSnapshot> getStatistics() {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(ShapeSnapshot::totalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the latency from which statements are logged as slow.
+     *
+     * @return the threshold in milliseconds
+     */
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    /**
+     * Discards the statistics of all query shapes.
+     */
+    public void reset() {
+        log.info("Resetting SQL statistics.");
+        shapes.clear();
+    }
+
+    /**
+     * Normalizes a statement into its shape, so executions differing only by the length
+     * of an IN list or by formatting are aggregated together.
+     *
+     * @param sql the SQL statement
+     * @return the query shape
+     */
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        return shape.indexOf(',') < 0 ? shape : IN_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    private ShapeStatistics shapeStatistics(String shape) {
+        ShapeStatistics statistics = shapes.get(shape);
+        if (statistics != null) {
+            return statistics;
+        }
+        if (shapes.size() >= maxShapes) {
+            return shapes.computeIfAbsent(OTHER_SHAPE, key -> new ShapeStatistics());
+        }
+        return shapes.computeIfAbsent(shape, key -> new ShapeStatistics());
+    }
+
+    private static String callSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.javarush.kostenko.")
+                        && !frame.getClassName().startsWith("com.javarush.kostenko.metrics.")
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+
+    private static String parameters(QueryInfo queryInfo) {
+        List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+        if (parametersList.isEmpty()) {
+            return "[]";
+        }
+
+        String first = parametersList.get(0).stream()
+                .map(operation -> {
+                    Object[] args = operation.getArgs();
+                    Object value = ParameterSetOperation.isSetNullParameterOperation(operation) ? null : args[1];
+                    return args[0] + "=" + truncate(String.valueOf(value));
+                })
+                .collect(Collectors.joining(", ", "[", "]"));
+        return parametersList.size() == 1 ? first : first + " (+" + (parametersList.size() - 1) + " more)";
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_PARAMETER_LENGTH ? value : value.substring(0, MAX_PARAMETER_LENGTH) + "...";
+    }
+
+    /**
+     * Execution statistics of one query shape.
+     *
+     * @param sql the query shape
+     * @param count the number of executions
+     * @param totalMillis the total execution time
+     * @param maxMillis the longest execution time
+     * @param slowCount the number of executions above the slow query threshold
+     */
+    public record ShapeSnapshot(String sql, long count, double totalMillis, double maxMillis, long slowCount) {
+    }
+
+    private static final class ShapeStatistics {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+        private final LongAdder slowCount = new LongAdder();
+
+        void record(long nanos, boolean slow) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (slow) {
+                slowCount.increment();
+            }
+        }
+
+        ShapeSnapshot snapshot(String sql) {
+            return new ShapeSnapshot(sql, count.sum(), totalNanos.sum() / 1e6, maxNanos.get() / 1e6, slowCount.sum());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.javarush.kostenko.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service exposing the statistics of the Hibernate second-level and query caches.
+ * Hit, miss and put counts come from Hibernate statistics,
+ * eviction counts come from the JCache statistics beans registered in JMX.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Collects the cache statistics, overall and per cache region.
+     *
+     * @return a map with the cache statistics
+     */
+    public Map<String, Object> getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        result.put("secondLevelCachePuts", statistics.getSecondLevelCachePutCount());
+        result.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        result.put("queryCachePuts", statistics.getQueryCachePutCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if (regionStatistics == null) {
+                continue;
+            }
+
+            Map<String, Object> region = new LinkedHashMap<>();
+            region.put("hits", regionStatistics.getHitCount());
+            region.put("misses", regionStatistics.getMissCount());
+            region.put("puts", regionStatistics.getPutCount());
+            region.put("elementsInMemory", regionStatistics.getElementCountInMemory());
+            region.put("evictions", getEvictionCount(regionName));
+            regions.put(regionName, region);
+        }
+        result.put("regions", regions);
+
+        return result;
+    }
+
+    /**
+     * Evicts all entities and query results from the caches.
+     * Should be called after the task table was modified outside of the application.
+     */
+    public void evictAll() {
+        log.info("Evicting all cache regions.");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private long getEvictionCount(String regionName) {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            long evictions = 0;
+            ObjectName pattern = new ObjectName("javax.cache:type=CacheStatistics,Cache=" + regionName + ",*");
+            for (ObjectName name : mBeanServer.queryNames(pattern, null)) {
+                evictions += ((Number) mBeanServer.getAttribute(name, "CacheEvictions")).longValue();
+            }
+            return evictions;
+        } catch (JMException e) {
+            log.warn("Failed to read eviction statistics of cache region {}", regionName, e);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.javarush.kostenko.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+
+/**
+ * Moves the ID sequences past the IDs already in the database at startup.
+ * On MySQL, Hibernate emulates a sequence with a table that it creates starting at 1, so on a database
+ * created without db/script.sql, or by an earlier version of the application, the first inserts would get
+ * existing IDs. Every sequence is raised so that the next block of IDs it hands out lies above the highest ID
+ * of its table; a sequence that is already past them is left alone.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SequenceInitializer implements InitializingBean {
+
+    /**
+     * The value column of the tables emulating sequences, as created by Hibernate.
+     */
+    private static final String SEQUENCE_TABLE_VALUE_COLUMN = "next_val";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    /**
+     * Raises the sequence of every entity with sequence-generated IDs above the highest ID of its table.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generator
+                    && persister instanceof AbstractEntityPersister entityPersister) {
+                seed(jdbcTemplate, dialect, generator.getDatabaseStructure(), entityPersister.getTableName(),
+                        entityPersister.getIdentifierColumnNames()[0]);
+            }
+        });
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, Dialect dialect, DatabaseStructure sequence,
+                      String table, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("select max(" + idColumn + ") from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+
+        // The pooled optimizer hands out the block of IDs ending at the value it reads from the sequence.
+        long next = maxId + sequence.getIncrementSize();
+        String name = sequence.getPhysicalName().render();
+        boolean raised;
+        if (sequence.isPhysicalSequence()) {
+            Long current = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(name), Long.class);
+            raised = current == null || current < next;
+            if (raised) {
+                jdbcTemplate.execute("alter sequence " + name + " restart with " + next);
+            }
+        } else {
+            raised = jdbcTemplate.update("update " + name + " set " + SEQUENCE_TABLE_VALUE_COLUMN + " = ? where "
+                    + SEQUENCE_TABLE_VALUE_COLUMN + " < ?", next, next) > 0;
+        }
+
+        if (raised) {
+            log.warn("Sequence {} was behind the IDs in table {}; raised to {}.", name, table, next);
+        }
+    }
+}
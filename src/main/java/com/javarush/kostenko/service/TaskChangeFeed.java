@@ -0,0 +1,154 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.domain.entity.TaskChange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Pushes new task changes from the outbox to subscribers, such as the Server-Sent Events streams.
+ * Every tasks.changes.poll-interval-ms the feed reads the changes following the last one it has seen
+ * with a single query, however many subscribers there are, and hands them to every subscriber that is
+ * up to date. A subscriber resuming from an earlier position reads its own pages of older changes
+ * until it has caught up. The outbox is not read while there are no subscribers.
+ */
+@Service
+@Slf4j
+public class TaskChangeFeed {
+
+    private final TaskChangeService taskChangeService;
+    private final int batchSize;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sequence number of the last change read for the up-to-date subscribers, or -1 if it is not known.
+     * Only accessed by the polling thread.
+     */
+    private long lastSeq = -1;
+
+    /**
+     * Creates the feed.
+     *
+     * @param taskChangeService the outbox the changes are read from
+     * @param batchSize the maximum number of changes read per subscriber and poll
+     */
+    public TaskChangeFeed(TaskChangeService taskChangeService,
+                          @Value("${tasks.changes.poll-batch-size:500}") int batchSize) {
+        this.taskChangeService = taskChangeService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Subscribes to the changes following the given sequence number.
+     * The listener is called from the polling thread with the new changes in ascending sequence order.
+     * If it throws an exception, it is unsubscribed.
+     *
+     * @param since the sequence number to resume after, or null to receive only changes recorded from now on
+     * @param listener the listener of the changes
+     * @return the subscription, to be cancelled when the listener is no longer interested
+     */
+    public Subscription subscribe(Long since, Consumer<List<TaskChange>> listener) {
+        Subscription subscription = new Subscription(since == null ? taskChangeService.findLastSeq() : since,
+                listener);
+        subscriptions.add(subscription);
+        log.debug("Change feed subscriber added after seq {}; {} subscribers.", subscription.seq,
+                subscriptions.size());
+        return subscription;
+    }
+
+    /**
+     * Returns the number of subscribers.
+     *
+     * @return the number of active subscriptions
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Reads the new changes and delivers them to the subscribers.
+     */
+    @Scheduled(fixedDelayString = "${tasks.changes.poll-interval-ms:500}")
+    public void poll() {
+        if (subscriptions.isEmpty()) {
+            lastSeq = -1;
+            return;
+        }
+
+        if (lastSeq < 0) {
+            lastSeq = taskChangeService.findLastSeq();
+        }
+        long from = lastSeq;
+        List<TaskChange> changes = taskChangeService.findSince(from, batchSize);
+        if (!changes.isEmpty()) {
+            lastSeq = changes.get(changes.size() - 1).getSeq();
+        }
+
+        for (Subscription subscription : subscriptions) {
+            List<TaskChange> pending = subscription.seq < from
+                    ? taskChangeService.findSince(subscription.seq, batchSize)
+                    : changes;
+            subscription.deliver(pending);
+        }
+    }
+
+    /**
+     * A subscription to the change feed, holding the position of its subscriber.
+     */
+    public final class Subscription {
+
+        private final Consumer<List<TaskChange>> listener;
+
+        /**
+         * Sequence number of the last change delivered. Only written by the polling thread after subscribing.
+         */
+        private volatile long seq;
+
+        private Subscription(long seq, Consumer<List<TaskChange>> listener) {
+            this.seq = seq;
+            this.listener = listener;
+        }
+
+        /**
+         * Returns the position of the subscriber.
+         *
+         * @return the sequence number of the last change delivered, or the one the subscription started after
+         */
+        public long getSeq() {
+            return seq;
+        }
+
+        /**
+         * Stops the delivery of changes to the listener.
+         */
+        public void cancel() {
+            if (subscriptions.remove(this)) {
+                log.debug("Change feed subscriber removed; {} subscribers.", subscriptions.size());
+            }
+        }
+
+        private void deliver(List<TaskChange> changes) {
+            int start = 0;
+            while (start < changes.size() && changes.get(start).getSeq() <= seq) {
+                start++;
+            }
+            if (start == changes.size()) {
+                return;
+            }
+
+            List<TaskChange> pending = changes.subList(start, changes.size());
+            try {
+                listener.accept(pending);
+                seq = pending.get(pending.size() - 1).getSeq();
+            } catch (RuntimeException e) {
+                log.debug("Change feed subscriber failed; unsubscribing it.", e);
+                cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.dao.TaskChangeRepository;
+import com.javarush.kostenko.domain.entity.TaskChange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service recording task changes in the outbox and reading them back as an ordered change feed.
+ * Changes are only recorded inside the transaction of the task change, so a change is in the feed
+ * if and only if it was committed.
+ * Sequence numbers are allocated before the transaction commits, so a change can become visible after
+ * a change with a higher sequence number. Readers therefore only see the changes up to the first one recorded
+ * less than tasks.changes.settle-ms ago; as long as the recording transactions commit within that time, readers
+ * never move past a change that is not visible yet. Changes older than tasks.changes.retention-hours are purged
+ * periodically, except for the newest one, so the oldest retained change tells how far the feed has been purged
+ * and the database does not restart the numbering of an empty table.
+ * The feed is read in read-write transactions, so it is always read from the primary: a replica lagging
+ * behind by more than the settle time would let readers move past changes it has not applied yet.
+ */
+@Service
+@Slf4j
+public class TaskChangeService {
+
+    private final TaskChangeRepository taskChangeRepository;
+    private final Duration settleTime;
+    private final Duration retention;
+
+    /**
+     * Creates the service.
+     *
+     * @param taskChangeRepository the outbox repository
+     * @param settleMs how long a change is held back from readers after it was recorded, in milliseconds
+     * @param retentionHours how long changes are kept, in hours
+     */
+    public TaskChangeService(TaskChangeRepository taskChangeRepository,
+                             @Value("${tasks.changes.settle-ms:2000}") long settleMs,
+                             @Value("${tasks.changes.retention-hours:168}") long retentionHours) {
+        this.taskChangeRepository = taskChangeRepository;
+        this.settleTime = Duration.ofMillis(settleMs);
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Records a change in the outbox as part of the current transaction.
+     *
+     * @param change the change to record
+     * @throws org.springframework.transaction.IllegalTransactionStateException if no transaction is active
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(TaskChange change) {
+        change.setRecordedAt(Instant.now());
+        taskChangeRepository.save(change);
+    }
+
+    /**
+     * Records the given changes in the outbox as part of the current transaction.
+     * Batch operations record their changes at the end of the transaction, so they settle
+     * as soon as the transaction commits, regardless of how long it ran.
+     *
+     * @param changes the changes to record, in the order they were made
+     * @throws org.springframework.transaction.IllegalTransactionStateException if no transaction is active
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<TaskChange> changes) {
+        Instant recordedAt = Instant.now();
+        changes.forEach(change -> change.setRecordedAt(recordedAt));
+        taskChangeRepository.saveAll(changes);
+    }
+
+    /**
+     * Reads the settled changes following the given sequence number. The changes are read in sequence order
+     * and returned up to the first one that has not settled yet, so no change is skipped that settles later.
+     *
+     * @param seq the sequence number to read after, 0 to read from the start
+     * @param limit the maximum number of changes
+     * @return the changes in ascending sequence order
+     */
+    @Transactional
+    public List<TaskChange> findSince(long seq, int limit) {
+        Instant settledAt = Instant.now().minus(settleTime);
+        List<TaskChange> changes = taskChangeRepository.findBySeqGreaterThanOrderBySeqAsc(seq,
+                PageRequest.of(0, limit));
+        for (int i = 0; i < changes.size(); i++) {
+            if (changes.get(i).getRecordedAt().isAfter(settledAt)) {
+                return changes.subList(0, i);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the sequence number up to which all changes have settled,
+     * the position from which a new reader receives the following changes.
+     *
+     * @return the sequence number, or 0 if there are no changes
+     */
+    @Transactional
+    public long findLastSeq() {
+        Long unsettled = taskChangeRepository.findFirstSeqRecordedAfter(Instant.now().minus(settleTime));
+        if (unsettled != null) {
+            return unsettled - 1;
+        }
+        Long seq = taskChangeRepository.findLastSeq();
+        return seq == null ? 0 : seq;
+    }
+
+    /**
+     * Tells whether changes following the given sequence number have been purged, so a reader resuming after it
+     * would miss them and has to reload the tasks instead. A sequence number left unused by a rolled back
+     * transaction right before the oldest retained change is reported as purged as well.
+     *
+     * @param seq the sequence number to resume after, 0 to read from the oldest retained change
+     * @return true if changes following the sequence number may have been purged
+     */
+    @Transactional
+    public boolean isPurgedAfter(long seq) {
+        if (seq == 0) {
+            return false;
+        }
+        Long first = taskChangeRepository.findFirstSeq();
+        return first != null && seq < first - 1;
+    }
+
+    /**
+     * Deletes the changes older than the retention period, except for the newest change.
+     *
+     * @return the number of deleted changes
+     */
+    @Scheduled(fixedDelayString = "${tasks.changes.purge-interval-ms:3600000}")
+    public int purge() {
+        Long lastSeq = taskChangeRepository.findLastSeq();
+        if (lastSeq == null) {
+            return 0;
+        }
+        int deleted = taskChangeRepository.deleteRecordedBefore(Instant.now().minus(retention), lastSeq);
+        if (deleted > 0) {
+            log.info("Purged {} task changes older than {}.", deleted, retention);
+        }
+        return deleted;
+    }
+}
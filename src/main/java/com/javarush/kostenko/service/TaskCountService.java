@@ -0,0 +1,237 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.dto.StatusCount;
+import com.javarush.kostenko.domain.enums.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Service keeping the number of tasks, in total and per status, without running a count query on every page view.
+ * The counts are read from the database once, maintained on inserts, deletes and status changes made
+ * through TaskService once their transaction commits, and resynchronized periodically to pick up external writes.
+ * A write that does not know the previous status of its tasks marks the per-status counts stale, so they are
+ * resynchronized before they are read next.
+ * A resynchronization that overlaps the commit of a write cannot tell whether its count includes the write,
+ * so it counts again; the writes committing are tracked from their beforeCommit to their afterCompletion callback.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaskCountService {
+
+    private static final int RESYNC_ATTEMPTS = 3;
+
+    private final TaskRepository taskRepository;
+
+    private final Object resyncLock = new Object();
+
+    /**
+     * The counts and the bookkeeping of the writes committing, guarded by the service monitor.
+     */
+    private long total;
+    private final long[] statusCounts = new long[Status.values().length];
+    private boolean loaded;
+    private boolean statusCountsStale;
+    private int writesCommitting;
+    private boolean changedDuringResync;
+
+    /**
+     * Returns the total number of tasks.
+     *
+     * @return the number of tasks
+     */
+    public long count() {
+        synchronized (this) {
+            if (loaded) {
+                return total;
+            }
+        }
+        resync();
+        synchronized (this) {
+            return total;
+        }
+    }
+
+    /**
+     * Returns the number of tasks with the given status.
+     * The per-status counts are resynchronized first if a write made them stale.
+     *
+     * @param status the task status
+     * @return the number of tasks with the status
+     */
+    public long count(Status status) {
+        synchronized (this) {
+            if (loaded && !statusCountsStale) {
+                return statusCounts[status.ordinal()];
+            }
+        }
+        resync();
+        synchronized (this) {
+            return statusCounts[status.ordinal()];
+        }
+    }
+
+    /**
+     * Registers newly inserted tasks, once the current transaction commits.
+     *
+     * @param statuses the statuses of the inserted tasks
+     */
+    public void onInsert(Collection<Status> statuses) {
+        afterCommit(new Delta(statuses.size(), byStatus(statuses, 1), false));
+    }
+
+    /**
+     * Registers deleted tasks, once the current transaction commits.
+     *
+     * @param statuses the statuses of the deleted tasks; null for a task whose status is not known
+     */
+    public void onDelete(Collection<Status> statuses) {
+        afterCommit(new Delta(-statuses.size(), byStatus(statuses, -1),
+                statuses.stream().anyMatch(Objects::isNull)));
+    }
+
+    /**
+     * Registers an update of a task, once the current transaction commits.
+     * An update keeping the status leaves the counts unchanged.
+     *
+     * @param previous the status before the update, or null if it is not known
+     * @param status the status after the update
+     */
+    public void onUpdate(Status previous, Status status) {
+        if (previous == status) {
+            return;
+        }
+        long[] byStatus = new long[statusCounts.length];
+        if (previous != null) {
+            byStatus[previous.ordinal()]--;
+            byStatus[status.ordinal()]++;
+        }
+        afterCommit(new Delta(0, byStatus, previous == null));
+    }
+
+    /**
+     * Reads the counts from the database, replacing the maintained values.
+     * Runs periodically and can be called after writes made outside of the application.
+     * If a write commits while the counts are read, they are read again, at most three times;
+     * after that the maintained values are kept, unless they were not loaded yet or are stale.
+     */
+    @Scheduled(fixedDelayString = "${tasks.count.resync-interval-ms:300000}",
+            initialDelayString = "${tasks.count.resync-interval-ms:300000}")
+    public void resync() {
+        synchronized (resyncLock) {
+            log.info("Resynchronizing task counts.");
+            for (int attempt = 1; ; attempt++) {
+                synchronized (this) {
+                    changedDuringResync = false;
+                }
+
+                List<StatusCount> counts = taskRepository.countGroupedByStatus();
+
+                synchronized (this) {
+                    boolean settled = !changedDuringResync && writesCommitting == 0;
+                    if (settled || attempt == RESYNC_ATTEMPTS) {
+                        if (!settled) {
+                            log.warn("Tasks kept changing while they were counted.");
+                            if (loaded && !statusCountsStale) {
+                                return;
+                            }
+                        }
+                        set(counts);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a change of the counts after the current transaction commits, so a rolled back write
+     * leaves the counts unchanged; without a transaction, the change is applied immediately.
+     */
+    private void afterCommit(Delta delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                synchronized (TaskCountService.this) {
+                    writesCommitting++;
+                    changedDuringResync = true;
+                }
+                committing = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!committing) {
+                    return;
+                }
+                synchronized (TaskCountService.this) {
+                    writesCommitting--;
+                    if (status == STATUS_COMMITTED) {
+                        apply(delta);
+                    }
+                }
+            }
+        });
+    }
+
+    private synchronized void apply(Delta delta) {
+        changedDuringResync = true;
+        if (!loaded) {
+            return;
+        }
+        total += delta.total();
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] += delta.byStatus()[i];
+        }
+        statusCountsStale |= delta.statusUnknown();
+    }
+
+    private synchronized void set(List<StatusCount> counts) {
+        long sum = 0;
+        Arrays.fill(statusCounts, 0);
+        for (StatusCount count : counts) {
+            statusCounts[count.status().ordinal()] = count.count();
+            sum += count.count();
+        }
+        total = sum;
+        loaded = true;
+        statusCountsStale = false;
+    }
+
+    private long[] byStatus(Collection<Status> statuses, long sign) {
+        long[] byStatus = new long[statusCounts.length];
+        for (Status status : statuses) {
+            if (status != null) {
+                byStatus[status.ordinal()] += sign;
+            }
+        }
+        return byStatus;
+    }
+
+    /**
+     * A change of the counts made by one write.
+     *
+     * @param total the change of the total
+     * @param byStatus the change of the count of every status, indexed by ordinal
+     * @param statusUnknown whether the write changed the status of tasks whose previous status is not known
+     */
+    private record Delta(long total, long[] byStatus, boolean statusUnknown) {
+    }
+}
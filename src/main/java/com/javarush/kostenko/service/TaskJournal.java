@@ -0,0 +1,172 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.domain.dto.TaskUpdate;
+import com.javarush.kostenko.domain.enums.Status;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of task updates, stored in a memory-mapped file of fixed size.
+ * Each record is written as its length, the CRC32 of its payload and the payload
+ * (ID, base version, version, status ordinal and UTF-8 description). The length is written last,
+ * so a zero length marks the end of the journal, and a record torn by a crash fails its checksum
+ * and ends the replay.
+ * Once written, a record survives a crash of the process; with sync enabled it is also forced
+ * to the storage device before append returns.
+ * The journal is not thread-safe; TaskWriteBehindQueue serializes access to it.
+ */
+@Slf4j
+final class TaskJournal implements Closeable {
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int FIXED_PAYLOAD_SIZE = 3 * Integer.BYTES + Byte.BYTES;
+    private static final byte[] ZEROS = new byte[8192];
+    private static final Status[] STATUSES = Status.values();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean sync;
+
+    /**
+     * Opens the journal, creating the file and its directory if they do not exist.
+     *
+     * @param file the journal file
+     * @param size the size of the journal in bytes
+     * @param sync whether every record is forced to the storage device when it is appended
+     * @throws IOException if the file cannot be created or mapped
+     */
+    TaskJournal(Path file, int size, boolean sync) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.sync = sync;
+    }
+
+    /**
+     * Reads the records from the start of the journal, positioning it after the last valid one.
+     * Anything after a torn record is erased, so it is not mistaken for records appended later.
+     *
+     * @return the updates in the order they were appended
+     */
+    List<TaskUpdate> replay() {
+        List<TaskUpdate> updates = new ArrayList<>();
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            TaskUpdate update = read(position, length);
+            if (update == null) {
+                log.warn("Task journal {} has a torn record at offset {}; discarding the rest of it.", file, position);
+                erase(position, buffer.capacity());
+                break;
+            }
+            updates.add(update);
+            position += HEADER_SIZE + length;
+        }
+        buffer.position(position);
+        return updates;
+    }
+
+    /**
+     * Appends an update to the journal.
+     *
+     * @param update the update to append
+     * @return true if the update was appended, false if the journal has no room left for it
+     */
+    boolean append(TaskUpdate update) {
+        byte[] description = update.description().getBytes(StandardCharsets.UTF_8);
+        int length = FIXED_PAYLOAD_SIZE + description.length;
+        int start = buffer.position();
+        if (start + HEADER_SIZE + length + Integer.BYTES > buffer.capacity()) {
+            return false;
+        }
+
+        buffer.position(start + HEADER_SIZE);
+        buffer.putInt(update.id());
+        buffer.putInt(update.baseVersion());
+        buffer.putInt(update.version());
+        buffer.put((byte) update.status().ordinal());
+        buffer.put(description);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start + HEADER_SIZE, length));
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(start, length);
+
+        if (sync) {
+            buffer.force(start, HEADER_SIZE + length);
+        }
+        return true;
+    }
+
+    /**
+     * Empties the journal once all of its updates are in the database.
+     */
+    void reset() {
+        erase(0, buffer.position());
+        buffer.position(0);
+        if (sync) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Returns the number of bytes used by the records in the journal.
+     *
+     * @return the used size in bytes
+     */
+    int usedBytes() {
+        return buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private TaskUpdate read(int position, int length) {
+        if (length < FIXED_PAYLOAD_SIZE || position + HEADER_SIZE + length > buffer.capacity()) {
+            return null;
+        }
+        int payload = position + HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(payload, length));
+        int statusOrdinal = buffer.get(payload + 3 * Integer.BYTES);
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)
+                || statusOrdinal < 0 || statusOrdinal >= STATUSES.length) {
+            return null;
+        }
+
+        byte[] description = new byte[length - FIXED_PAYLOAD_SIZE];
+        buffer.get(payload + FIXED_PAYLOAD_SIZE, description);
+        return new TaskUpdate(buffer.getInt(payload), new String(description, StandardCharsets.UTF_8),
+                STATUSES[statusOrdinal], buffer.getInt(payload + Integer.BYTES),
+                buffer.getInt(payload + 2 * Integer.BYTES));
+    }
+
+    private void erase(int from, int to) {
+        for (int position = from; position < to; position += ZEROS.length) {
+            buffer.put(position, ZEROS, 0, Math.min(ZEROS.length, to - position));
+        }
+    }
+}
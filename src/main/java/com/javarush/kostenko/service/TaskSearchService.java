@@ -0,0 +1,158 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.domain.dto.TaskSearchHit;
+import com.javarush.kostenko.domain.enums.Status;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Service searching tasks by the words of their description.
+ * On MySQL the search uses the FULLTEXT index on task.description and ranks the tasks by relevance,
+ * so the cost of a search depends on the number of matching tasks rather than on the size of the table.
+ * Other databases (H2 in tests), and MySQL databases without the index, fall back to a LIKE substring match
+ * ranked by the match position. The mode is detected at startup from the Hibernate dialect and the indexes of
+ * the task table, and can be forced with tasks.search.mode.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaskSearchService implements InitializingBean {
+
+    private static final String FULLTEXT_QUERY =
+            "select t.id, t.description, t.status, t.version, "
+                    + "match(t.description) against (:query in natural language mode) as score "
+                    + "from task t where match(t.description) against (:query in natural language mode) "
+                    + "order by score desc, t.id";
+
+    private static final String LIKE_QUERY =
+            "select t.id, t.description, t.status, t.version, locate(:term, lower(t.description)) "
+                    + "from Task t where lower(t.description) like :pattern escape '!' "
+                    + "order by locate(:term, lower(t.description)), t.id";
+
+    private static final String FULLTEXT_INDEX_QUERY =
+            "select count(*) from information_schema.statistics "
+                    + "where table_schema = database() and table_name = 'task' "
+                    + "and column_name = 'description' and index_type = 'FULLTEXT'";
+
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${tasks.search.mode:auto}")
+    private String mode = "auto";
+
+    @Value("${tasks.search.max-results:1000}")
+    private int maxResults = 1000;
+
+    private boolean fullText;
+
+    /**
+     * Detects the search mode: FULLTEXT if forced, or on MySQL if the FULLTEXT index on task.description exists.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        fullText = switch (mode.toLowerCase(Locale.ROOT)) {
+            case "fulltext" -> true;
+            case "like" -> false;
+            default -> {
+                if (!isMySql()) {
+                    yield false;
+                }
+                boolean indexed = ((Number) entityManager.createNativeQuery(FULLTEXT_INDEX_QUERY)
+                        .getSingleResult()).longValue() > 0;
+                if (!indexed) {
+                    log.warn("There is no FULLTEXT index on task.description; create it as in db/script.sql "
+                            + "to search with it.");
+                }
+                yield indexed;
+            }
+        };
+        log.info("Task search uses {}", fullText ? "the FULLTEXT index" : "LIKE matching");
+    }
+
+    /**
+     * Searches tasks whose description matches the given query, most relevant first.
+     * Only the first tasks.search.max-results hits can be paged through, which bounds the work
+     * done for a single request.
+     *
+     * @param query the words to search for
+     * @param page the slice number (0-based index)
+     * @param size the number of hits per slice
+     * @return a Slice with the matching tasks ordered by descending relevance
+     * @throws IllegalArgumentException if the query is blank or the slice is beyond the result limit
+     */
+    @Transactional(readOnly = true)
+    public Slice<TaskSearchHit> search(String query, int page, int size) {
+        log.info("Searching tasks - query: {}, page: {}, size: {}", query, page, size);
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if ((long) (page + 1) * size > maxResults) {
+            throw new IllegalArgumentException("Only the first " + maxResults + " search results can be retrieved");
+        }
+
+        boolean fullTextSearch = isFullText();
+        Query searchQuery = fullTextSearch
+                ? entityManager.createNativeQuery(FULLTEXT_QUERY).setParameter("query", query.strip())
+                : createLikeQuery(query.strip().toLowerCase(Locale.ROOT));
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = searchQuery
+                .setFirstResult(page * size)
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        List<TaskSearchHit> hits = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            hits.add(toHit(rows.get(i), fullTextSearch));
+        }
+        return new SliceImpl<>(hits, PageRequest.of(page, size), rows.size() > size);
+    }
+
+    /**
+     * Tells whether searches use the MySQL FULLTEXT index.
+     *
+     * @return true for FULLTEXT search, false for the LIKE fallback
+     */
+    public boolean isFullText() {
+        return fullText;
+    }
+
+    boolean isMySql() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        return dialect instanceof MySQLDialect;
+    }
+
+    private Query createLikeQuery(String term) {
+        return entityManager.createQuery(LIKE_QUERY, Object[].class)
+                .setParameter("term", term)
+                .setParameter("pattern", "%" + TaskService.escapeLike(term) + "%");
+    }
+
+    private static TaskSearchHit toHit(Object[] row, boolean fullTextSearch) {
+        Object status = row[2];
+        Number rank = (Number) row[4];
+        return new TaskSearchHit(
+                ((Number) row[0]).intValue(),
+                (String) row[1],
+                status instanceof Status value ? value : Status.values()[((Number) status).intValue()],
+                ((Number) row[3]).intValue(),
+                fullTextSearch ? rank.doubleValue() : 1.0 / rank.intValue());
+    }
+}
@@ -1,36 +1,223 @@
 package com.javarush.kostenko.service;
 
 import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.dto.TaskBatchResult;
+import com.javarush.kostenko.domain.dto.TaskFilter;
+import com.javarush.kostenko.domain.dto.TaskStatus;
+import com.javarush.kostenko.domain.dto.TaskView;
 import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.domain.enums.BatchOutcome;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import com.javarush.kostenko.domain.enums.DescriptionMatch;
+import com.javarush.kostenko.domain.enums.Status;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service layer for managing tasks (Task entity).
  * This class provides basic CRUD operations and pagination support for the Task entity.
+ * Every public method is timed as "tasks.service", tagged with the method name.
+ * With the write-behind queue enabled, single task updates are queued instead of written, reads apply
+ * the pending updates, and deletes and batch writes flush the queue before they reach the database.
+ * The queue is flushed before the transaction of the write begins, as the flush writes in transactions of its own
+ * and would otherwise take a second connection while the write holds one; if it cannot be flushed, the write fails.
+ * Every write records its changes in the outbox (TaskChangeService) in the same transaction.
+ * Every public method is one transaction. Reads are read-only: Hibernate neither flushes (flush mode MANUAL) nor
+ * keeps snapshots for dirty checking, the JDBC connection is marked read-only, and with read replicas configured
+ * the whole read is served by one replica. Only count() and queued updates have no transaction, as they rarely
+ * touch the database.
  */
 @Service
+@Timed(value = "tasks.service", description = "Latency of the task service methods")
 @RequiredArgsConstructor
 @Slf4j
 public class TaskService {
 
+    private static final int MAX_DESCRIPTION_LENGTH = 100;
+    private static final String MISSING_TASK = "Task is required";
+
     private final TaskRepository taskRepository;
+    private final TaskCountService taskCountService;
+    private final TaskWriteBehindQueue writeBehindQueue;
+    private final TaskChangeService taskChangeService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${tasks.batch.size:50}")
+    private int batchSize = 50;
 
     /**
      * Retrieves a paginated list of tasks.
+     * The total number of tasks is taken from TaskCountService instead of a count query.
      *
      * @param page the page number (0-based index)
      * @param size the number of records per page
      * @return a Page object containing the tasks for the specified page and size
      */
+    @Transactional(readOnly = true)
     public Page<Task> findAll(int page, int size) {
         log.info("Retrieving tasks - page: {}, size: {}", page, size);
-        return taskRepository.findAll(PageRequest.of(page, size));
+        PageRequest pageRequest = PageRequest.of(page, size);
+        return new PageImpl<>(writeBehindQueue.apply(taskRepository.findAllBy(pageRequest)), pageRequest,
+                taskCountService.count());
+    }
+
+    /**
+     * Counts all tasks, using TaskCountService instead of a count query.
+     *
+     * @return the number of tasks
+     */
+    public long count() {
+        return taskCountService.count();
+    }
+
+    /**
+     * Retrieves the tasks following the given ID using keyset (seek) pagination.
+     *
+     * @param afterId the ID to seek after, or null to start from the first task
+     * @param size the number of records per slice
+     * @return a Slice with the tasks in ascending ID order
+     */
+    @Transactional(readOnly = true)
+    public Slice<Task> findAfter(Integer afterId, int size) {
+        log.info("Retrieving tasks - after id: {}, size: {}", afterId, size);
+        Slice<Task> slice = taskRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0 : afterId,
+                PageRequest.of(0, size));
+        return new SliceImpl<>(writeBehindQueue.apply(slice.getContent()), slice.getPageable(), slice.hasNext());
+    }
+
+    /**
+     * Retrieves the tasks preceding the given ID using keyset (seek) pagination.
+     * The returned slice reports whether there are more tasks before it.
+     *
+     * @param beforeId the ID to seek before
+     * @param size the number of records per slice
+     * @return a Slice with the tasks in ascending ID order
+     */
+    @Transactional(readOnly = true)
+    public Slice<Task> findBefore(Integer beforeId, int size) {
+        log.info("Retrieving tasks - before id: {}, size: {}", beforeId, size);
+        Slice<Task> slice = taskRepository.findByIdLessThanOrderByIdDesc(beforeId, PageRequest.of(0, size));
+
+        List<Task> content = new ArrayList<>(slice.getContent());
+        Collections.reverse(content);
+        return new SliceImpl<>(writeBehindQueue.apply(content), slice.getPageable(), slice.hasNext());
+    }
+
+    /**
+     * Retrieves a slice of task projections, optionally filtered by status.
+     *
+     * @param status the status to filter by, or null for all tasks
+     * @param page the slice number (0-based index)
+     * @param size the number of records per slice
+     * @return a Slice with the task projections in ascending ID order
+     */
+    @Transactional(readOnly = true)
+    public Slice<TaskView> findViews(Status status, int page, int size) {
+        return findViews(TaskFilter.byStatus(status), page, size, Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    /**
+     * Retrieves a slice of task projections matching the given filter.
+     * Every supported filter and sort order runs as an index scan, never as a full table scan: the status uses
+     * the (status, id) index and a description prefix, or sorting by description, uses the description index.
+     * Matching a description substring cannot use an index, so it is only allowed together with a status and
+     * reads all tasks with that status. Sorting by description together with a status would read all tasks with
+     * the status and sort them, so it is rejected.
+     * Sorting by anything but the ID gets the ID as tie-breaker in the same direction, so slices are stable
+     * and the order matches the index.
+     *
+     * @param filter the filter to apply
+     * @param page the slice number (0-based index)
+     * @param size the number of records per slice
+     * @param sort the sort order
+     * @return a Slice with the matching task projections
+     * @throws IllegalArgumentException if the filter or sort order cannot be served by an index
+     */
+    @Transactional(readOnly = true)
+    public Slice<TaskView> findViews(TaskFilter filter, int page, int size, Sort sort) {
+        log.info("Retrieving task views - filter: {}, page: {}, size: {}, sort: {}", filter, page, size, sort);
+        if (filter.status() != null && sort.getOrderFor("description") != null) {
+            throw new IllegalArgumentException("Sorting by description is not supported together with a status filter");
+        }
+        if (sort.getOrderFor("id") == null) {
+            Sort.Direction direction = sort.stream()
+                    .findFirst()
+                    .map(Sort.Order::getDirection)
+                    .orElse(Sort.Direction.ASC);
+            sort = sort.and(Sort.by(direction, "id"));
+        }
+        PageRequest pageRequest = PageRequest.of(page, size, sort);
+
+        if (!filter.hasDescription()) {
+            return filter.status() == null
+                    ? taskRepository.findViews(pageRequest)
+                    : taskRepository.findViewsByStatus(filter.status(), pageRequest);
+        }
+
+        boolean contains = filter.descriptionMatch() == DescriptionMatch.CONTAINS;
+        if (contains && filter.status() == null) {
+            throw new IllegalArgumentException("Matching a description substring requires a status filter");
+        }
+
+        String escaped = escapeLike(filter.description());
+        String pattern = contains ? "%" + escaped + "%" : escaped + "%";
+        return filter.status() == null
+                ? taskRepository.findViewsByDescriptionLike(pattern, pageRequest)
+                : taskRepository.findViewsByStatusAndDescriptionLike(filter.status(), pattern, pageRequest);
+    }
+
+    /**
+     * Streams task projections, optionally filtered by status, to the given consumer.
+     * The rows are read from the database in chunks inside a read-only transaction,
+     * so memory usage does not depend on the number of tasks.
+     *
+     * @param status the status to filter by, or null for all tasks
+     * @param consumer the consumer receiving the task projections in ascending ID order
+     * @return the number of streamed tasks
+     */
+    @Transactional(readOnly = true)
+    public long exportViews(Status status, Consumer<TaskView> consumer) {
+        log.info("Exporting task views - status: {}", status);
+        long count = 0;
+        try (Stream<TaskView> views = status == null
+                ? taskRepository.streamViews()
+                : taskRepository.streamViewsByStatus(status)) {
+            for (TaskView view : (Iterable<TaskView>) views::iterator) {
+                consumer.accept(view);
+                count++;
+            }
+        }
+        log.info("Exported {} task views", count);
+        return count;
     }
 
     /**
@@ -39,28 +226,357 @@ public class TaskService {
      * @param id the ID of the task to be found
      * @return an Optional containing the found Task, or an empty Optional if no task is found
      */
+    @Transactional(readOnly = true)
     public Optional<Task> findById(Integer id) {
         log.info("Looking for task with id: {}", id);
-        return taskRepository.findById(id);
+        return taskRepository.findById(id).map(writeBehindQueue::apply);
     }
 
     /**
      * Saves a new task or updates an existing one.
      *
      * @param task the task entity to be saved
+     * @throws IllegalStateException if the task exists and the pending updates cannot be flushed
      */
     public void save(Task task) {
-        log.info("Saving task: {}", task);
-        taskRepository.save(task);
+        log.info("Saving task with id: {}, status: {}", task.getId(), task.getStatus());
+        boolean isNew = task.getId() == null;
+        if (!isNew) {
+            flushWriteBehindQueue();
+        }
+        inTransaction("save", () -> {
+            // A managed task may already carry its new status, so its previous status is not known.
+            Status previous = isNew || entityManager.contains(task) ? null
+                    : taskRepository.findById(task.getId()).map(Task::getStatus).orElse(null);
+            Task saved = taskRepository.save(task);
+            entityManager.flush();
+            taskChangeService.record(TaskChange.of(isNew ? ChangeType.CREATED : ChangeType.UPDATED, saved));
+
+            if (isNew) {
+                taskCountService.onInsert(List.of(saved.getStatus()));
+            } else {
+                taskCountService.onUpdate(previous, saved.getStatus());
+            }
+            return saved;
+        });
+    }
+
+    /**
+     * Updates the description and status of a task with a single statement, overwriting concurrent changes.
+     *
+     * @param id the ID of the task to be updated
+     * @param description the new description
+     * @param status the new status
+     * @return true if the task was updated, false if it does not exist
+     * @throws IllegalArgumentException if the update is queued and the description is invalid
+     */
+    public boolean update(Integer id, String description, Status status) {
+        return update(id, description, status, null);
+    }
+
+    /**
+     * Updates the description and status of a task with a single statement,
+     * only if the task still has the expected version.
+     * Only the task itself is evicted from the second-level cache. The version the update wrote is recorded
+     * with the change; after an unconditional update it is read back from the row, which the update keeps locked.
+     * The previous status is taken from the cached task if it has the version the update replaced; otherwise it
+     * is not known to TaskCountService.
+     *
+     * @param id the ID of the task to be updated
+     * @param description the new description
+     * @param status the new status
+     * @param expectedVersion the expected current version, or null to update unconditionally
+     * @return true if the task was updated, false if it does not exist
+     * @throws OptimisticLockingFailureException if the task has another version
+     * @throws IllegalArgumentException if the update is queued and the description is invalid
+     */
+    public boolean update(Integer id, String description, Status status, Integer expectedVersion) {
+        if (writeBehindQueue.isEnabled()) {
+            return queueUpdate(id, description, status, expectedVersion);
+        }
+
+        log.info("Updating task with id: {}, expected version: {}", id, expectedVersion);
+        return inTransaction("update", () -> {
+            Task cached = taskRepository.findCachedById(id).orElse(null);
+            if (taskRepository.updateDescriptionAndStatus(id, description, status, expectedVersion) == 0) {
+                return failStaleWrite(id, expectedVersion);
+            }
+
+            int version = expectedVersion != null ? expectedVersion + 1 : taskRepository.findVersionById(id);
+            taskChangeService.record(TaskChange.of(ChangeType.UPDATED, id, description, status, version));
+            taskCountService.onUpdate(cached != null && cached.getVersion() == version - 1
+                    ? cached.getStatus() : null, status);
+            return true;
+        });
+    }
+
+    /**
+     * Deletes a task by its ID with a single statement, regardless of concurrent changes.
+     *
+     * @param id the ID of the task to be deleted
+     * @return true if the task was deleted, false if it does not exist
+     * @throws IllegalStateException if the pending updates cannot be flushed
+     */
+    public boolean deleteById(Integer id) {
+        return deleteById(id, null);
     }
 
     /**
-     * Deletes a task by its ID.
+     * Deletes a task by its ID with a single statement, only if the task still has the expected version.
+     * Only the task itself is evicted from the second-level cache, together with the cached task lists.
+     * The status of the deleted task is taken from the cached task if it has the expected version; otherwise it
+     * is not known to TaskCountService.
      *
      * @param id the ID of the task to be deleted
+     * @param expectedVersion the expected current version, or null to delete unconditionally
+     * @return true if the task was deleted, false if it does not exist
+     * @throws OptimisticLockingFailureException if the task has another version
+     * @throws IllegalStateException if the pending updates cannot be flushed
+     */
+    public boolean deleteById(Integer id, Integer expectedVersion) {
+        log.info("Deleting task with id: {}, expected version: {}", id, expectedVersion);
+        flushWriteBehindQueue();
+        return inTransaction("deleteById", () -> {
+            Task cached = expectedVersion == null ? null : taskRepository.findCachedById(id).orElse(null);
+            if (taskRepository.removeById(id, expectedVersion) == 0) {
+                return failStaleWrite(id, expectedVersion);
+            }
+
+            taskChangeService.record(TaskChange.deleted(id));
+            taskCountService.onDelete(Collections.singletonList(cached != null
+                    && cached.getVersion().equals(expectedVersion) ? cached.getStatus() : null));
+            return true;
+        });
+    }
+
+    /**
+     * Creates the given tasks in one transaction.
+     * The inserts are sent to the database in JDBC batches; tasks without a status get "IN_PROGRESS".
+     *
+     * @param tasks the tasks to create
+     * @return the result of every item, in request order
      */
-    public void deleteById(Integer id) {
-        log.info("Deleting task with id: {}", id);
-        taskRepository.deleteById(id);
+    @Transactional
+    public List<TaskBatchResult> createAll(List<Task> tasks) {
+        log.info("Creating {} tasks in batch", tasks.size());
+        List<TaskBatchResult> results = new ArrayList<>(tasks.size());
+        List<TaskChange> changes = new ArrayList<>();
+
+        for (int index = 0; index < tasks.size(); index++) {
+            Task task = tasks.get(index);
+            if (task == null) {
+                results.add(TaskBatchResult.failure(index, null, BatchOutcome.INVALID, MISSING_TASK));
+                continue;
+            }
+            String error = validateDescription(task.getDescription());
+            if (error != null || task.getId() != null) {
+                results.add(TaskBatchResult.failure(index, task.getId(), BatchOutcome.INVALID,
+                        error != null ? error : "ID must not be set for a new task"));
+                continue;
+            }
+            if (task.getStatus() == null) {
+                task.setStatus(Status.IN_PROGRESS);
+            }
+
+            entityManager.persist(task);
+            results.add(TaskBatchResult.success(index, task.getId(), BatchOutcome.CREATED));
+            changes.add(TaskChange.of(ChangeType.CREATED, task));
+
+            if ((index + 1) % batchSize == 0) {
+                flushAndClear();
+            }
+        }
+
+        flushAndClear();
+        taskChangeService.recordAll(changes);
+        taskCountService.onInsert(changes.stream().map(TaskChange::getStatus).toList());
+        return results;
+    }
+
+    /**
+     * Updates the description and status of the given tasks in one transaction.
+     * Existing tasks are loaded one batch at a time and the updates are sent in JDBC batches.
+     * A missing description or status leaves the current value unchanged.
+     *
+     * @param tasks the tasks to update, identified by their IDs
+     * @return the result of every item, in request order
+     * @throws IllegalStateException if the pending updates cannot be flushed
+     */
+    public List<TaskBatchResult> updateAll(List<Task> tasks) {
+        log.info("Updating {} tasks in batch", tasks.size());
+        flushWriteBehindQueue();
+        return inTransaction("updateAll", () -> writeUpdates(tasks));
+    }
+
+    /**
+     * Deletes the tasks with the given IDs in one transaction.
+     * Every batch of IDs is checked for existence and deleted with a single statement.
+     *
+     * @param ids the IDs of the tasks to delete
+     * @return the result of every item, in request order
+     * @throws IllegalStateException if the pending updates cannot be flushed
+     */
+    public List<TaskBatchResult> deleteAll(List<Integer> ids) {
+        log.info("Deleting {} tasks in batch", ids.size());
+        flushWriteBehindQueue();
+        return inTransaction("deleteAll", () -> writeDeletes(ids));
+    }
+
+    /**
+     * Escapes the LIKE wildcards in the given text, using '!' as escape character.
+     *
+     * @param text the text to escape
+     * @return the escaped text
+     */
+    static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private List<TaskBatchResult> writeUpdates(List<Task> tasks) {
+        List<TaskBatchResult> results = new ArrayList<>(tasks.size());
+        List<TaskChange> changes = new ArrayList<>();
+
+        for (int from = 0; from < tasks.size(); from += batchSize) {
+            List<Task> chunk = tasks.subList(from, Math.min(from + batchSize, tasks.size()));
+            Set<Integer> ids = chunk.stream()
+                    .filter(Objects::nonNull)
+                    .map(Task::getId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<Integer, Task> existingTasks = taskRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Task::getId, Function.identity()));
+            List<Task> updatedTasks = new ArrayList<>();
+
+            for (int offset = 0; offset < chunk.size(); offset++) {
+                int index = from + offset;
+                Task update = chunk.get(offset);
+                if (update == null) {
+                    results.add(TaskBatchResult.failure(index, null, BatchOutcome.INVALID, MISSING_TASK));
+                    continue;
+                }
+                String error = update.getId() == null ? "ID is required"
+                        : update.getDescription() == null ? null : validateDescription(update.getDescription());
+                if (error != null) {
+                    results.add(TaskBatchResult.failure(index, update.getId(), BatchOutcome.INVALID, error));
+                    continue;
+                }
+
+                Task existingTask = existingTasks.get(update.getId());
+                if (existingTask == null) {
+                    results.add(TaskBatchResult.failure(index, update.getId(), BatchOutcome.NOT_FOUND,
+                            "Task not found"));
+                    continue;
+                }
+
+                if (update.getDescription() != null) {
+                    existingTask.setDescription(update.getDescription());
+                }
+                if (update.getStatus() != null) {
+                    taskCountService.onUpdate(existingTask.getStatus(), update.getStatus());
+                    existingTask.setStatus(update.getStatus());
+                }
+                results.add(TaskBatchResult.success(index, existingTask.getId(), BatchOutcome.UPDATED));
+                updatedTasks.add(existingTask);
+            }
+
+            flushAndClear();
+            updatedTasks.forEach(task -> changes.add(TaskChange.of(ChangeType.UPDATED, task)));
+        }
+
+        taskChangeService.recordAll(changes);
+        return results;
+    }
+
+    private List<TaskBatchResult> writeDeletes(List<Integer> ids) {
+        List<TaskBatchResult> results = new ArrayList<>(ids.size());
+        List<TaskChange> changes = new ArrayList<>();
+        List<Status> deletedStatuses = new ArrayList<>();
+
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Map<Integer, Status> existingTasks = taskRepository.findStatusesById(
+                            chunk.stream().filter(Objects::nonNull).collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(TaskStatus::id, TaskStatus::status));
+            if (!existingTasks.isEmpty()) {
+                taskRepository.deleteAllByIdInBatch(Set.copyOf(existingTasks.keySet()));
+            }
+
+            for (int offset = 0; offset < chunk.size(); offset++) {
+                int index = from + offset;
+                Integer id = chunk.get(offset);
+                Status status = existingTasks.remove(id);
+                if (status != null) {
+                    results.add(TaskBatchResult.success(index, id, BatchOutcome.DELETED));
+                    changes.add(TaskChange.deleted(id));
+                    deletedStatuses.add(status);
+                } else {
+                    results.add(TaskBatchResult.failure(index, id, BatchOutcome.NOT_FOUND, "Task not found"));
+                }
+            }
+        }
+
+        taskChangeService.recordAll(changes);
+        taskCountService.onDelete(deletedStatuses);
+        return results;
+    }
+
+    /**
+     * Queues an update in the write-behind queue. The description is validated first,
+     * as the database only sees the update after it has been acknowledged.
+     */
+    private boolean queueUpdate(Integer id, String description, Status status, Integer expectedVersion) {
+        log.info("Queueing update of task with id: {}, expected version: {}", id, expectedVersion);
+        String error = validateDescription(description);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        return writeBehindQueue.update(id, description, status, expectedVersion) != null;
+    }
+
+    /**
+     * Writes the pending updates of the write-behind queue, before the transaction of a write begins.
+     */
+    private void flushWriteBehindQueue() {
+        if (!writeBehindQueue.flush()) {
+            throw new IllegalStateException("Pending task updates could not be flushed; the write is refused");
+        }
+    }
+
+    /**
+     * Runs a write in a transaction named after the service method, joining the transaction of the caller if any.
+     */
+    private <T> T inTransaction(String method, Supplier<T> write) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setName(TaskService.class.getName() + "." + method);
+        return transactionTemplate.execute(status -> write.get());
+    }
+
+    /**
+     * Tells why a single-statement write of a task affected no row.
+     *
+     * @return false, as the task does not exist
+     * @throws OptimisticLockingFailureException if the task exists, but not with the expected version
+     */
+    private boolean failStaleWrite(Integer id, Integer expectedVersion) {
+        if (expectedVersion != null && taskRepository.existsById(id)) {
+            log.warn("Task with id {} has been modified concurrently", id);
+            throw new OptimisticLockingFailureException("Task with id " + id + " has been modified concurrently");
+        }
+        return false;
+    }
+
+    private String validateDescription(String description) {
+        if (description == null || description.isBlank()) {
+            return "Description is required";
+        }
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            return "Description must not be longer than " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
     }
 }
@@ -0,0 +1,292 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.dto.TaskUpdate;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import com.javarush.kostenko.domain.enums.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind queue of task updates, enabled with tasks.write-behind.enabled.
+ * An update is acknowledged as soon as it is appended to the journal (TaskJournal); the flusher writes
+ * the pending updates to the database every tasks.write-behind.flush-interval-ms, in batches of tasks.batch.size
+ * with one transaction per batch. Repeated updates of the same task are coalesced, so only the latest one is written
+ * and recorded in the change outbox.
+ * Updates left in the journal by a crash are replayed into the queue on startup; on shutdown the queue is flushed.
+ * Reads in TaskService apply the pending updates, so they see the acknowledged state of the tasks.
+ */
+@Service
+@Slf4j
+public class TaskWriteBehindQueue implements AutoCloseable {
+
+    private static final int TASK_LOCKS = 64;
+
+    private final TaskRepository taskRepository;
+    private final TaskCountService taskCountService;
+    private final TaskChangeService taskChangeService;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskJournal journal;
+    private final int batchSize;
+
+    /**
+     * Pending updates by task ID. Lookups are lock-free; updates are queued while holding the lock of their task
+     * and the queue monitor, which also guards the journal.
+     */
+    private final Map<Integer, TaskUpdate> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    /**
+     * Striped locks serializing the updates of a task, so the base version of a task without a pending update
+     * can be read from the database without holding the queue monitor.
+     */
+    private final Object[] taskLocks = new Object[TASK_LOCKS];
+
+    /**
+     * Creates the queue. When it is enabled, the journal is opened and the updates left in it are replayed.
+     *
+     * @param taskRepository the repository the updates are written with
+     * @param taskCountService the task counts, whose per-status counts are marked stale by the written updates
+     * @param taskChangeService the outbox the written updates are recorded in
+     * @param transactionManager the transaction manager of the batches
+     * @param enabled whether updates are written behind; if false, the queue is not used
+     * @param journalFile the path of the journal file
+     * @param journalSizeKb the size of the journal in kilobytes
+     * @param sync whether every journal record is forced to the storage device before it is acknowledged
+     * @param batchSize the number of updates written per transaction
+     * @throws IOException if the journal cannot be opened
+     */
+    public TaskWriteBehindQueue(TaskRepository taskRepository,
+                                TaskCountService taskCountService,
+                                TaskChangeService taskChangeService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${tasks.write-behind.enabled:false}") boolean enabled,
+                                @Value("${tasks.write-behind.journal:data/task-journal.bin}") String journalFile,
+                                @Value("${tasks.write-behind.journal-size-kb:16384}") int journalSizeKb,
+                                @Value("${tasks.write-behind.sync:false}") boolean sync,
+                                @Value("${tasks.batch.size:50}") int batchSize) throws IOException {
+        this.taskRepository = taskRepository;
+        this.taskCountService = taskCountService;
+        this.taskChangeService = taskChangeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        Arrays.setAll(taskLocks, i -> new Object());
+
+        if (!enabled) {
+            this.journal = null;
+            return;
+        }
+
+        this.journal = new TaskJournal(Path.of(journalFile), journalSizeKb * 1024, sync);
+        for (TaskUpdate update : journal.replay()) {
+            pending.merge(update.id(), update, (previous, next) -> next.rebase(previous.baseVersion()));
+        }
+        log.info("Task updates are written behind through journal {} ({} KB, sync: {}); {} pending updates replayed.",
+                journalFile, journalSizeKb, sync, pending.size());
+    }
+
+    /**
+     * Tells whether task updates are written behind.
+     *
+     * @return true if the queue is enabled
+     */
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Acknowledges an update of a task: checks the expected version against the latest acknowledged version
+     * of the task, appends the update to the journal and queues it for the flusher.
+     * If the journal is full, the pending updates are flushed first.
+     * Only the updates of the same task wait for each other while the version of a task without a pending update
+     * is read from the database; the queue monitor is held only to append and queue the update.
+     *
+     * @param id the ID of the task
+     * @param description the new description
+     * @param status the new status
+     * @param expectedVersion the expected current version, or null to update unconditionally
+     * @return the new version of the task, or null if the task does not exist
+     * @throws OptimisticLockingFailureException if the task has another version
+     * @throws IllegalArgumentException if the update is larger than the journal
+     * @throws IllegalStateException if the journal is full and the pending updates cannot be flushed
+     */
+    public Integer update(Integer id, String description, Status status, Integer expectedVersion) {
+        synchronized (taskLocks[Math.floorMod(id.hashCode(), TASK_LOCKS)]) {
+            while (true) {
+                // No other update of the task can be queued meanwhile, and the flusher removes an update only
+                // after it has been committed, so without a pending update the database has the latest version.
+                TaskUpdate previous = pending.get(id);
+                int baseVersion;
+                int currentVersion;
+                if (previous != null) {
+                    baseVersion = previous.baseVersion();
+                    currentVersion = previous.version();
+                } else {
+                    Optional<Task> task = taskRepository.findById(id);
+                    if (task.isEmpty()) {
+                        return null;
+                    }
+                    baseVersion = task.get().getVersion();
+                    currentVersion = baseVersion;
+                }
+
+                if (expectedVersion != null && expectedVersion != currentVersion) {
+                    log.warn("Task with id {} has been modified concurrently", id);
+                    throw new OptimisticLockingFailureException(
+                            "Task with id " + id + " has been modified concurrently");
+                }
+
+                TaskUpdate update = new TaskUpdate(id, description, status, baseVersion, currentVersion + 1);
+                synchronized (this) {
+                    if (journal.append(update)) {
+                        pending.put(id, update);
+                        return update.version();
+                    }
+                    if (journal.usedBytes() == 0) {
+                        throw new IllegalArgumentException(
+                                "Update of task with id " + id + " does not fit into the journal");
+                    }
+                }
+
+                log.warn("Task journal is full; flushing {} pending updates.", pending.size());
+                if (!flush()) {
+                    throw new IllegalStateException(
+                            "Task journal is full and the pending updates could not be flushed");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the task with its pending update applied.
+     *
+     * @param task the task as read from the database
+     * @return a detached copy of the task with the pending update, or the task itself if it has none
+     */
+    public Task apply(Task task) {
+        TaskUpdate update = pending.isEmpty() ? null : pending.get(task.getId());
+        return update == null ? task : new Task(task.getId(), update.description(), update.status(), update.version());
+    }
+
+    /**
+     * Returns the tasks with their pending updates applied.
+     *
+     * @param tasks the tasks as read from the database
+     * @return the tasks with the pending updates, or the given list if none of them has one
+     */
+    public List<Task> apply(List<Task> tasks) {
+        if (pending.isEmpty()) {
+            return tasks;
+        }
+        List<Task> applied = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            applied.add(apply(task));
+        }
+        return applied;
+    }
+
+    /**
+     * Returns the number of updates not yet written to the database.
+     *
+     * @return the number of pending updates
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the pending updates to the database in batches, one transaction per batch.
+     * An update is written only if the task has one of the versions between the base version of the update
+     * and the version before it, i.e. the task was not changed bypassing the queue; otherwise it is dropped.
+     * The written updates are recorded in the change outbox in the transaction of their batch.
+     * Acknowledgements are not blocked while the batches are written. A batch that fails stays queued
+     * for the next run. The journal is emptied once no updates are pending.
+     *
+     * @return true if all updates pending when the flush started were written or dropped
+     */
+    @Scheduled(fixedDelayString = "${tasks.write-behind.flush-interval-ms:200}")
+    public boolean flush() {
+        if (!isEnabled()) {
+            return true;
+        }
+
+        synchronized (flushLock) {
+            List<TaskUpdate> updates = List.copyOf(pending.values());
+            for (int from = 0; from < updates.size(); from += batchSize) {
+                List<TaskUpdate> batch = updates.subList(from, Math.min(from + batchSize, updates.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(batch));
+                } catch (RuntimeException e) {
+                    log.error("Flushing {} task updates failed; they stay queued.", batch.size(), e);
+                    return false;
+                }
+                for (TaskUpdate update : batch) {
+                    pending.remove(update.id(), update);
+                }
+            }
+
+            synchronized (this) {
+                if (pending.isEmpty() && journal.usedBytes() > 0) {
+                    journal.reset();
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Flushes the pending updates and closes the journal.
+     * Updates that cannot be flushed stay in the journal and are replayed on the next start.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        flush();
+        synchronized (this) {
+            if (!pending.isEmpty()) {
+                log.warn("{} task updates not flushed; they are replayed from the journal on the next start.",
+                        pending.size());
+            }
+            journal.close();
+        }
+    }
+
+    private void write(List<TaskUpdate> batch) {
+        List<TaskChange> changes = new ArrayList<>(batch.size());
+        for (TaskUpdate update : batch) {
+            if (taskRepository.updateDescriptionAndStatusToVersion(update.id(), update.description(), update.status(),
+                    update.baseVersion(), update.version()) == 0) {
+                log.warn("Pending update of task with id {} dropped: the task was changed or deleted bypassing "
+                        + "the queue", update.id());
+                continue;
+            }
+            changes.add(TaskChange.of(ChangeType.UPDATED, update.id(), update.description(), update.status(),
+                    update.version()));
+            // The status the update replaces is not known, as the task may have changed since it was queued.
+            taskCountService.onUpdate(null, update.status());
+        }
+        taskChangeService.recordAll(changes);
+    }
+}
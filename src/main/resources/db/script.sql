@@ -7,13 +7,39 @@ CREATE TABLE `task` (
                         `id` int(11) NOT NULL AUTO_INCREMENT,
                         `description` varchar(100) NOT NULL,
                         `status` int(11) NOT NULL,
-                        PRIMARY KEY (`id`)
+                        `version` int(11) NOT NULL DEFAULT 0,
+                        PRIMARY KEY (`id`),
+                        KEY `idx_task_status_id` (`status`, `id`),
+                        KEY `idx_task_description` (`description`),
+                        FULLTEXT KEY `ft_task_description` (`description`)
 ) ENGINE=InnoDB AUTO_INCREMENT=16 DEFAULT CHARSET=utf8mb4;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+-- Emulated sequence for task IDs, allocated by Hibernate in blocks of 50.
+-- next_val must stay above the highest existing task ID.
+DROP TABLE IF EXISTS `task_seq`;
+CREATE TABLE `task_seq` (
+                        `next_val` bigint DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+INSERT INTO `task_seq` VALUES (100);
+
+-- Outbox of task changes, read by the change feed in seq order.
+DROP TABLE IF EXISTS `task_change`;
+CREATE TABLE `task_change` (
+                        `seq` bigint NOT NULL AUTO_INCREMENT,
+                        `task_id` int(11) NOT NULL,
+                        `type` tinyint NOT NULL,
+                        `description` varchar(100) DEFAULT NULL,
+                        `status` tinyint DEFAULT NULL,
+                        `version` int(11) DEFAULT NULL,
+                        `recorded_at` datetime(6) NOT NULL,
+                        PRIMARY KEY (`seq`),
+                        KEY `idx_task_change_recorded_at` (`recorded_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 LOCK TABLES `task` WRITE;
 /*!40000 ALTER TABLE `task` DISABLE KEYS */;
-INSERT  IGNORE INTO `task` VALUES (1,'aaa',1),(2,'bbb',2),
+INSERT  IGNORE INTO `task` (`id`, `description`, `status`) VALUES (1,'aaa',1),(2,'bbb',2),
                                   (3,'ccc',0),(4,'ddd',1),
                                   (5,'eee',2),(6,'fff',0),
                                   (7,'ggg',1),(8,'hhh',2),
@@ -0,0 +1,268 @@
+// Notifications, create, edit and delete of tasks on the task list page.
+// After a mutation, only the affected row and the pager are fetched and patched into the page.
+// Changes made elsewhere arrive as Server-Sent Events from /tasks/events and are applied to the rows directly.
+
+// Tasks created or deleted on this page; their events are already reflected in the rows and the pager.
+const ownChanges = new Set();
+
+function showAlert(message, type) {
+    const alertBox = document.getElementById("alertBox");
+    alertBox.className = `alert alert-${type}`;
+    alertBox.textContent = message;
+    alertBox.style.display = "block";
+    setTimeout(() => {
+        alertBox.style.display = "none";
+    }, 3000); // Show alert for 3 seconds
+}
+
+function createTask() {
+    const description = document.getElementById("description").value;
+    const status = document.getElementById("status").value;
+
+    fetch("/tasks", {
+        method: "POST",
+        headers: {
+            "Content-Type": "application/json"
+        },
+        body: JSON.stringify({ description: description, status: status })
+    })
+        .then(response => {
+            if (response.ok) {
+                // The new task is the last one; it is only shown if it fits on the current page.
+                return response.json()
+                    .then(body => {
+                        ownChanges.add(`CREATED:${body.id}`);
+                        return isLastPage() && countRows() < pageSize()
+                            ? fetchRow(body.id).then(row => document.getElementById("taskRows").appendChild(row))
+                            : null;
+                    })
+                    .then(() => {
+                        document.getElementById("description").value = "";
+                        refreshPager();
+                        showAlert("Task created successfully!", "success");
+                    });
+            } else {
+                showAlert("Failed to create the task.", "danger");
+            }
+        })
+        .catch(error => console.error("Error:", error));
+}
+
+function fetchRow(taskId) {
+    return fetch(`/tasks/${taskId}/row`)
+        .then(response => {
+            if (!response.ok) {
+                throw new Error(`Row of task ${taskId} not loaded: ${response.status}`);
+            }
+            return response.text();
+        })
+        .then(html => {
+            const template = document.createElement("template");
+            template.innerHTML = html.trim();
+            return template.content.firstElementChild;
+        });
+}
+
+function refreshPager() {
+    const pager = document.getElementById("pager");
+    if (pager.dataset.page === undefined) {
+        return; // The keyset pager does not depend on the number of tasks.
+    }
+
+    fetch(`/tasks/pager?page=${pager.dataset.page}&size=${pager.dataset.size}`)
+        .then(response => {
+            if (!response.ok) {
+                throw new Error(`Pager not loaded: ${response.status}`);
+            }
+            return response.text();
+        })
+        .then(html => {
+            pager.outerHTML = html;
+        })
+        .catch(error => console.error("Error:", error));
+}
+
+function isLastPage() {
+    const pager = document.getElementById("pager");
+    if (pager.dataset.page === undefined) {
+        return pager.dataset.hasNext !== "true";
+    }
+    return Number(pager.dataset.page) + 1 >= Number(pager.dataset.totalPages);
+}
+
+function countRows() {
+    return document.getElementById("taskRows").rows.length;
+}
+
+function pageSize() {
+    return Number(document.getElementById("pager").dataset.size);
+}
+
+function startEdit(button) {
+    const row = button.closest("tr");
+    row.querySelector(".task-desc").style.display = "none";
+    row.querySelector(".task-status").style.display = "none";
+    row.querySelector(".edit-desc").style.display = "inline";
+    row.querySelector(".edit-status").style.display = "inline";
+    button.style.display = "none";
+    row.querySelector(".save-btn").style.display = "inline";
+    row.querySelector(".cancel-btn").style.display = "inline";
+}
+
+function cancelEdit(button) {
+    const row = button.closest("tr");
+    row.querySelector(".task-desc").style.display = "inline";
+    row.querySelector(".task-status").style.display = "inline";
+    row.querySelector(".edit-desc").style.display = "none";
+    row.querySelector(".edit-status").style.display = "none";
+    row.querySelector(".edit-btn").style.display = "inline";
+    row.querySelector(".save-btn").style.display = "none";
+    row.querySelector(".cancel-btn").style.display = "none";
+}
+
+function saveTask(button) {
+    const row = button.closest("tr");
+    const taskId = row.getAttribute("data-id");
+    const description = row.querySelector(".edit-desc").value;
+    const status = row.querySelector(".edit-status").value;
+
+    fetch(`/tasks/edit/${taskId}`, {
+        method: "PUT",
+        headers: {
+            "Content-Type": "application/json",
+            "If-Match": `"${row.getAttribute("data-version")}"`
+        },
+        body: JSON.stringify({ description: description, status: status })
+    })
+        .then(response => {
+            if (response.ok) {
+                return fetchRow(taskId).then(updatedRow => {
+                    row.replaceWith(updatedRow);
+                    showAlert("Task updated successfully!", "success");
+                });
+            } else if (response.status === 412) {
+                showAlert("The task was changed by someone else. Reload the page to see the changes.", "warning");
+            } else {
+                showAlert("Failed to update the task.", "danger");
+            }
+        })
+        .catch(error => console.error("Error:", error));
+}
+
+function deleteTask(button) {
+    const row = button.closest("tr");
+    const taskId = row.getAttribute("data-id");
+
+    if (confirm("Are you sure you want to delete this task?")) {
+        fetch(`/tasks/${taskId}`, {
+            method: "DELETE",
+            headers: {
+                "Content-Type": "application/json; charset=UTF-8",
+                "If-Match": `"${row.getAttribute("data-version")}"`
+            }
+        })
+            .then(response => {
+                if (response.ok) {
+                    ownChanges.add(`DELETED:${taskId}`);
+                    row.remove();
+                    refreshPager();
+                    showAlert("Task deleted successfully.", "success");
+                } else if (response.status === 412) {
+                    showAlert("The task was changed by someone else. Reload the page to see the changes.", "warning");
+                } else {
+                    showAlert("Failed to delete the task.", "danger");
+                }
+            })
+            .catch(error => {
+                console.error("Error:", error);
+                showAlert("Error occurred while deleting task.", "danger");
+            });
+    }
+}
+
+function findRow(taskId) {
+    return document.querySelector(`#taskRows tr[data-id="${taskId}"]`);
+}
+
+function isEditing(row) {
+    return row.querySelector(".edit-desc").style.display !== "none";
+}
+
+function fillRow(row, change) {
+    row.querySelector(".task-desc").textContent = change.description;
+    row.querySelector(".task-status").textContent = change.status;
+    if (!isEditing(row)) {
+        // While the row is edited, the old version is kept, so saving it over this change fails with 412.
+        row.querySelector(".edit-desc").value = change.description;
+        row.querySelector(".edit-status").value = change.status;
+        row.setAttribute("data-version", change.version);
+    }
+}
+
+function buildRow(change) {
+    const template = document.querySelector("#taskRows tr");
+    if (template === null) {
+        return fetchRow(change.taskId);
+    }
+    const row = template.cloneNode(true);
+    cancelEdit(row.querySelector(".cancel-btn"));
+    row.setAttribute("data-id", change.taskId);
+    row.querySelector(".task-id").textContent = change.taskId;
+    fillRow(row, change);
+    return Promise.resolve(row);
+}
+
+function adjustPager(delta) {
+    const pager = document.getElementById("pager");
+    if (pager.dataset.page === undefined) {
+        return; // The keyset pager does not depend on the number of tasks.
+    }
+    const totalTasks = Math.max(0, Number(pager.dataset.totalTasks) + delta);
+    const totalPages = Math.ceil(totalTasks / pageSize());
+    pager.dataset.totalTasks = totalTasks;
+    pager.dataset.totalPages = totalPages;
+    pager.querySelector(".total-pages").textContent = totalPages;
+    pager.querySelector(".next-page").classList.toggle("disabled", Number(pager.dataset.page) + 1 >= totalPages);
+}
+
+function applyChange(change) {
+    const row = findRow(change.taskId);
+    if (ownChanges.delete(`${change.type}:${change.taskId}`)) {
+        return;
+    }
+
+    if (change.type === "UPDATED") {
+        if (row === null || change.version <= Number(row.getAttribute("data-version"))) {
+            return;
+        }
+        fillRow(row, change);
+    } else if (change.type === "DELETED") {
+        if (row !== null) {
+            row.remove();
+        }
+        adjustPager(-1);
+    } else if (change.type === "CREATED") {
+        adjustPager(1);
+        // The new task is the last one; it is only shown if it fits on the current page.
+        if (row === null && isLastPage() && countRows() < pageSize()) {
+            buildRow(change).then(newRow => {
+                if (findRow(change.taskId) === null) {
+                    document.getElementById("taskRows").appendChild(newRow);
+                }
+            }).catch(error => console.error("Error:", error));
+        }
+    }
+}
+
+function subscribeToChanges() {
+    if (typeof EventSource === "undefined") {
+        return;
+    }
+    // The EventSource reconnects by itself and resumes after the last event it received.
+    const events = new EventSource("/tasks/events");
+    events.addEventListener("change", event => applyChange(JSON.parse(event.data)));
+    // Sent when the changes missed while disconnected are no longer kept.
+    events.addEventListener("reset", () => location.reload());
+}
+
+subscribeToChanges();
@@ -0,0 +1,90 @@
+package com.javarush.kostenko;
+
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApplicationTest {
+
+    private static Tomcat tomcat;
+    private static URI uri;
+
+    @BeforeAll
+    static void startServer() throws LifecycleException {
+        tomcat = Application.start(0, WebConfig.class);
+        uri = URI.create("http://localhost:" + tomcat.getConnector().getLocalPort() + "/payload");
+    }
+
+    @AfterAll
+    static void stopServer() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    @Test
+    void testConnectorUsesConfiguredSettings() {
+        AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) tomcat.getConnector().getProtocolHandler();
+
+        assertEquals(200, protocol.getMaxThreads());
+        assertEquals(100, protocol.getMaxKeepAliveRequests());
+        assertEquals("on", protocol.getCompression());
+        assertEquals(1, tomcat.getConnector().findUpgradeProtocols().length);
+    }
+
+    @Test
+    void testCompressesLargeJsonResponses() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()
+                .send(HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(response.body().length < WebConfig.PAYLOAD_SIZE / 10);
+    }
+
+    @Test
+    void testUpgradesCleartextConnectionsToHttp2() throws IOException, InterruptedException {
+        HttpResponse<String> response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build()
+                .send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(HttpClient.Version.HTTP_2, response.version());
+        assertEquals(WebConfig.PAYLOAD_SIZE, response.body().length());
+    }
+
+    /**
+     * Registered directly instead of being annotated with @Configuration, and serving the payload
+     * with a router function instead of a @Controller, so the component scan of AppConfig
+     * does not pick these beans up from the test classpath.
+     */
+    @EnableWebMvc
+    static class WebConfig {
+
+        static final int PAYLOAD_SIZE = 10_000;
+
+        @Bean
+        RouterFunction<ServerResponse> payload() {
+            String payload = "\"" + "a".repeat(PAYLOAD_SIZE - 2) + "\"";
+            return RouterFunctions.route()
+                    .GET("/payload", request -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(payload))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.javarush.kostenko.config;
+
+import com.javarush.kostenko.datasource.ReplicaSet;
+import com.zaxxer.hikari.pool.HikariPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppConfigTest {
+
+    private static final String DEAD_URL = "jdbc:h2:tcp://localhost:1/mem:dead";
+
+    private SimpleMeterRegistry meterRegistry;
+    private AppConfig appConfig;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        appConfig = new AppConfig(meterRegistry);
+        ReflectionTestUtils.setField(appConfig, "driverClassName", "org.h2.Driver");
+        ReflectionTestUtils.setField(appConfig, "url", "jdbc:h2:mem:app-config;DB_CLOSE_DELAY=-1");
+        ReflectionTestUtils.setField(appConfig, "username", "sa");
+        ReflectionTestUtils.setField(appConfig, "password", "");
+        ReflectionTestUtils.setField(appConfig, "poolName", "app-config-test-" + System.nanoTime());
+        ReflectionTestUtils.setField(appConfig, "minimumIdle", 1);
+        ReflectionTestUtils.setField(appConfig, "maximumPoolSize", 2);
+        ReflectionTestUtils.setField(appConfig, "connectionTimeout", 250L);
+        ReflectionTestUtils.setField(appConfig, "validationTimeout", 250L);
+        ReflectionTestUtils.setField(appConfig, "replicaMaxLagMs", 5000L);
+        ReflectionTestUtils.setField(appConfig, "replicaTimeoutMs", 250L);
+    }
+
+    @Test
+    void testUnreachableReplicaIsEjectedInsteadOfFailingStartup() throws Exception {
+        ReflectionTestUtils.setField(appConfig, "replicaUrls", DEAD_URL);
+
+        try (ReplicaSet replicaSet = appConfig.replicaSet()) {
+            new JdbcTemplate(replicaSet.getPrimary()).execute("create table if not exists task_change (seq bigint)");
+            replicaSet.check();
+
+            assertEquals(-1.0, meterRegistry.get("tasks.datasource.replica.lag").gauge().value());
+            assertEquals(0.0, meterRegistry.get("tasks.datasource.replica.healthy").gauge().value());
+            assertEquals(Optional.empty(), replicaSet.next());
+        }
+    }
+
+    @Test
+    void testScheduledJobsDoNotWaitForEachOther() throws InterruptedException {
+        ReflectionTestUtils.setField(appConfig, "schedulerPoolSize", 2);
+        ThreadPoolTaskScheduler scheduler = appConfig.taskScheduler();
+        scheduler.initialize();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch ran = new CountDownLatch(3);
+        try {
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, Duration.ofMillis(10));
+            scheduler.scheduleWithFixedDelay(ran::countDown, Duration.ofMillis(10));
+
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+        } finally {
+            blocked.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testUnreachablePrimaryFailsStartup() {
+        ReflectionTestUtils.setField(appConfig, "url", DEAD_URL);
+        ReflectionTestUtils.setField(appConfig, "replicaUrls", "");
+
+        assertThrows(HikariPool.PoolInitializationException.class, () -> appConfig.replicaSet());
+    }
+}
@@ -0,0 +1,70 @@
+package com.javarush.kostenko.config;
+
+import com.javarush.kostenko.config.ServerSettings.ThreadMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerSettingsTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(ServerSettings.THREADS_MODE);
+        System.clearProperty(ServerSettings.PROTOCOL);
+        System.clearProperty(ServerSettings.MAX_THREADS);
+    }
+
+    @Test
+    void testDefaultsToPlatformThreads() {
+        assertEquals(ThreadMode.PLATFORM, ServerSettings.load().getThreadMode());
+    }
+
+    @Test
+    void testSystemPropertyOverridesThreadMode() {
+        System.setProperty(ServerSettings.THREADS_MODE, " Virtual ");
+
+        if (Runtime.version().feature() >= 21) {
+            assertEquals(ThreadMode.VIRTUAL, ServerSettings.load().getThreadMode());
+        } else {
+            assertThrows(IllegalStateException.class, () -> ServerSettings.load().getThreadMode());
+        }
+    }
+
+    @Test
+    void testRejectsUnknownThreadMode() {
+        assertThrows(IllegalArgumentException.class, () -> ThreadMode.of("green"));
+    }
+
+    @Test
+    void testReadsConnectorSettingsFromApplicationProperties() {
+        ServerSettings settings = ServerSettings.load();
+
+        assertEquals(8080, settings.getPort());
+        assertEquals("org.apache.coyote.http11.Http11NioProtocol", settings.getProtocolClassName());
+        assertTrue(settings.isHttp2Enabled());
+        assertTrue(settings.getCompressionMimeTypes().contains("application/x-ndjson"));
+    }
+
+    @Test
+    void testSystemPropertiesOverrideConnectorSettings() {
+        System.setProperty(ServerSettings.PROTOCOL, "NIO2");
+        System.setProperty(ServerSettings.MAX_THREADS, "50");
+
+        ServerSettings settings = ServerSettings.load();
+
+        assertEquals("org.apache.coyote.http11.Http11Nio2Protocol", settings.getProtocolClassName());
+        assertEquals(50, settings.getMaxThreads());
+    }
+
+    @Test
+    void testRejectsInvalidConnectorSettings() {
+        System.setProperty(ServerSettings.PROTOCOL, "apr");
+        System.setProperty(ServerSettings.MAX_THREADS, "many");
+
+        ServerSettings settings = ServerSettings.load();
+
+        assertThrows(IllegalArgumentException.class, settings::getProtocolClassName);
+        assertThrows(IllegalArgumentException.class, settings::getMaxThreads);
+    }
+}
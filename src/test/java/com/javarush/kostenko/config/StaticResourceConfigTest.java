@@ -0,0 +1,79 @@
+package com.javarush.kostenko.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@ContextConfiguration(classes = {StaticResourceConfig.class, StaticResourceConfigTest.WebConfig.class})
+class StaticResourceConfigTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testResolvesContentVersionedUrls() {
+        String url = resourceUrlProvider.getForLookupPath("/static/js/tasks.js");
+
+        assertNotNull(url);
+        assertTrue(url.matches("/static/js/tasks-[0-9a-f]{32}\\.js"), url);
+    }
+
+    @Test
+    void testServesVersionedResourceAsImmutable() throws Exception {
+        String url = resourceUrlProvider.getForLookupPath("/static/css/bootstrap.min.css");
+
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(content().contentTypeCompatibleWith("text/css"));
+    }
+
+    @Test
+    void testServesPrecompressedVariant() throws Exception {
+        String url = resourceUrlProvider.getForLookupPath("/static/js/tasks.js");
+
+        mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept-Encoding"));
+    }
+
+    @Test
+    void testRejectsStaleVersion() throws Exception {
+        mockMvc.perform(get("/static/js/tasks-00000000000000000000000000000000.js"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Not annotated with @Configuration, so the component scan of AppConfig does not pick it up.
+     */
+    @EnableWebMvc
+    static class WebConfig {
+    }
+}
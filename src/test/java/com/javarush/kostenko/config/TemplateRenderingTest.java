@@ -0,0 +1,117 @@
+package com.javarush.kostenko.config;
+
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateRenderingTest {
+
+    private AppConfig appConfig;
+    private IWebExchange webExchange;
+
+    @BeforeEach
+    void setUp() {
+        appConfig = new AppConfig(new SimpleMeterRegistry());
+
+        MockServletContext servletContext = new MockServletContext();
+        webExchange = JakartaServletWebApplication.buildApplication(servletContext)
+                .buildExchange(new MockHttpServletRequest(servletContext, "GET", "/tasks"), new MockHttpServletResponse());
+    }
+
+    @Test
+    void testCachesParsedTemplatesByDefault() {
+        SpringTemplateEngine engine = appConfig.templateEngine();
+
+        render(engine);
+        render(engine);
+
+        assertTrue(appConfig.templateResolver().isCacheable());
+        assertEquals(1, engine.getCacheManager().getTemplateCache().keySet().size());
+    }
+
+    @Test
+    void testDevModeReloadsTemplates() {
+        ReflectionTestUtils.setField(appConfig, "templateCache", false);
+        SpringTemplateEngine engine = appConfig.templateEngine();
+
+        render(engine);
+
+        assertFalse(appConfig.templateResolver().isCacheable());
+        assertEquals(0, engine.getCacheManager().getTemplateCache().keySet().size());
+    }
+
+    @Test
+    void testBoundsTemplateCacheAndExpiresEntries() {
+        ReflectionTestUtils.setField(appConfig, "templateCacheSize", 5);
+        ReflectionTestUtils.setField(appConfig, "templateCacheTtlMs", 60_000L);
+
+        assertEquals(5, ((StandardCacheManager) appConfig.templateEngine().getCacheManager()).getTemplateCacheMaxSize());
+        assertEquals(60_000L, appConfig.templateResolver().getCacheTTLMs());
+    }
+
+    @Test
+    void testCompiledExpressionsRenderLikeInterpretedOnes() {
+        SpringTemplateEngine engine = appConfig.templateEngine();
+
+        String first = render(engine);
+        String last = first;
+        for (int i = 0; i < 300; i++) {
+            last = render(engine);
+        }
+
+        assertEquals(first, last);
+        assertTrue(first.contains("<span class=\"task-desc\">Publish report</span>"));
+        assertTrue(first.contains("<span class=\"task-status\">PAUSED</span>"));
+    }
+
+    @Test
+    void testRendersRowAndPagerFragments() {
+        SpringTemplateEngine engine = appConfig.templateEngine();
+        WebContext context = new WebContext(webExchange);
+        context.setVariable("tasks", List.of(new Task("Publish report", Status.PAUSED)));
+        context.setVariable("pageNumber", 1);
+        context.setVariable("totalPages", 3);
+        context.setVariable("totalTasks", 25L);
+        context.setVariable("pageSize", 10);
+
+        String row = engine.process("tasks", Set.of("row"), context).trim();
+        String pager = engine.process("tasks", Set.of("pager"), context).trim();
+
+        assertTrue(row.startsWith("<tr"));
+        assertTrue(row.endsWith("</tr>"));
+        assertTrue(row.contains("<span class=\"task-desc\">Publish report</span>"));
+        assertTrue(pager.startsWith("<div id=\"pager\""));
+        assertTrue(pager.contains("data-total-pages=\"3\""));
+        assertTrue(pager.contains("data-total-tasks=\"25\""));
+        assertTrue(pager.contains("Page <span>2</span> of <span class=\"total-pages\">3</span>"));
+        assertFalse(pager.contains("<table"));
+    }
+
+    private String render(SpringTemplateEngine engine) {
+        WebContext context = new WebContext(webExchange);
+        context.setVariable("tasks", List.of(
+                new Task("Write report", Status.IN_PROGRESS),
+                new Task("Review report", Status.DONE),
+                new Task("Publish report", Status.PAUSED)));
+        context.setVariable("pageNumber", 0);
+        context.setVariable("totalPages", 1);
+        context.setVariable("pageSize", 10);
+        return engine.process("tasks", context);
+    }
+}
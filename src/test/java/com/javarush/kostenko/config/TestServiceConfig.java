@@ -1,5 +1,7 @@
 package com.javarush.kostenko.config;
 
+import com.javarush.kostenko.metrics.SqlStatistics;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -27,7 +29,14 @@ public class TestServiceConfig {
         dataSource.setUrl("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
         dataSource.setUsername("sa");
         dataSource.setPassword("");
-        return dataSource;
+        return ProxyDataSourceBuilder.create(dataSource)
+                .listener(sqlStatistics())
+                .build();
+    }
+
+    @Bean
+    public SqlStatistics sqlStatistics() {
+        return new SqlStatistics(1000, 500);
     }
 
     @Bean
@@ -40,7 +49,20 @@ public class TestServiceConfig {
         Properties jpaProperties = new Properties();
         jpaProperties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
         jpaProperties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
-        jpaProperties.setProperty("hibernate.show_sql", "true");
+        jpaProperties.setProperty("hibernate.show_sql", System.getProperty("hibernate.show_sql", "true"));
+        jpaProperties.setProperty("hibernate.jdbc.batch_size", "50");
+        jpaProperties.setProperty("hibernate.order_inserts", "true");
+        jpaProperties.setProperty("hibernate.order_updates", "true");
+        jpaProperties.setProperty("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        jpaProperties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        jpaProperties.setProperty("hibernate.cache.use_query_cache", "true");
+        jpaProperties.setProperty("hibernate.cache.region.factory_class", "jcache");
+        jpaProperties.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        jpaProperties.setProperty("hibernate.javax.cache.uri", "ehcache.xml");
+        jpaProperties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        jpaProperties.setProperty("hibernate.generate_statistics", "true");
+        jpaProperties.setProperty("hibernate.session_factory.statement_inspector",
+                RecordingStatementInspector.class.getName());
 
         factoryBean.setJpaProperties(jpaProperties);
         return factoryBean;
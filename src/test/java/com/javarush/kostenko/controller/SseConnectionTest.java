@@ -0,0 +1,196 @@
+package com.javarush.kostenko.controller;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SseConnectionTest {
+
+    @Test
+    void testOpenStartsAsyncStream() throws IOException {
+        ServletOutputStream out = writableStream();
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        HttpServletRequest request = asyncRequest(asyncContext, out);
+
+        SseConnection connection = SseConnection.open(request, 8, 1000);
+
+        HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+        verify(asyncContext).setTimeout(1000);
+        verify(response).setContentType(SseConnection.CONTENT_TYPE);
+        verify(response).setHeader("Cache-Control", "no-cache");
+        verify(asyncContext).addListener(connection);
+        verify(out).setWriteListener(connection);
+        verify(out).write(SseConnection.HEARTBEAT);
+        verify(out).flush();
+        assertTrue(connection.isOpen());
+    }
+
+    @Test
+    void testWritesQueuedMessagesOnceWritable() throws IOException {
+        ServletOutputStream out = mock(ServletOutputStream.class);
+        SseConnection connection = new SseConnection(mock(AsyncContext.class), out, 8);
+        byte[] first = SseConnection.event("1", "change", "{}");
+        byte[] second = SseConnection.event("2", "change", "{}");
+
+        assertTrue(connection.send(first));
+        assertTrue(connection.send(second));
+        verify(out, never()).write(any(byte[].class));
+
+        when(out.isReady()).thenReturn(true);
+        connection.onWritePossible();
+
+        InOrder inOrder = inOrder(out);
+        inOrder.verify(out).write(first);
+        inOrder.verify(out).write(second);
+        inOrder.verify(out).flush();
+    }
+
+    @Test
+    void testDisconnectsClientFallingBehind() {
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        SseConnection connection = new SseConnection(asyncContext, mock(ServletOutputStream.class), 2);
+        AtomicInteger closed = new AtomicInteger();
+        connection.onClose(closed::incrementAndGet);
+
+        assertTrue(connection.send(SseConnection.HEARTBEAT));
+        assertTrue(connection.send(SseConnection.HEARTBEAT));
+        assertFalse(connection.send(SseConnection.HEARTBEAT));
+        assertFalse(connection.send(SseConnection.HEARTBEAT));
+
+        assertFalse(connection.isOpen());
+        assertEquals(1, closed.get());
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    void testWriteFailureClosesConnection() throws IOException {
+        ServletOutputStream out = writableStream();
+        doThrow(new IOException("Connection reset")).when(out).write(any(byte[].class));
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        SseConnection connection = new SseConnection(asyncContext, out, 8);
+
+        connection.send(SseConnection.HEARTBEAT);
+
+        assertFalse(connection.isOpen());
+        verify(asyncContext).complete();
+        assertFalse(connection.send(SseConnection.HEARTBEAT));
+    }
+
+    @Test
+    void testEncodesEvent() {
+        assertEquals("id:7\nevent:change\ndata:{\"seq\":7}\n\n",
+                new String(SseConnection.event("7", "change", "{\"seq\":7}"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSlowClientIsDroppedWithoutBlockingTheSender() throws Exception {
+        BlockingQueue<SseConnection> opened = new LinkedBlockingQueue<>();
+        Tomcat tomcat = startServer(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                opened.add(SseConnection.open(request, 16, 0));
+            }
+        });
+        try (Socket fast = connect(tomcat)) {
+            SseConnection fastConnection = opened.poll(5, TimeUnit.SECONDS);
+            assertNotNull(fastConnection);
+            Socket slow = connect(tomcat);
+            SseConnection slowConnection = opened.poll(5, TimeUnit.SECONDS);
+            assertNotNull(slowConnection);
+            BufferedReader fastReader = new BufferedReader(new InputStreamReader(fast.getInputStream(),
+                    StandardCharsets.UTF_8));
+
+            // The second client never reads: its socket buffers fill up, then its queue, and it is disconnected.
+            byte[] message = SseConnection.event("1", "change", "x".repeat(64 * 1024));
+            long start = System.nanoTime();
+            int sent = 0;
+            while (slowConnection.send(message)) {
+                sent++;
+                assertTrue(sent < 10_000, "Slow client was not disconnected");
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertFalse(slowConnection.isOpen());
+
+            assertTrue(fastConnection.send(SseConnection.event("2", "change", "{}")));
+            assertTrue(fastReader.readLine().startsWith("HTTP/1.1 200"));
+            String line;
+            do {
+                line = fastReader.readLine();
+            } while (line != null && !line.equals("id:2"));
+            assertEquals("id:2", line);
+            assertTrue(fastConnection.isOpen());
+            slow.close();
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    /**
+     * Creates a request whose asynchronous context writes to the given stream.
+     */
+    static HttpServletRequest asyncRequest(AsyncContext asyncContext, ServletOutputStream out) throws IOException {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(out);
+        when(asyncContext.getResponse()).thenReturn(response);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.startAsync()).thenReturn(asyncContext);
+        return request;
+    }
+
+    /**
+     * Creates a stream that accepts every write without blocking.
+     */
+    static ServletOutputStream writableStream() {
+        ServletOutputStream out = mock(ServletOutputStream.class);
+        when(out.isReady()).thenReturn(true);
+        doNothing().when(out).setWriteListener(any(WriteListener.class));
+        return out;
+    }
+
+    private static Tomcat startServer(HttpServlet servlet) throws Exception {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(System.getProperty("java.io.tmpdir"));
+        tomcat.setPort(0);
+        Context context = tomcat.addContext("", null);
+        Wrapper wrapper = Tomcat.addServlet(context, "events", servlet);
+        wrapper.setAsyncSupported(true);
+        context.addServletMappingDecoded("/events", "events");
+        tomcat.getConnector();
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static Socket connect(Tomcat tomcat) throws IOException {
+        Socket socket = new Socket("localhost", tomcat.getConnector().getLocalPort());
+        socket.setReceiveBufferSize(4096);
+        OutputStream out = socket.getOutputStream();
+        out.write("GET /events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+}
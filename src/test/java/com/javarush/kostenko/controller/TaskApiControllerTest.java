@@ -0,0 +1,129 @@
+package com.javarush.kostenko.controller;
+
+import com.javarush.kostenko.domain.dto.TaskFilter;
+import com.javarush.kostenko.domain.dto.TaskView;
+import com.javarush.kostenko.domain.enums.DescriptionMatch;
+import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskService;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TaskApiControllerTest {
+
+    @Mock
+    TaskService taskService;
+
+    @InjectMocks
+    TaskApiController taskApiController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testGetTasks() {
+        List<TaskView> views = List.of(new TaskView(1, "Task 1", Status.DONE, 0));
+        when(taskService.findViews(eq(new TaskFilter(Status.DONE, null, DescriptionMatch.PREFIX)), eq(0), eq(10), any(Sort.class)))
+                .thenReturn(new SliceImpl<>(views, PageRequest.of(0, 10), true));
+
+        ResponseEntity<Map<String, Object>> response =
+                taskApiController.getTasks(Status.DONE, null, "prefix", 0, 10, "id", "asc");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(views, response.getBody().get("content"));
+        assertEquals(true, response.getBody().get("hasNext"));
+    }
+
+    @Test
+    void testGetTasksWithDescriptionFilterAndSort() {
+        when(taskService.findViews(any(TaskFilter.class), anyInt(), anyInt(), any(Sort.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        ResponseEntity<Map<String, Object>> response =
+                taskApiController.getTasks(Status.IN_PROGRESS, "report", "contains", 2, 20, "description", "desc");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(taskService).findViews(new TaskFilter(Status.IN_PROGRESS, "report", DescriptionMatch.CONTAINS),
+                2, 20, Sort.by(Sort.Direction.DESC, "description"));
+    }
+
+    @Test
+    void testGetTasksWithUnsupportedFilter() {
+        when(taskService.findViews(any(TaskFilter.class), anyInt(), anyInt(), any(Sort.class)))
+                .thenThrow(new IllegalArgumentException("Matching a description substring requires a status filter"));
+
+        ResponseEntity<Map<String, Object>> response =
+                taskApiController.getTasks(null, "report", "contains", 0, 10, "id", "asc");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testGetTasksWithInvalidParameters() {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                taskApiController.getTasks(null, null, "prefix", 0, 100_000, "id", "asc").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                taskApiController.getTasks(null, null, "prefix", 0, 10, "status", "asc").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                taskApiController.getTasks(null, "a", "suffix", 0, 10, "id", "asc").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                taskApiController.getTasks(null, null, "prefix", 0, 10, "id", "up").getStatusCode());
+        verify(taskService, never()).findViews(any(TaskFilter.class), anyInt(), anyInt(), any(Sort.class));
+    }
+
+    @Test
+    void testExportTasksAsNdjson() throws Exception {
+        mockExport();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        taskApiController.exportTasks(null, "ndjson", response);
+
+        assertEquals(TaskApiController.NDJSON_VALUE, response.getContentType().split(";")[0]);
+        assertEquals("{\"id\":1,\"description\":\"Task 1\",\"status\":\"DONE\",\"version\":0}\n"
+                        + "{\"id\":2,\"description\":\"Task 2\",\"status\":\"PAUSED\",\"version\":3}\n",
+                response.getContentAsString());
+    }
+
+    @Test
+    void testExportTasksAsJsonArray() throws Exception {
+        mockExport();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        taskApiController.exportTasks(null, "json", response);
+
+        assertEquals("[{\"id\":1,\"description\":\"Task 1\",\"status\":\"DONE\",\"version\":0},"
+                        + "{\"id\":2,\"description\":\"Task 2\",\"status\":\"PAUSED\",\"version\":3}]",
+                response.getContentAsString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockExport() {
+        when(taskService.exportViews(isNull(), any())).thenAnswer(invocation -> {
+            Consumer<TaskView> consumer = invocation.getArgument(1);
+            consumer.accept(new TaskView(1, "Task 1", Status.DONE, 0));
+            consumer.accept(new TaskView(2, "Task 2", Status.PAUSED, 3));
+            return 2L;
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.javarush.kostenko.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskChangeFeed;
+import com.javarush.kostenko.service.TaskChangeService;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TaskChangeControllerTest {
+
+    @Mock
+    TaskChangeService taskChangeService;
+
+    @Mock
+    TaskChangeFeed taskChangeFeed;
+
+    @InjectMocks
+    TaskChangeController taskChangeController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(taskChangeFeed.subscribe(any(), any())).thenReturn(mock(TaskChangeFeed.Subscription.class));
+    }
+
+    @Test
+    void testGetChanges() {
+        List<TaskChange> changes = List.of(change(11, ChangeType.CREATED), change(12, ChangeType.DELETED));
+        when(taskChangeService.findSince(10, 2)).thenReturn(changes);
+
+        ResponseEntity<Map<String, Object>> response = taskChangeController.getChanges(10, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(changes, response.getBody().get("changes"));
+        assertEquals(12L, response.getBody().get("next"));
+        verify(taskChangeService, never()).isPurgedAfter(anyLong());
+    }
+
+    @Test
+    void testGetChangesAfterPurgedChangesAsksForReset() {
+        when(taskChangeService.findSince(10, 100)).thenReturn(List.of(change(40, ChangeType.CREATED)));
+        when(taskChangeService.isPurgedAfter(10)).thenReturn(true);
+        when(taskChangeService.findLastSeq()).thenReturn(45L);
+
+        ResponseEntity<Map<String, Object>> response = taskChangeController.getChanges(10, 100);
+
+        assertEquals(HttpStatus.GONE, response.getStatusCode());
+        assertEquals(true, response.getBody().get("reset"));
+        assertEquals(45L, response.getBody().get("next"));
+    }
+
+    @Test
+    void testGetChangesWithoutNewChangesKeepsPosition() {
+        when(taskChangeService.findSince(10, 100)).thenReturn(List.of());
+
+        ResponseEntity<Map<String, Object>> response = taskChangeController.getChanges(10, 100);
+
+        assertEquals(List.of(), response.getBody().get("changes"));
+        assertEquals(10L, response.getBody().get("next"));
+    }
+
+    @Test
+    void testGetChangesRejectsInvalidParameters() {
+        assertEquals(HttpStatus.BAD_REQUEST, taskChangeController.getChanges(-1, 100).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, taskChangeController.getChanges(0, 0).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                taskChangeController.getChanges(0, TaskChangeController.MAX_LIMIT + 1).getStatusCode());
+        verifyNoInteractions(taskChangeService);
+    }
+
+    @Test
+    void testStreamResumesAfterLastEventId() throws IOException {
+        taskChangeController.streamChanges(3L, 7L, streamRequest(mock(AsyncContext.class)), null);
+        taskChangeController.streamChanges(3L, null, streamRequest(mock(AsyncContext.class)), null);
+        taskChangeController.streamChanges(null, null, streamRequest(mock(AsyncContext.class)), null);
+
+        verify(taskChangeFeed).subscribe(eq(7L), any());
+        verify(taskChangeFeed).subscribe(eq(3L), any());
+        verify(taskChangeFeed).subscribe(isNull(), any());
+    }
+
+    @Test
+    void testStreamAfterPurgedChangesStartsWithReset() throws IOException {
+        when(taskChangeService.isPurgedAfter(7)).thenReturn(true);
+        ServletOutputStream out = SseConnectionTest.writableStream();
+
+        taskChangeController.streamChanges(null, 7L, SseConnectionTest.asyncRequest(mock(AsyncContext.class), out),
+                null);
+
+        verify(out).write(argThat((byte[] data) -> new String(data, StandardCharsets.UTF_8)
+                .equals(new String(TaskEventBroadcaster.RESET, StandardCharsets.UTF_8))));
+        verify(taskChangeFeed).subscribe(isNull(), any());
+    }
+
+    @Test
+    void testStreamSendsChangesUntilClosed() throws IOException {
+        TaskChangeFeed.Subscription subscription = mock(TaskChangeFeed.Subscription.class);
+        ArgumentCaptor<Consumer<List<TaskChange>>> listener = ArgumentCaptor.captor();
+        when(taskChangeFeed.subscribe(any(), listener.capture())).thenReturn(subscription);
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        ServletOutputStream out = SseConnectionTest.writableStream();
+
+        taskChangeController.streamChanges(null, null, SseConnectionTest.asyncRequest(asyncContext, out), null);
+        listener.getValue().accept(List.of(change(11, ChangeType.CREATED)));
+
+        verify(out).write(argThat((byte[] data) -> new String(data, StandardCharsets.UTF_8)
+                .startsWith("id:11\nevent:change\ndata:{\"seq\":11,")));
+        verify(subscription, never()).cancel();
+
+        ArgumentCaptor<AsyncListener> connection = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(connection.capture());
+        connection.getValue().onComplete(null);
+        verify(subscription).cancel();
+    }
+
+    @Test
+    void testChangeIsSerializedAsJson() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(change(11, ChangeType.UPDATED));
+
+        assertTrue(json.contains("\"seq\":11"), json);
+        assertTrue(json.contains("\"type\":\"UPDATED\""), json);
+        assertTrue(json.contains("\"recordedAt\":\"2026-01-02T03:04:05Z\""), json);
+    }
+
+    private static HttpServletRequest streamRequest(AsyncContext asyncContext) throws IOException {
+        return SseConnectionTest.asyncRequest(asyncContext, SseConnectionTest.writableStream());
+    }
+
+    private static TaskChange change(long seq, ChangeType type) {
+        return new TaskChange(seq, 1, type, "Write report", Status.DONE, 2, Instant.parse("2026-01-02T03:04:05Z"));
+    }
+}
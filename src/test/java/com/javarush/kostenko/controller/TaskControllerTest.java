@@ -1,7 +1,11 @@
 package com.javarush.kostenko.controller;
 
+import com.javarush.kostenko.domain.dto.TaskBatchResult;
+import com.javarush.kostenko.domain.dto.TaskSearchHit;
 import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.BatchOutcome;
 import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskSearchService;
 import com.javarush.kostenko.service.TaskService;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
@@ -12,13 +16,23 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.lang.reflect.Field;
 import java.util.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
@@ -29,6 +43,12 @@ class TaskControllerTest {
     @Mock
     TaskService taskService;
 
+    @Mock
+    TaskSearchService taskSearchService;
+
+    @Mock
+    TaskEventBroadcaster taskEventBroadcaster;
+
     @Mock
     Model model;
 
@@ -55,7 +75,7 @@ class TaskControllerTest {
         Page<Task> page = new PageImpl<>(tasks);
         when(taskService.findAll(anyInt(), anyInt())).thenReturn(page);
 
-        String result = taskController.getAllTasks(0, 10, model);
+        String result = taskController.getAllTasks(0, 10, null, null, model, webRequest());
 
         assertEquals("tasks", result);
         verify(model, times(1)).addAttribute("tasks", tasks);
@@ -65,50 +85,94 @@ class TaskControllerTest {
     }
 
     @Test
-    void testUpdateTaskSuccess() throws Exception {
-        Task task = new Task("Existing Task", Status.PAUSED);
-        setTaskId(task); // Устанавливаем id через рефлексию
-        when(taskService.findById(1)).thenReturn(Optional.of(task));
+    void testGetAllTasksAfterCursor() throws Exception {
+        Task task = new Task("Task 5", Status.DONE);
+        setTaskId(task);
+        List<Task> tasks = List.of(task);
+        when(taskService.findAfter(4, 1)).thenReturn(new SliceImpl<>(tasks, PageRequest.of(0, 1), true));
+
+        String result = taskController.getAllTasks(0, 1, TaskCursor.encode(4), null, model, webRequest());
+
+        assertEquals("tasks", result);
+        verify(taskService, never()).findAll(anyInt(), anyInt());
+        verify(model, times(1)).addAttribute("tasks", tasks);
+        verify(model, times(1)).addAttribute("cursorMode", true);
+        verify(model, times(1)).addAttribute("prevCursor", TaskCursor.encode(1));
+        verify(model, times(1)).addAttribute("nextCursor", TaskCursor.encode(1));
+    }
+
+    @Test
+    void testGetAllTasksBeforeCursorOnFirstPage() throws Exception {
+        Task task = new Task("Task 1", Status.DONE);
+        setTaskId(task);
+        List<Task> tasks = List.of(task);
+        when(taskService.findBefore(2, 10)).thenReturn(new SliceImpl<>(tasks, PageRequest.of(0, 10), false));
+
+        taskController.getAllTasks(0, 10, null, TaskCursor.encode(2), model, webRequest());
+
+        verify(model, times(1)).addAttribute("prevCursor", null);
+        verify(model, times(1)).addAttribute("nextCursor", TaskCursor.encode(1));
+    }
+
+    @Test
+    void testGetAllTasksInvalidCursor() {
+        assertThrows(ResponseStatusException.class,
+                () -> taskController.getAllTasks(0, 10, "not-a-cursor", null, model, webRequest()));
+        verify(taskService, never()).findAfter(any(), anyInt());
+    }
+
+    @Test
+    void testUpdateTaskSuccess() {
+        when(taskService.update(1, "Updated Task", Status.DONE, null)).thenReturn(true);
 
         Task taskUpdate = new Task("Updated Task", Status.DONE);
-        ResponseEntity<Void> response = taskController.updateTask(1, taskUpdate);
+        ResponseEntity<Void> response = taskController.updateTask(1, taskUpdate, null);
 
         assertEquals(ResponseEntity.ok().build(), response);
-        assertEquals("Updated Task", task.getDescription());
-        verify(taskService, times(1)).save(task);
+        verify(taskService, times(1)).update(1, "Updated Task", Status.DONE, null);
+        verify(taskService, never()).findById(anyInt());
     }
 
     @Test
     void testUpdateTaskNotFound() {
-        when(taskService.findById(1)).thenReturn(Optional.empty());
+        when(taskService.update(1, "Updated Task", Status.DONE, null)).thenReturn(false);
 
         Task taskUpdate = new Task("Updated Task", Status.DONE);
-        ResponseEntity<Void> response = taskController.updateTask(1, taskUpdate);
+        ResponseEntity<Void> response = taskController.updateTask(1, taskUpdate, null);
 
         assertEquals(ResponseEntity.notFound().build(), response);
         verify(taskService, never()).save(any(Task.class));
     }
 
     @Test
-    void testDeleteTaskSuccess() throws Exception {
-        Task task = new Task("Task to Delete", Status.DONE);
-        setTaskId(task);
-        when(taskService.findById(1)).thenReturn(Optional.of(task));
+    void testUpdateTaskWithoutStatus() {
+        Task taskUpdate = new Task();
+        taskUpdate.setDescription("Updated Task");
+
+        ResponseEntity<Void> response = taskController.updateTask(1, taskUpdate, null);
+
+        assertEquals(ResponseEntity.badRequest().build(), response);
+        verify(taskService, never()).update(anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testDeleteTaskSuccess() {
+        when(taskService.deleteById(1, null)).thenReturn(true);
 
-        ResponseEntity<Void> response = taskController.deleteTask(1);
+        ResponseEntity<Void> response = taskController.deleteTask(1, null);
 
         assertEquals(ResponseEntity.noContent().build(), response);
-        verify(taskService, times(1)).deleteById(1);
+        verify(taskService, times(1)).deleteById(1, null);
+        verify(taskService, never()).findById(anyInt());
     }
 
     @Test
     void testDeleteTaskNotFound() {
-        when(taskService.findById(1)).thenReturn(Optional.empty());
+        when(taskService.deleteById(1, null)).thenReturn(false);
 
-        ResponseEntity<Void> response = taskController.deleteTask(1);
+        ResponseEntity<Void> response = taskController.deleteTask(1, null);
 
         assertEquals(ResponseEntity.notFound().build(), response);
-        verify(taskService, never()).deleteById(anyInt());
     }
 
     @Test
@@ -118,6 +182,7 @@ class TaskControllerTest {
         Map<String, Object> responseMap = new HashMap<>();
         responseMap.put("success", true);
         responseMap.put("message", "Task created successfully!");
+        responseMap.put("id", null);
 
         ResponseEntity<Map<String, Object>> response = taskController.createTask(newTask);
 
@@ -125,6 +190,189 @@ class TaskControllerTest {
         verify(taskService, times(1)).save(newTask);
     }
 
+    @Test
+    void testCreateTaskReturnsId() throws Exception {
+        Task newTask = new Task("New Task", Status.IN_PROGRESS);
+        doAnswer(invocation -> {
+            setTaskId(invocation.getArgument(0));
+            return null;
+        }).when(taskService).save(newTask);
+
+        ResponseEntity<Map<String, Object>> response = taskController.createTask(newTask);
+
+        assertEquals(1, response.getBody().get("id"));
+    }
+
+    @Test
+    void testGetTaskRow() throws Exception {
+        Task task = new Task("Task 1", Status.DONE);
+        setTaskId(task);
+        when(taskService.findById(1)).thenReturn(Optional.of(task));
+
+        String result = taskController.getTaskRow(1, model);
+
+        assertEquals("tasks :: row", result);
+        verify(model).addAttribute("tasks", List.of(task));
+    }
+
+    @Test
+    void testGetTaskRowNotFound() {
+        when(taskService.findById(1)).thenReturn(Optional.empty());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> taskController.getTaskRow(1, model));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
+    @Test
+    void testGetPager() {
+        when(taskService.count()).thenReturn(21L);
+
+        String result = taskController.getPager(1, 10, model);
+
+        assertEquals("tasks :: pager", result);
+        verify(model).addAttribute("pageNumber", 1);
+        verify(model).addAttribute("totalPages", 3);
+        verify(model).addAttribute("totalTasks", 21L);
+        verify(model).addAttribute("pageSize", 10);
+        verify(taskService, never()).findAll(anyInt(), anyInt());
+    }
+
+    @Test
+    void testStreamEvents() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        taskController.streamEvents(12L, request, new MockHttpServletResponse());
+
+        verify(taskEventBroadcaster).connect(request, 12L);
+    }
+
+    @Test
+    void testGetPagerRejectsInvalidSize() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> taskController.getPager(0, 0, model));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void testCreateTasksInBatch() {
+        List<Task> tasks = List.of(new Task("Task 1", Status.IN_PROGRESS), new Task("Task 2", Status.DONE));
+        List<TaskBatchResult> results = List.of(
+                TaskBatchResult.success(0, 1, BatchOutcome.CREATED),
+                TaskBatchResult.success(1, 2, BatchOutcome.CREATED)
+        );
+        when(taskService.createAll(tasks)).thenReturn(results);
+
+        ResponseEntity<List<TaskBatchResult>> response = taskController.createTasks(tasks);
+
+        assertEquals(ResponseEntity.ok(results), response);
+    }
+
+    @Test
+    void testDeleteTasksInBatch() {
+        List<TaskBatchResult> results = List.of(TaskBatchResult.failure(0, 7, BatchOutcome.NOT_FOUND, "Task not found"));
+        when(taskService.deleteAll(List.of(7))).thenReturn(results);
+
+        ResponseEntity<List<TaskBatchResult>> response = taskController.deleteTasks(List.of(7));
+
+        assertEquals(ResponseEntity.ok(results), response);
+    }
+
+    @Test
+    void testGetAllTasksNotModified() {
+        List<Task> tasks = List.of(new Task("Task 1", Status.IN_PROGRESS));
+        when(taskService.findAll(anyInt(), anyInt())).thenReturn(new PageImpl<>(tasks));
+
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        taskController.getAllTasks(0, 10, null, null, model,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/tasks"), firstResponse));
+        String eTag = firstResponse.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String result = taskController.getAllTasks(0, 10, null, null, model, new ServletWebRequest(request, response));
+
+        assertTrue(eTag.startsWith("W/"));
+        assertNull(result);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    }
+
+    @Test
+    void testGetTask() throws Exception {
+        Task task = new Task("Task 1", Status.DONE);
+        setTaskId(task);
+        ReflectionTestUtils.setField(task, "version", 3);
+        when(taskService.findById(1)).thenReturn(Optional.of(task));
+
+        ResponseEntity<Task> response = taskController.getTask(1);
+
+        assertEquals(task, response.getBody());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testSearchTasks() {
+        List<TaskSearchHit> hits = List.of(new TaskSearchHit(1, "Write report", Status.DONE, 0, 2.5));
+        when(taskSearchService.search("report", 0, 20)).thenReturn(new SliceImpl<>(hits, PageRequest.of(0, 20), false));
+
+        ResponseEntity<Map<String, Object>> response = taskController.searchTasks("report", 0, 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(hits, response.getBody().get("content"));
+        assertEquals(false, response.getBody().get("hasNext"));
+    }
+
+    @Test
+    void testSearchTasksWithInvalidQuery() {
+        when(taskSearchService.search(" ", 0, 20)).thenThrow(new IllegalArgumentException("Search query is required"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, taskController.searchTasks(" ", 0, 20).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, taskController.searchTasks("report", -1, 20).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, taskController.searchTasks("x".repeat(101), 0, 20).getStatusCode());
+    }
+
+    @Test
+    void testUpdateTaskWithMatchingETag() {
+        when(taskService.update(1, "Updated Task", Status.DONE, 3)).thenReturn(true);
+
+        ResponseEntity<Void> response = taskController.updateTask(1, new Task("Updated Task", Status.DONE), "\"3\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testUpdateTaskWithStaleETag() {
+        when(taskService.update(1, "Updated Task", Status.DONE, 2))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        ResponseEntity<Void> response = taskController.updateTask(1, new Task("Updated Task", Status.DONE), "\"2\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    void testDeleteTaskWithStaleETag() {
+        when(taskService.deleteById(1, 2)).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        ResponseEntity<Void> response = taskController.deleteTask(1, "\"2\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    void testDeleteTaskWithWeakETag() {
+        ResponseEntity<Void> response = taskController.deleteTask(1, "W/\"2\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(taskService, never()).deleteById(anyInt(), any());
+    }
+
+    private ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/tasks"), new MockHttpServletResponse());
+    }
+
     private void setTaskId(Task task) throws Exception {
         Field idField = Task.class.getDeclaredField("id");
         idField.setAccessible(true);
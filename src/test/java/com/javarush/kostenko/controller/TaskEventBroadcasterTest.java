@@ -0,0 +1,160 @@
+package com.javarush.kostenko.controller;
+
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TaskEventBroadcasterTest {
+
+    @Mock
+    TaskChangeFeed taskChangeFeed;
+
+    @Mock
+    TaskChangeFeed.Subscription subscription;
+
+    SimpleMeterRegistry meterRegistry;
+
+    TaskEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(taskChangeFeed.subscribe(isNull(), any())).thenReturn(subscription);
+        when(subscription.getSeq()).thenReturn(10L);
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new TaskEventBroadcaster(taskChangeFeed, meterRegistry, 2, 4);
+    }
+
+    @Test
+    void testBroadcastsChangesToAllStreams() throws IOException {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        broadcaster.register(connection(first), null);
+        broadcaster.register(connection(second), null);
+
+        broadcaster.broadcast(List.of(change(11, ChangeType.CREATED), change(12, ChangeType.DELETED)));
+
+        verify(taskChangeFeed, times(1)).subscribe(isNull(), any());
+        assertEquals(2, broadcaster.getSubscriberCount());
+        assertEquals(2, meterRegistry.get(TaskEventBroadcaster.SUBSCRIBERS_METRIC).gauge().value());
+        for (ByteArrayOutputStream out : List.of(first, second)) {
+            String events = out.toString(StandardCharsets.UTF_8);
+            assertTrue(events.contains("id:11\nevent:change\ndata:{\"seq\":11,\"taskId\":1,\"type\":\"CREATED\""), events);
+            assertTrue(events.indexOf("id:12\n") > events.indexOf("id:11\n"), events);
+        }
+    }
+
+    @Test
+    void testReplaysChangesAfterLastEventId() throws IOException {
+        broadcaster.register(connection(new ByteArrayOutputStream()), null);
+        broadcaster.broadcast(List.of(change(11, ChangeType.CREATED), change(12, ChangeType.UPDATED)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        broadcaster.register(connection(out), 11L);
+
+        String events = out.toString(StandardCharsets.UTF_8);
+        assertFalse(events.contains("id:11\n"), events);
+        assertTrue(events.contains("id:12\n"), events);
+    }
+
+    @Test
+    void testResetsClientThatMissedMoreThanTheReplay() throws IOException {
+        broadcaster.register(connection(new ByteArrayOutputStream()), null);
+        broadcaster.broadcast(List.of(change(11, ChangeType.CREATED), change(12, ChangeType.UPDATED),
+                change(13, ChangeType.DELETED)));
+        ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        ByteArrayOutputStream reset = new ByteArrayOutputStream();
+
+        broadcaster.register(connection(resumed), 11L);
+        broadcaster.register(connection(reset), 10L);
+
+        assertTrue(resumed.toString(StandardCharsets.UTF_8).contains("id:13\n"));
+        assertTrue(reset.toString(StandardCharsets.UTF_8).contains("event:reset\n"));
+        assertFalse(reset.toString(StandardCharsets.UTF_8).contains("event:change\n"));
+    }
+
+    @Test
+    void testDropsStreamFallingBehind() throws IOException {
+        ServletOutputStream blocked = mock(ServletOutputStream.class);
+        SseConnection slow = new SseConnection(mock(AsyncContext.class), blocked, 4);
+        ByteArrayOutputStream fast = new ByteArrayOutputStream();
+        broadcaster.register(slow, null);
+        broadcaster.register(connection(fast), null);
+
+        for (int seq = 11; seq <= 15; seq++) {
+            broadcaster.broadcast(List.of(change(seq, ChangeType.UPDATED)));
+        }
+
+        assertFalse(slow.isOpen());
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(1, meterRegistry.get(TaskEventBroadcaster.DROPPED_METRIC).counter().count());
+        assertTrue(fast.toString(StandardCharsets.UTF_8).contains("id:15\n"));
+    }
+
+    @Test
+    void testHeartbeatUnsubscribesWithoutStreams() throws IOException {
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        SseConnection connection = new SseConnection(asyncContext, SseConnectionTest.writableStream(), 4);
+        broadcaster.register(connection, null);
+
+        broadcaster.heartbeat();
+        verify(subscription, never()).cancel();
+
+        connection.close();
+        broadcaster.heartbeat();
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+        verify(subscription).cancel();
+    }
+
+    @Test
+    void testFeedListenerBroadcasts() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        broadcaster.register(connection(out), null);
+        ArgumentCaptor<Consumer<List<TaskChange>>> listener = ArgumentCaptor.captor();
+        verify(taskChangeFeed).subscribe(isNull(), listener.capture());
+
+        listener.getValue().accept(List.of(change(11, ChangeType.CREATED)));
+
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("id:11\n"));
+    }
+
+    /**
+     * Creates a connection whose writes go to the given buffer without blocking.
+     */
+    private static SseConnection connection(ByteArrayOutputStream buffer) throws IOException {
+        ServletOutputStream out = SseConnectionTest.writableStream();
+        doAnswer(invocation -> {
+            buffer.writeBytes(invocation.getArgument(0));
+            return null;
+        }).when(out).write(any(byte[].class));
+        return new SseConnection(mock(AsyncContext.class), out, 4);
+    }
+
+    private static TaskChange change(long seq, ChangeType type) {
+        return new TaskChange(seq, 1, type, "Write report", Status.DONE, 2, Instant.parse("2026-01-02T03:04:05Z"));
+    }
+}
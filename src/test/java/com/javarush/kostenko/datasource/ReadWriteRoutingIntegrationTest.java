@@ -0,0 +1,229 @@
+package com.javarush.kostenko.datasource;
+
+import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica.
+ * Replication is simulated by copying the primary to the replica with replicate().
+ */
+class ReadWriteRoutingIntegrationTest {
+
+    private static final long MAX_LAG_MS = 100;
+
+    private static AnnotationConfigApplicationContext context;
+    private static TaskRepository taskRepository;
+    private static ReplicaSet replicaSet;
+    private static MeterRegistry meterRegistry;
+    private static JdbcTemplate primary;
+    private static JdbcTemplate replica;
+    private static TransactionTemplate writes;
+    private static TransactionTemplate reads;
+
+    @BeforeAll
+    static void startContext() {
+        context = new AnnotationConfigApplicationContext(RoutingConfig.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        replicaSet = context.getBean(ReplicaSet.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        primary = new JdbcTemplate(replicaSet.getPrimary());
+        replica = new JdbcTemplate(replicaSet.getReplicas().get("replica-1"));
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary.update("delete from task");
+        primary.update("delete from task_change");
+        replicate();
+        replicaSet.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.end();
+    }
+
+    @Test
+    void testReadOnlyTransactionsReadFromReplica() {
+        Integer id = save("Write report");
+        double replicaConnections = connections("replica-1");
+
+        assertEquals(1, primary.queryForObject("select count(*) from task", Integer.class));
+        assertFalse(reads.execute(status -> taskRepository.findById(id)).isPresent());
+        assertFalse(taskRepository.findById(id).isPresent());
+
+        replicate();
+
+        assertEquals("Write report", reads.execute(status -> taskRepository.findById(id)).orElseThrow()
+                .getDescription());
+        assertEquals(replicaConnections + 3, connections("replica-1"));
+    }
+
+    @Test
+    void testRequestReadsItsOwnWrites() {
+        ReadYourWrites.begin(false);
+        assertFalse(ReadYourWrites.isPinned());
+
+        Integer id = save("Write report");
+
+        assertTrue(ReadYourWrites.isPinned());
+        assertTrue(reads.execute(status -> taskRepository.findById(id)).isPresent());
+    }
+
+    @Test
+    void testPinnedRequestReadsFromPrimary() {
+        Integer id = save("Write report");
+
+        ReadYourWrites.begin(true);
+
+        assertTrue(reads.execute(status -> taskRepository.findById(id)).isPresent());
+    }
+
+    @Test
+    void testLaggingReplicaIsEjectedUntilItCatchesUp() throws InterruptedException {
+        Integer id = save("Write report");
+        primary.update("insert into task_change (seq, task_id, type, recorded_at) values (1, ?, 0, current_timestamp)",
+                id);
+        replicaSet.check();
+        assertEquals(1.0, gauge(ReplicaSet.HEALTHY_METRIC));
+
+        Thread.sleep(MAX_LAG_MS * 2);
+        replicaSet.check();
+
+        assertTrue(gauge(ReplicaSet.LAG_METRIC) > MAX_LAG_MS);
+        assertEquals(0.0, gauge(ReplicaSet.HEALTHY_METRIC));
+        assertTrue(reads.execute(status -> taskRepository.findById(id)).isPresent());
+
+        replicate();
+        replicaSet.check();
+
+        assertEquals(0.0, gauge(ReplicaSet.LAG_METRIC));
+        assertEquals(1.0, gauge(ReplicaSet.HEALTHY_METRIC));
+        assertEquals(Optional.of("replica-1"), replicaSet.next());
+    }
+
+    @Test
+    void testUnreachableReplicaIsEjected() {
+        Integer id = save("Write report");
+        replica.execute("drop all objects");
+
+        replicaSet.check();
+
+        assertEquals(-1.0, gauge(ReplicaSet.LAG_METRIC));
+        assertEquals(0.0, gauge(ReplicaSet.HEALTHY_METRIC));
+        assertTrue(reads.execute(status -> taskRepository.findById(id)).isPresent());
+    }
+
+    private static Integer save(String description) {
+        return writes.execute(status -> taskRepository.save(new Task(description, Status.IN_PROGRESS)).getId());
+    }
+
+    /**
+     * Replaces the replica with a copy of the primary.
+     */
+    private static void replicate() {
+        List<String> script = primary.queryForList("script nodata", String.class);
+        List<Map<String, Object>> tasks = primary.queryForList("select * from task");
+        List<Map<String, Object>> changes = primary.queryForList("select seq from task_change");
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+        tasks.forEach(task -> replica.update("insert into task (id, description, status, version) values (?, ?, ?, ?)",
+                task.get("ID"), task.get("DESCRIPTION"), task.get("STATUS"), task.get("VERSION")));
+        changes.forEach(change -> replica.update(
+                "insert into task_change (seq, task_id, type, recorded_at) values (?, 0, 0, current_timestamp)",
+                change.get("SEQ")));
+    }
+
+    private static double connections(String target) {
+        return meterRegistry.get(ReadWriteRoutingDataSource.CONNECTIONS_METRIC).tag("target", target).counter()
+                .count();
+    }
+
+    private static double gauge(String name) {
+        return meterRegistry.get(name).tag("replica", "replica-1").gauge().value();
+    }
+
+    /**
+     * Registered directly instead of being annotated with @Configuration,
+     * so the component scan of AppConfig does not pick these beans up from the test classpath.
+     */
+    @EnableJpaRepositories(basePackages = "com.javarush.kostenko.dao")
+    static class RoutingConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ReplicaSet replicaSet(MeterRegistry meterRegistry) {
+            return new ReplicaSet(database("routing-primary"), Map.of("replica-1", database("routing-replica")),
+                    MAX_LAG_MS, meterRegistry);
+        }
+
+        @Bean
+        DataSource dataSource(ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+            return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(replicaSet, meterRegistry));
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setPackagesToScan("com.javarush.kostenko.domain.entity");
+            factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+
+            Properties jpaProperties = new Properties();
+            jpaProperties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+            jpaProperties.setProperty("hibernate.cache.use_second_level_cache", "false");
+            factoryBean.setJpaProperties(jpaProperties);
+            return factoryBean;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        private static DataSource database(String name) {
+            return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.javarush.kostenko.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesInterceptorTest {
+
+    private final ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(5000);
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.end();
+    }
+
+    @Test
+    void testWritePinsRequestAndSetsCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long before = System.currentTimeMillis();
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/tasks"), response, null));
+
+        assertTrue(ReadYourWrites.isPinned());
+        Cookie cookie = response.getCookie(ReadYourWritesInterceptor.COOKIE);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) >= before + 5000);
+        assertEquals(5, cookie.getMaxAge());
+        assertEquals("/", cookie.getPath());
+        assertTrue(cookie.isHttpOnly());
+    }
+
+    @Test
+    void testReadAfterRecentWriteIsPinned() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE,
+                String.valueOf(System.currentTimeMillis() + 1000)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+
+        assertTrue(ReadYourWrites.isPinned());
+        assertNull(response.getCookie(ReadYourWritesInterceptor.COOKIE));
+    }
+
+    @Test
+    void testReadWithoutRecentWriteIsNotPinned() {
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/tasks");
+        expired.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE,
+                String.valueOf(System.currentTimeMillis() - 1)));
+        MockHttpServletRequest invalid = new MockHttpServletRequest("GET", "/tasks");
+        invalid.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE, "soon"));
+
+        for (MockHttpServletRequest request : new MockHttpServletRequest[]{
+                new MockHttpServletRequest("GET", "/tasks"), expired, invalid}) {
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+            assertFalse(ReadYourWrites.isPinned());
+
+            ReadYourWrites.onWrite();
+            assertTrue(ReadYourWrites.isPinned());
+        }
+    }
+
+    @Test
+    void testCompletionStopsTracking() {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/tasks/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertFalse(ReadYourWrites.isPinned());
+        ReadYourWrites.onWrite();
+        assertFalse(ReadYourWrites.isPinned());
+    }
+}
@@ -0,0 +1,99 @@
+package com.javarush.kostenko.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases with only the change outbox stand in for the primary and a replica.
+ */
+class ReplicaSetTest {
+
+    private static final long MAX_LAG_MS = 60_000;
+
+    private DataSource primaryDataSource;
+    private DataSource replicaDataSource;
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        primaryDataSource = database("replica-set-primary");
+        replicaDataSource = database("replica-set-replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.execute("drop all objects");
+        replica.execute("drop all objects");
+    }
+
+    @Test
+    void testReplicaBehindAtStartupIsEjectedUntilItCatchesUp() {
+        record(primary, 1, 2, 3);
+        record(replica, 1);
+
+        ReplicaSet replicaSet = newReplicaSet();
+
+        assertEquals(Optional.empty(), replicaSet.next());
+        assertEquals(0.0, gauge(ReplicaSet.HEALTHY_METRIC));
+        assertTrue(gauge(ReplicaSet.LAG_METRIC) > MAX_LAG_MS);
+
+        record(replica, 2, 3);
+        replicaSet.check();
+
+        assertEquals(Optional.of("replica-1"), replicaSet.next());
+        assertEquals(0.0, gauge(ReplicaSet.LAG_METRIC));
+    }
+
+    @Test
+    void testReplicaUpToDateAtStartupServesReads() {
+        record(primary, 1, 2);
+        record(replica, 1, 2);
+
+        ReplicaSet replicaSet = newReplicaSet();
+
+        assertEquals(Optional.of("replica-1"), replicaSet.next());
+        assertEquals(1.0, gauge(ReplicaSet.HEALTHY_METRIC));
+
+        record(primary, 3);
+        replicaSet.check();
+
+        assertEquals(Optional.of("replica-1"), replicaSet.next());
+        assertTrue(gauge(ReplicaSet.LAG_METRIC) <= MAX_LAG_MS);
+    }
+
+    private ReplicaSet newReplicaSet() {
+        return new ReplicaSet(primaryDataSource, Map.of("replica-1", replicaDataSource), MAX_LAG_MS, meterRegistry);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("create table if not exists task_change (seq bigint primary key)");
+        return dataSource;
+    }
+
+    private static void record(JdbcTemplate database, long... seqs) {
+        for (long seq : seqs) {
+            database.update("insert into task_change (seq) values (?)", seq);
+        }
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("replica", "replica-1").gauge().value();
+    }
+}
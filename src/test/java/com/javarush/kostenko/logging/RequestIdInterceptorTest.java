@@ -0,0 +1,69 @@
+package com.javarush.kostenko.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestIdInterceptorTest {
+
+    private final RequestIdInterceptor interceptor = new RequestIdInterceptor();
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void testUsesRequestIdFromHeader() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.addHeader(RequestIdInterceptor.HEADER, "abc-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+
+        assertEquals("abc-123", MDC.get(RequestIdInterceptor.MDC_KEY));
+        assertEquals("abc-123", response.getHeader(RequestIdInterceptor.HEADER));
+    }
+
+    @Test
+    void testGeneratesRequestIdForMissingOrInvalidHeader() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.addHeader(RequestIdInterceptor.HEADER, "bad id\r\nX-Injected: 1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+
+        String requestId = MDC.get(RequestIdInterceptor.MDC_KEY);
+        assertTrue(requestId.matches("[0-9a-f]{16}"));
+        assertEquals(requestId, response.getHeader(RequestIdInterceptor.HEADER));
+    }
+
+    @Test
+    void testRemovesRequestIdAfterCompletion() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertNull(MDC.get(RequestIdInterceptor.MDC_KEY));
+    }
+
+    @Test
+    void testKeepsRequestIdAcrossAsyncDispatches() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/changes/stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        String requestId = MDC.get(RequestIdInterceptor.MDC_KEY);
+        interceptor.afterConcurrentHandlingStarted(request, response, new Object());
+        assertNull(MDC.get(RequestIdInterceptor.MDC_KEY));
+
+        interceptor.preHandle(request, response, new Object());
+        assertEquals(requestId, MDC.get(RequestIdInterceptor.MDC_KEY));
+    }
+}
@@ -0,0 +1,76 @@
+package com.javarush.kostenko.metrics;
+
+import com.javarush.kostenko.config.MetricsConfig;
+import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import com.javarush.kostenko.service.TaskService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {TestServiceConfig.class, MetricsConfig.class})
+class MetricsIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    private final List<Integer> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        createdIds.forEach(taskService::deleteById);
+    }
+
+    @Test
+    void testTimesServiceMethodsAndCountsRepositoryStatements() {
+        Task task = new Task("Measured task", Status.IN_PROGRESS);
+        taskService.save(task);
+        createdIds.add(task.getId());
+
+        taskService.findAll(0, 10);
+        taskService.findAll(0, 10);
+
+        assertEquals(2, meterRegistry.get("tasks.service").tag("method", "findAll").timer().count());
+        assertEquals(1, meterRegistry.get("tasks.service").tag("method", "save").timer().count());
+        assertEquals(2, meterRegistry.get(RepositoryMetricsAspect.CALLS_METRIC).tag("method", "findAllBy").timer().count());
+
+        DistributionSummary queries = meterRegistry.get(RepositoryMetricsAspect.QUERIES_METRIC)
+                .tag("method", "findAllBy")
+                .summary();
+        assertEquals(2, queries.count());
+        // The second call is answered from the query cache without running a statement.
+        assertEquals(1, queries.totalAmount());
+    }
+
+    @Test
+    void testPublishesHibernateStatisticsForScraping() {
+        taskService.findById(Integer.MAX_VALUE);
+
+        assertNotNull(meterRegistry.find("hibernate.statements").functionCounter());
+
+        String scrape = prometheusMeterRegistry.scrape();
+        assertTrue(scrape.contains("tasks_service_seconds_count"));
+        assertTrue(scrape.contains("tasks_repository_queries"));
+        assertTrue(scrape.contains("hibernate_statements_total"));
+        assertTrue(scrape.contains("application=\"task-panel\""));
+    }
+}
@@ -0,0 +1,100 @@
+package com.javarush.kostenko.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestMetricsInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestMetricsInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new RequestMetricsInterceptor(meterRegistry);
+    }
+
+    @Test
+    void testRecordsRequestByUriPattern() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/42");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tasks/{id}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        execute("select 1");
+        execute("select 2");
+        response.setStatus(404);
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        Timer timer = meterRegistry.get(RequestMetricsInterceptor.REQUESTS_METRIC)
+                .tags("method", "GET", "uri", "/tasks/{id}", "status", "404", "outcome", "CLIENT_ERROR",
+                        "exception", "none")
+                .timer();
+        assertEquals(1, timer.count());
+
+        DistributionSummary queries = meterRegistry.get(RequestMetricsInterceptor.QUERIES_METRIC)
+                .tags("method", "GET", "uri", "/tasks/{id}")
+                .summary();
+        assertEquals(2, queries.totalAmount());
+    }
+
+    @Test
+    void testRecordsUnhandledExceptionAsServerError() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/tasks/edit/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tasks/edit/{id}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        interceptor.afterCompletion(request, response, new Object(), new IllegalStateException("Boom"));
+
+        Timer timer = meterRegistry.get(RequestMetricsInterceptor.REQUESTS_METRIC)
+                .tags("status", "500", "outcome", "SERVER_ERROR", "exception", "IllegalStateException")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void testRecordsAsyncRequestOnceWithStatementsOfBothDispatches() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/changes/stream");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tasks/changes/stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        execute("select 1");
+        interceptor.afterConcurrentHandlingStarted(request, response, new Object());
+        execute("select 2");
+        execute("select 3");
+        interceptor.preHandle(request, response, new Object());
+        execute("select 4");
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertEquals(1, meterRegistry.get(RequestMetricsInterceptor.REQUESTS_METRIC).timer().count());
+        assertEquals(2, meterRegistry.get(RequestMetricsInterceptor.QUERIES_METRIC).summary().totalAmount());
+    }
+
+    @Test
+    void testIgnoresRequestsNotStartedByInterceptor() {
+        interceptor.afterCompletion(new MockHttpServletRequest(), new MockHttpServletResponse(), new Object(), null);
+
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    /**
+     * Reports a statement to the SQL statistics, as the proxied DataSource does after executing it.
+     */
+    private static void execute(String sql) {
+        new SqlStatistics(1000, 10).afterQuery(new ExecutionInfo(), List.of(new QueryInfo(sql)));
+    }
+}
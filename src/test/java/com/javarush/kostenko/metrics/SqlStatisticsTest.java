@@ -0,0 +1,106 @@
+package com.javarush.kostenko.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatisticsTest {
+
+    @Test
+    void testShapeCollapsesWhitespaceAndInLists() {
+        assertEquals("select * from task where id in (?...) and status=?",
+                SqlStatistics.shape("  select *\n  from task where id in (?, ?,?) and status=? "));
+        assertEquals(SqlStatistics.shape("delete from task where id in (?,?)"),
+                SqlStatistics.shape("delete from task where id in (?,?,?,?,?)"));
+    }
+
+    @Test
+    void testAggregatesExecutionsPerShape() throws SQLException {
+        SqlStatistics statistics = new SqlStatistics(0, 100);
+        DataSource dataSource = proxy(statistics, "stats");
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table item (id int primary key, name varchar(32))");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("insert into item values (?, ?)")) {
+                for (int i = 1; i <= 3; i++) {
+                    insert.setInt(1, i);
+                    insert.setString(2, "item " + i);
+                    insert.executeUpdate();
+                }
+            }
+        }
+
+        SqlStatistics.ShapeSnapshot inserts = statistics.getStatistics().stream()
+                .filter(snapshot -> snapshot.sql().equals("insert into item values (?...)"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3, inserts.count());
+        assertEquals(3, inserts.slowCount());
+        assertTrue(inserts.maxMillis() > 0);
+        assertTrue(inserts.totalMillis() >= inserts.maxMillis());
+    }
+
+    @Test
+    void testCountsStatementsOfCurrentThreadWithEveryBatchedRow() throws SQLException {
+        DataSource dataSource = proxy(new SqlStatistics(1000, 100), "thread");
+        long before = SqlStatistics.threadStatementCount();
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table item (id int primary key)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("insert into item values (?)")) {
+                for (int i = 1; i <= 3; i++) {
+                    insert.setInt(1, i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+
+        assertEquals(4, SqlStatistics.threadStatementCount() - before);
+    }
+
+    @Test
+    void testCountsShapesBeyondLimitAsOther() throws SQLException {
+        SqlStatistics statistics = new SqlStatistics(1000, 2);
+        DataSource dataSource = proxy(statistics, "limit");
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("select 1");
+            statement.execute("select 2");
+            statement.execute("select 3");
+            statement.execute("select 4");
+        }
+
+        List<SqlStatistics.ShapeSnapshot> snapshots = statistics.getStatistics();
+        assertEquals(3, snapshots.size());
+        SqlStatistics.ShapeSnapshot other = snapshots.stream()
+                .filter(snapshot -> snapshot.sql().equals(SqlStatistics.OTHER_SHAPE))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, other.count());
+        assertEquals(0, other.slowCount());
+
+        statistics.reset();
+        assertTrue(statistics.getStatistics().isEmpty());
+    }
+
+    private static DataSource proxy(SqlStatistics statistics, String database) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+        return ProxyDataSourceBuilder.create(h2).listener(statistics).build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestServiceConfig.class)
+class CacheStatisticsServiceIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Task task;
+    private Task other;
+
+    @AfterEach
+    void tearDown() {
+        for (Task created : new Task[] {task, other}) {
+            if (created != null) {
+                taskService.deleteById(created.getId());
+            }
+        }
+    }
+
+    @Test
+    void testFindByIdIsServedFromCache() {
+        task = new Task("Cached Task", Status.IN_PROGRESS);
+        taskService.save(task);
+        cacheStatisticsService.evictAll();
+
+        long hitsBefore = secondLevelCacheHits();
+        taskService.findById(task.getId());
+        taskService.findById(task.getId());
+
+        assertTrue(secondLevelCacheHits() > hitsBefore);
+    }
+
+    @Test
+    void testUpdateIsVisibleThroughCache() {
+        task = new Task("Cached Task", Status.IN_PROGRESS);
+        taskService.save(task);
+        taskService.findById(task.getId());
+
+        task.setDescription("Updated Task");
+        taskService.save(task);
+
+        assertEquals("Updated Task", taskService.findById(task.getId()).orElseThrow().getDescription());
+    }
+
+    @Test
+    void testSingleTaskWritesKeepOtherTasksCached() {
+        task = new Task("Cached Task", Status.IN_PROGRESS);
+        other = new Task("Other Task", Status.IN_PROGRESS);
+        taskService.save(task);
+        taskService.save(other);
+        cacheStatisticsService.evictAll();
+        taskService.findById(task.getId());
+        taskService.findById(other.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Cache cache = entityManagerFactory.getCache();
+        assertTrue(taskService.update(task.getId(), "Updated Task", Status.DONE, 0));
+        taskService.update(task.getId(), "Updated again", Status.PAUSED);
+
+        assertFalse(cache.contains(Task.class, task.getId()));
+        assertTrue(cache.contains(Task.class, other.getId()));
+        long missesBefore = statistics.getSecondLevelCacheMissCount();
+        assertTrue(taskService.findById(other.getId()).isPresent());
+        assertEquals(missesBefore, statistics.getSecondLevelCacheMissCount());
+        assertEquals("Updated again", taskService.findById(task.getId()).orElseThrow().getDescription());
+        assertEquals(2, taskService.findById(task.getId()).orElseThrow().getVersion());
+
+        assertTrue(taskService.deleteById(task.getId(), 2));
+        task = null;
+        assertTrue(cache.contains(Task.class, other.getId()));
+    }
+
+    @Test
+    void testSeekQueriesAreServedFromQueryCache() {
+        task = new Task("Cached Task", Status.IN_PROGRESS);
+        other = new Task("Other Task", Status.IN_PROGRESS);
+        taskService.save(task);
+        taskService.save(other);
+        taskService.findAfter(task.getId() - 1, 2);
+        taskService.findBefore(other.getId() + 1, 2);
+
+        long hitsBefore = queryCacheHits();
+        assertEquals(2, taskService.findAfter(task.getId() - 1, 2).getContent().size());
+        assertEquals(2, taskService.findBefore(other.getId() + 1, 2).getContent().size());
+
+        assertEquals(hitsBefore + 2, queryCacheHits());
+    }
+
+    @Test
+    void testStatisticsContainTaskRegion() {
+        Map<String, Object> statistics = cacheStatisticsService.getStatistics();
+
+        Map<?, ?> regions = (Map<?, ?>) statistics.get("regions");
+        assertTrue(regions.containsKey(Task.class.getName()));
+        assertNotNull(((Map<?, ?>) regions.get(Task.class.getName())).get("evictions"));
+    }
+
+    private long queryCacheHits() {
+        return (Long) cacheStatisticsService.getStatistics().get("queryCacheHits");
+    }
+
+    private long secondLevelCacheHits() {
+        return (Long) cacheStatisticsService.getStatistics().get("secondLevelCacheHits");
+    }
+}
@@ -0,0 +1,53 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.domain.enums.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestServiceConfig.class)
+class SequenceInitializerIntegrationTest {
+
+    private static final int EXISTING_ID = 100_000;
+    private static final int TASK_SEQ_ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private SequenceInitializer sequenceInitializer;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("insert into task (id, description, status, version) values (?, ?, ?, 0)",
+                EXISTING_ID, "Inserted without the sequence", Status.DONE.ordinal());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from task where id = ?", EXISTING_ID);
+    }
+
+    @Test
+    void testSequenceIsRaisedAboveExistingIds() {
+        sequenceInitializer.afterPropertiesSet();
+
+        long next = jdbcTemplate.queryForObject("select next value for task_seq", Long.class);
+        long firstIdOfBlock = next - TASK_SEQ_ALLOCATION_SIZE + 1;
+        assertTrue(firstIdOfBlock > EXISTING_ID, "next block starts at " + firstIdOfBlock);
+    }
+}
@@ -0,0 +1,99 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TaskChangeFeedTest {
+
+    @Mock
+    TaskChangeService taskChangeService;
+
+    TaskChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        feed = new TaskChangeFeed(taskChangeService, 100);
+    }
+
+    @Test
+    void testDoesNotReadWithoutSubscribers() {
+        feed.poll();
+
+        verifyNoInteractions(taskChangeService);
+    }
+
+    @Test
+    void testDeliversNewChangesToAllSubscribersWithOneQuery() {
+        when(taskChangeService.findLastSeq()).thenReturn(10L);
+        List<TaskChange> first = new ArrayList<>();
+        List<TaskChange> second = new ArrayList<>();
+        feed.subscribe(null, first::addAll);
+        feed.subscribe(null, second::addAll);
+        when(taskChangeService.findSince(10, 100)).thenReturn(List.of(change(11), change(12)));
+
+        feed.poll();
+
+        assertEquals(List.of(change(11), change(12)), first);
+        assertEquals(first, second);
+        verify(taskChangeService, times(1)).findSince(anyLong(), anyInt());
+    }
+
+    @Test
+    void testSubscriberCatchesUpFromEarlierPosition() {
+        when(taskChangeService.findLastSeq()).thenReturn(10L);
+        List<TaskChange> live = new ArrayList<>();
+        List<TaskChange> resumed = new ArrayList<>();
+        feed.subscribe(null, live::addAll);
+        feed.subscribe(8L, resumed::addAll);
+        when(taskChangeService.findSince(10, 100)).thenReturn(List.of(change(11)));
+        when(taskChangeService.findSince(8, 100)).thenReturn(List.of(change(9), change(10), change(11)));
+
+        feed.poll();
+
+        assertEquals(List.of(change(11)), live);
+        assertEquals(List.of(change(9), change(10), change(11)), resumed);
+
+        when(taskChangeService.findSince(11, 100)).thenReturn(List.of(change(12)));
+        feed.poll();
+
+        assertEquals(List.of(change(11), change(12)), live);
+        assertEquals(List.of(change(9), change(10), change(11), change(12)), resumed);
+        verify(taskChangeService, times(1)).findSince(8, 100);
+    }
+
+    @Test
+    void testFailingAndCancelledSubscribersAreRemoved() {
+        when(taskChangeService.findLastSeq()).thenReturn(0L);
+        Consumer<List<TaskChange>> failing = changes -> {
+            throw new IllegalStateException("Client disconnected");
+        };
+        feed.subscribe(null, failing);
+        TaskChangeFeed.Subscription cancelled = feed.subscribe(null, changes -> fail("Cancelled subscriber called"));
+        cancelled.cancel();
+        when(taskChangeService.findSince(0, 100)).thenReturn(List.of(change(1)));
+
+        feed.poll();
+
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    private static TaskChange change(long seq) {
+        return new TaskChange(seq, (int) seq, ChangeType.UPDATED, "Task " + seq, null, null, null);
+    }
+}
@@ -0,0 +1,177 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.dao.TaskChangeRepository;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import com.javarush.kostenko.domain.enums.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestServiceConfig.class)
+@Transactional
+class TaskChangeServiceIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskChangeService taskChangeService;
+
+    @Autowired
+    private TaskChangeRepository taskChangeRepository;
+
+    /**
+     * The last change recorded before the test; other tests sharing the database may have recorded changes.
+     */
+    private long startSeq;
+
+    @BeforeEach
+    void setUp() {
+        Long lastSeq = taskChangeRepository.findLastSeq();
+        startSeq = lastSeq == null ? 0 : lastSeq;
+    }
+
+    @Test
+    void testTaskWritesRecordChangesInOrder() {
+        Task task = new Task("Write report", Status.IN_PROGRESS);
+        taskService.save(task);
+        taskService.update(task.getId(), "Review report", Status.DONE, 0);
+        taskService.deleteById(task.getId());
+
+        List<TaskChange> changes = changes();
+
+        assertEquals(3, changes.size());
+        assertChange(changes.get(0), ChangeType.CREATED, task.getId(), "Write report", Status.IN_PROGRESS, 0);
+        assertChange(changes.get(1), ChangeType.UPDATED, task.getId(), "Review report", Status.DONE, 1);
+        assertChange(changes.get(2), ChangeType.DELETED, task.getId(), null, null, null);
+        assertTrue(changes.get(0).getSeq() < changes.get(1).getSeq());
+        assertTrue(changes.get(1).getSeq() < changes.get(2).getSeq());
+    }
+
+    @Test
+    void testBatchWritesRecordOneChangePerTask() {
+        Task first = new Task("Task 1", Status.IN_PROGRESS);
+        Task second = new Task("Task 2", Status.PAUSED);
+        taskService.createAll(List.of(first, second));
+        taskService.updateAll(List.of(new Task(first.getId(), "Task 1 updated", Status.DONE, null)));
+        taskService.deleteAll(List.of(second.getId(), -1));
+
+        List<TaskChange> changes = changes();
+
+        assertEquals(4, changes.size());
+        assertChange(changes.get(0), ChangeType.CREATED, first.getId(), "Task 1", Status.IN_PROGRESS, 0);
+        assertChange(changes.get(1), ChangeType.CREATED, second.getId(), "Task 2", Status.PAUSED, 0);
+        assertChange(changes.get(2), ChangeType.UPDATED, first.getId(), "Task 1 updated", Status.DONE, 1);
+        assertChange(changes.get(3), ChangeType.DELETED, second.getId(), null, null, null);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testRecordingRequiresTransaction() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> taskChangeService.record(TaskChange.deleted(1)));
+        assertThrows(IllegalTransactionStateException.class,
+                () -> taskChangeService.recordAll(List.of(TaskChange.deleted(1))));
+    }
+
+    @Test
+    void testReadersOnlySeeSettledChanges() {
+        Task task = new Task("Write report", Status.IN_PROGRESS);
+        taskService.save(task);
+        taskService.deleteById(task.getId());
+
+        assertTrue(taskChangeService.findSince(startSeq, 10).isEmpty());
+        assertTrue(taskChangeService.findLastSeq() < changes().get(0).getSeq());
+
+        TaskChangeService settled = new TaskChangeService(taskChangeRepository, 0, 168);
+        List<TaskChange> changes = settled.findSince(startSeq, 10);
+        assertEquals(2, changes.size());
+        assertEquals(changes.get(1).getSeq(), settled.findLastSeq());
+        assertEquals(changes.subList(1, 2), settled.findSince(changes.get(0).getSeq(), 10));
+        assertEquals(changes.subList(0, 1), settled.findSince(startSeq, 1));
+    }
+
+    @Test
+    void testReadersStopAtFirstUnsettledChange() {
+        // Settle the changes committed by other tests, which would stop the readers before this test's changes
+        taskChangeRepository.findAll().forEach(change -> change.setRecordedAt(Instant.now().minusSeconds(60)));
+        TaskChange unsettled = TaskChange.deleted(1);
+        unsettled.setRecordedAt(Instant.now());
+        TaskChange settled = TaskChange.deleted(2);
+        settled.setRecordedAt(Instant.now().minusSeconds(60));
+        taskChangeRepository.saveAll(List.of(unsettled, settled));
+        assertTrue(unsettled.getSeq() < settled.getSeq());
+
+        assertTrue(taskChangeService.findSince(startSeq, 10).isEmpty());
+        assertEquals(unsettled.getSeq() - 1, taskChangeService.findLastSeq());
+
+        unsettled.setRecordedAt(Instant.now().minusSeconds(60));
+        taskChangeRepository.flush();
+
+        assertEquals(List.of(unsettled, settled), taskChangeService.findSince(startSeq, 10));
+        assertEquals(settled.getSeq(), taskChangeService.findLastSeq());
+    }
+
+    @Test
+    void testPurgeDeletesChangesOlderThanRetentionButTheNewest() {
+        Task task = new Task("Write report", Status.IN_PROGRESS);
+        taskService.save(task);
+        taskService.deleteById(task.getId());
+
+        assertEquals(0, taskChangeService.purge());
+        assertTrue(new TaskChangeService(taskChangeRepository, 0, 0).purge() >= 1);
+        List<TaskChange> changes = changes();
+        assertEquals(1, changes.size());
+        assertEquals(ChangeType.DELETED, changes.get(0).getType());
+    }
+
+    @Test
+    void testReadersBeforeOldestRetainedChangeArePurged() {
+        Task task = new Task("Write report", Status.IN_PROGRESS);
+        taskService.save(task);
+        taskService.update(task.getId(), "Review report", Status.DONE);
+        taskService.deleteById(task.getId());
+        long createdSeq = changes().get(0).getSeq();
+        long deletedSeq = changes().get(2).getSeq();
+
+        assertFalse(taskChangeService.isPurgedAfter(createdSeq));
+        new TaskChangeService(taskChangeRepository, 0, 0).purge();
+
+        assertTrue(taskChangeService.isPurgedAfter(createdSeq));
+        assertFalse(taskChangeService.isPurgedAfter(deletedSeq - 1));
+        assertFalse(taskChangeService.isPurgedAfter(deletedSeq));
+        assertFalse(taskChangeService.isPurgedAfter(0));
+    }
+
+    private List<TaskChange> changes() {
+        return taskChangeRepository.findAll(Sort.by("seq")).stream()
+                .filter(change -> change.getSeq() > startSeq)
+                .toList();
+    }
+
+    private static void assertChange(TaskChange change, ChangeType type, Integer taskId, String description,
+                                     Status status, Integer version) {
+        assertEquals(type, change.getType());
+        assertEquals(taskId, change.getTaskId());
+        assertEquals(description, change.getDescription());
+        assertEquals(status, change.getStatus());
+        assertEquals(version, change.getVersion());
+        assertNotNull(change.getRecordedAt());
+    }
+}
@@ -0,0 +1,195 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.dto.StatusCount;
+import com.javarush.kostenko.domain.enums.Status;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TaskCountServiceTest {
+
+    static final List<StatusCount> COUNTS = List.of(
+            new StatusCount(Status.IN_PROGRESS, 3),
+            new StatusCount(Status.DONE, 2));
+
+    @Mock
+    TaskRepository taskRepository;
+
+    @InjectMocks
+    TaskCountService taskCountService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(taskRepository.countGroupedByStatus()).thenReturn(COUNTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testCountLoadsOnce() {
+        assertEquals(5, taskCountService.count());
+        assertEquals(5, taskCountService.count());
+
+        verify(taskRepository, times(1)).countGroupedByStatus();
+    }
+
+    @Test
+    void testCountByStatus() {
+        assertEquals(3, taskCountService.count(Status.IN_PROGRESS));
+        assertEquals(2, taskCountService.count(Status.DONE));
+        assertEquals(0, taskCountService.count(Status.PAUSED));
+        verify(taskRepository, times(1)).countGroupedByStatus();
+    }
+
+    @Test
+    void testOnInsertAndOnDeleteAdjustCounts() {
+        taskCountService.count();
+
+        taskCountService.onInsert(List.of(Status.PAUSED, Status.DONE));
+        taskCountService.onDelete(List.of(Status.IN_PROGRESS));
+
+        assertEquals(6, taskCountService.count());
+        assertEquals(2, taskCountService.count(Status.IN_PROGRESS));
+        assertEquals(3, taskCountService.count(Status.DONE));
+        assertEquals(1, taskCountService.count(Status.PAUSED));
+        verify(taskRepository, times(1)).countGroupedByStatus();
+    }
+
+    @Test
+    void testOnUpdateMovesTaskToItsNewStatus() {
+        taskCountService.count();
+
+        taskCountService.onUpdate(Status.IN_PROGRESS, Status.DONE);
+        taskCountService.onUpdate(Status.DONE, Status.DONE);
+
+        assertEquals(5, taskCountService.count());
+        assertEquals(2, taskCountService.count(Status.IN_PROGRESS));
+        assertEquals(3, taskCountService.count(Status.DONE));
+        verify(taskRepository, times(1)).countGroupedByStatus();
+    }
+
+    @Test
+    void testUnknownPreviousStatusResyncsStatusCounts() {
+        taskCountService.count();
+
+        taskCountService.onUpdate(null, Status.DONE);
+        taskCountService.count(Status.DONE);
+
+        verify(taskRepository, times(2)).countGroupedByStatus();
+    }
+
+    @Test
+    void testDeleteWithUnknownStatusAdjustsTotalAndResyncsStatusCounts() {
+        taskCountService.count();
+
+        taskCountService.onDelete(Arrays.asList((Status) null));
+
+        assertEquals(4, taskCountService.count());
+        verify(taskRepository, times(1)).countGroupedByStatus();
+        taskCountService.count(Status.DONE);
+        verify(taskRepository, times(2)).countGroupedByStatus();
+    }
+
+    @Test
+    void testChangesAreAppliedOnlyAfterCommit() {
+        taskCountService.count();
+        TransactionSynchronizationManager.initSynchronization();
+
+        taskCountService.onInsert(List.of(Status.DONE));
+        taskCountService.onDelete(List.of(Status.IN_PROGRESS, Status.IN_PROGRESS, Status.IN_PROGRESS));
+        taskCountService.onUpdate(Status.DONE, Status.PAUSED);
+        assertEquals(5, taskCountService.count());
+
+        commit();
+        assertEquals(3, taskCountService.count());
+        assertEquals(0, taskCountService.count(Status.IN_PROGRESS));
+        assertEquals(2, taskCountService.count(Status.DONE));
+        assertEquals(1, taskCountService.count(Status.PAUSED));
+    }
+
+    @Test
+    void testRolledBackChangesAreDiscarded() {
+        taskCountService.count();
+        TransactionSynchronizationManager.initSynchronization();
+
+        taskCountService.onInsert(List.of(Status.DONE));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertEquals(5, taskCountService.count());
+        assertEquals(2, taskCountService.count(Status.DONE));
+    }
+
+    @Test
+    void testResyncCountsAgainWhenWriteCommitsWhileCounting() {
+        taskCountService.count();
+        when(taskRepository.countGroupedByStatus()).thenAnswer(invocation -> {
+            // Committed after the count query read the table, so the count does not include it.
+            taskCountService.onInsert(List.of(Status.DONE));
+            return COUNTS;
+        }).thenReturn(List.of(
+                new StatusCount(Status.IN_PROGRESS, 3),
+                new StatusCount(Status.DONE, 3)));
+
+        taskCountService.resync();
+
+        assertEquals(6, taskCountService.count());
+        assertEquals(3, taskCountService.count(Status.DONE));
+        verify(taskRepository, times(3)).countGroupedByStatus();
+    }
+
+    @Test
+    void testResyncCountsAgainWhileWriteIsCommitting() {
+        taskCountService.count();
+        TransactionSynchronizationManager.initSynchronization();
+        taskCountService.onInsert(List.of(Status.DONE));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+
+        List<StatusCount> withCommit = List.of(
+                new StatusCount(Status.IN_PROGRESS, 3),
+                new StatusCount(Status.DONE, 3));
+        when(taskRepository.countGroupedByStatus()).thenReturn(withCommit).thenAnswer(invocation -> {
+            // The commit the first count already included completes.
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            return withCommit;
+        }).thenReturn(withCommit);
+
+        taskCountService.resync();
+
+        assertEquals(6, taskCountService.count());
+        assertEquals(3, taskCountService.count(Status.DONE));
+        verify(taskRepository, times(4)).countGroupedByStatus();
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
@@ -0,0 +1,135 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.config.RecordingStatementInspector;
+import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.domain.dto.TaskFilter;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.DescriptionMatch;
+import com.javarush.kostenko.domain.enums.Status;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that every supported task filter and sort order runs as an index scan and never as a full table scan,
+ * by explaining the SQL Hibernate generates for it.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestServiceConfig.class)
+@Transactional
+class TaskFilterQueryPlanIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        taskService.save(new Task("Write report", Status.IN_PROGRESS));
+        taskService.save(new Task("Write 100% tests", Status.DONE));
+        taskService.save(new Task("Review report", Status.DONE));
+        taskService.save(new Task("Read book", Status.PAUSED));
+    }
+
+    @Test
+    void testFilterByStatusUsesStatusIndex() {
+        Slice<?> slice = findViews(TaskFilter.byStatus(Status.DONE), Sort.by("id"));
+
+        assertEquals(2, slice.getNumberOfElements());
+        assertIndexRangeScan(plan(Status.DONE.ordinal()), "IDX_TASK_STATUS_ID");
+    }
+
+    @Test
+    void testFilterByDescriptionPrefixUsesDescriptionIndex() {
+        Slice<?> slice = findViews(new TaskFilter(null, "Write 100%", DescriptionMatch.PREFIX), Sort.by("description"));
+
+        assertEquals(1, slice.getNumberOfElements());
+        assertIndexRangeScan(plan("'Write 100!%%'"), "IDX_TASK_DESCRIPTION");
+    }
+
+    @Test
+    void testFilterByStatusAndDescriptionContainingUsesStatusIndex() {
+        Slice<?> slice = findViews(new TaskFilter(Status.DONE, "report", DescriptionMatch.CONTAINS), Sort.by("id"));
+
+        assertEquals(1, slice.getNumberOfElements());
+        assertIndexRangeScan(plan(Status.DONE.ordinal(), "'%report%'"), "IDX_TASK_STATUS_ID");
+    }
+
+    @Test
+    void testSortByDescriptionUsesDescriptionIndex() {
+        Slice<?> slice = findViews(new TaskFilter(null, null, DescriptionMatch.PREFIX),
+                Sort.by(Sort.Direction.DESC, "description"));
+
+        assertEquals(4, slice.getNumberOfElements());
+        assertIndexRangeScan(plan(), "IDX_TASK_DESCRIPTION");
+    }
+
+    /**
+     * The plans above are explained on H2 with the schema Hibernate creates from the entity; the MySQL schema
+     * in db/script.sql must declare the same indexes on the same full columns.
+     */
+    @Test
+    void testMySqlScriptDeclaresEntityIndexes() throws IOException {
+        String script;
+        try (InputStream in = Objects.requireNonNull(getClass().getResourceAsStream("/db/script.sql"))) {
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        for (Index index : Task.class.getAnnotation(Table.class).indexes()) {
+            String columns = Arrays.stream(index.columnList().split(","))
+                    .map(column -> "`" + column.strip() + "`")
+                    .collect(Collectors.joining(", "));
+            String key = "KEY `" + index.name() + "` (" + columns + ")";
+            assertTrue(script.contains(key), "db/script.sql does not declare " + key);
+        }
+    }
+
+    private Slice<?> findViews(TaskFilter filter, Sort sort) {
+        RecordingStatementInspector.clear();
+        return taskService.findViews(filter, 0, 10, sort);
+    }
+
+    /**
+     * Explains the last executed query with the given literals bound in place of its parameters;
+     * the trailing pagination parameter is bound to the slice size.
+     */
+    private String plan(Object... literals) {
+        String sql = RecordingStatementInspector.last();
+        assertNotNull(sql);
+        for (Object literal : literals) {
+            sql = sql.replaceFirst("\\?", Matcher.quoteReplacement(String.valueOf(literal)));
+        }
+        sql = sql.replace("?", "11");
+
+        List<String> plan = new JdbcTemplate(dataSource).queryForList("EXPLAIN " + sql, String.class);
+        return String.join("\n", plan);
+    }
+
+    private static void assertIndexRangeScan(String plan, String index) {
+        assertFalse(plan.contains("tableScan"), "Full table scan: " + plan);
+        assertTrue(plan.toUpperCase().contains(index), "Index " + index + " not used: " + plan);
+    }
+}
@@ -0,0 +1,81 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.domain.dto.TaskUpdate;
+import com.javarush.kostenko.domain.enums.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplaysAppendedUpdatesInOrder() throws Exception {
+        Path file = directory.resolve("journal.bin");
+        TaskUpdate first = new TaskUpdate(1, "Write report", Status.IN_PROGRESS, 0, 1);
+        TaskUpdate second = new TaskUpdate(2, "Запросить отчёт", Status.DONE, 4, 5);
+
+        try (TaskJournal journal = new TaskJournal(file, 4096, true)) {
+            assertTrue(journal.append(first));
+            assertTrue(journal.append(second));
+        }
+
+        TaskUpdate third = new TaskUpdate(1, "Publish report", Status.PAUSED, 0, 2);
+        try (TaskJournal journal = new TaskJournal(file, 4096, false)) {
+            assertEquals(List.of(first, second), journal.replay());
+            assertTrue(journal.append(third));
+        }
+
+        try (TaskJournal journal = new TaskJournal(file, 4096, false)) {
+            assertEquals(List.of(first, second, third), journal.replay());
+        }
+    }
+
+    @Test
+    void testIgnoresTornRecordAndRecordsAfterIt() throws Exception {
+        Path file = directory.resolve("journal.bin");
+        TaskUpdate first = new TaskUpdate(1, "Write report", Status.IN_PROGRESS, 0, 1);
+        int secondOffset;
+        try (TaskJournal journal = new TaskJournal(file, 4096, false)) {
+            journal.append(first);
+            secondOffset = journal.usedBytes();
+            journal.append(new TaskUpdate(2, "Review report", Status.DONE, 0, 1));
+            journal.append(new TaskUpdate(3, "Publish report", Status.PAUSED, 0, 1));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(secondOffset + 12);
+            raf.write(0xFF);
+        }
+
+        try (TaskJournal journal = new TaskJournal(file, 4096, false)) {
+            assertEquals(List.of(first), journal.replay());
+            assertEquals(secondOffset, journal.usedBytes());
+        }
+        try (TaskJournal journal = new TaskJournal(file, 4096, false)) {
+            assertEquals(List.of(first), journal.replay());
+        }
+    }
+
+    @Test
+    void testRejectsUpdatesWhenFullAndAcceptsThemAfterReset() throws Exception {
+        try (TaskJournal journal = new TaskJournal(directory.resolve("journal.bin"), 128, false)) {
+            TaskUpdate update = new TaskUpdate(1, "x".repeat(40), Status.DONE, 0, 1);
+            assertTrue(journal.append(update));
+            assertTrue(journal.append(update));
+            assertFalse(journal.append(update));
+
+            journal.reset();
+
+            assertEquals(0, journal.usedBytes());
+            assertTrue(journal.replay().isEmpty());
+            assertTrue(journal.append(update));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.domain.dto.TaskSearchHit;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestServiceConfig.class)
+@Transactional
+class TaskSearchServiceIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @BeforeEach
+    void setUp() {
+        taskService.save(new Task("Review the quarterly report", Status.DONE));
+        taskService.save(new Task("Report bugs", Status.IN_PROGRESS));
+        taskService.save(new Task("Write 100% of the report", Status.PAUSED));
+        taskService.save(new Task("Buy milk", Status.IN_PROGRESS));
+    }
+
+    @Test
+    void testFallsBackToLikeOnH2() {
+        assertFalse(taskSearchService.isFullText());
+    }
+
+    @Test
+    void testSearchRanksEarlierMatchesFirst() {
+        Slice<TaskSearchHit> hits = taskSearchService.search("REPORT", 0, 10);
+
+        List<String> descriptions = hits.getContent().stream().map(TaskSearchHit::description).toList();
+        assertEquals(List.of("Report bugs", "Write 100% of the report", "Review the quarterly report"), descriptions);
+        assertEquals(Status.IN_PROGRESS, hits.getContent().get(0).status());
+        assertTrue(hits.getContent().get(0).score() > hits.getContent().get(1).score());
+        assertFalse(hits.hasNext());
+    }
+
+    @Test
+    void testSearchPagesThroughHits() {
+        Slice<TaskSearchHit> first = taskSearchService.search("report", 0, 2);
+        Slice<TaskSearchHit> second = taskSearchService.search("report", 1, 2);
+
+        assertEquals(2, first.getNumberOfElements());
+        assertTrue(first.hasNext());
+        assertEquals(1, second.getNumberOfElements());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testSearchTreatsWildcardsLiterally() {
+        Slice<TaskSearchHit> hits = taskSearchService.search("100%", 0, 10);
+
+        assertEquals(1, hits.getNumberOfElements());
+        assertEquals("Write 100% of the report", hits.getContent().get(0).description());
+        assertEquals(0, taskSearchService.search("_", 0, 10).getNumberOfElements());
+    }
+
+    @Test
+    void testSearchRejectsBlankQueryAndDeepPages() {
+        assertThrows(IllegalArgumentException.class, () -> taskSearchService.search(" ", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> taskSearchService.search("report", 100, 10));
+    }
+}
@@ -0,0 +1,71 @@
+package com.javarush.kostenko.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TaskSearchServiceTest {
+
+    EntityManager entityManager;
+    Query indexQuery;
+    TaskSearchService taskSearchService;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        indexQuery = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(indexQuery);
+        taskSearchService = spy(new TaskSearchService(entityManager, mock(EntityManagerFactory.class)));
+    }
+
+    @Test
+    void testUsesFullTextIndexOnMySqlWhenItExists() {
+        doReturn(true).when(taskSearchService).isMySql();
+        when(indexQuery.getSingleResult()).thenReturn(1L);
+
+        taskSearchService.afterPropertiesSet();
+
+        assertTrue(taskSearchService.isFullText());
+    }
+
+    @Test
+    void testFallsBackToLikeOnMySqlWithoutFullTextIndex() {
+        doReturn(true).when(taskSearchService).isMySql();
+        when(indexQuery.getSingleResult()).thenReturn(0L);
+
+        taskSearchService.afterPropertiesSet();
+
+        assertFalse(taskSearchService.isFullText());
+    }
+
+    @Test
+    void testFallsBackToLikeOnOtherDatabases() {
+        doReturn(false).when(taskSearchService).isMySql();
+
+        taskSearchService.afterPropertiesSet();
+
+        assertFalse(taskSearchService.isFullText());
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void testForcedModeSkipsDetection() {
+        ReflectionTestUtils.setField(taskSearchService, "mode", "fulltext");
+
+        taskSearchService.afterPropertiesSet();
+
+        assertTrue(taskSearchService.isFullText());
+        verify(taskSearchService, never()).isMySql();
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+}
@@ -1,15 +1,23 @@
 package com.javarush.kostenko.service;
 
 import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.dto.TaskBatchResult;
+import com.javarush.kostenko.domain.dto.TaskView;
 import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.BatchOutcome;
 import com.javarush.kostenko.domain.enums.Status;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +30,9 @@ class TaskServiceIntegrationTest {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
     @Test
     void testSaveAndFindById() {
         Task task = new Task("Sample Task", Status.IN_PROGRESS);
@@ -47,6 +58,43 @@ class TaskServiceIntegrationTest {
         assertEquals(Status.DONE, tasksPage.getContent().get(1).getStatus());
     }
 
+    @Test
+    void testFindAfterAndBefore() {
+        Task first = new Task("Task 1", Status.IN_PROGRESS);
+        Task second = new Task("Task 2", Status.DONE);
+        Task third = new Task("Task 3", Status.PAUSED);
+        taskService.save(first);
+        taskService.save(second);
+        taskService.save(third);
+
+        var nextSlice = taskService.findAfter(first.getId(), 1);
+        assertEquals(1, nextSlice.getContent().size());
+        assertEquals("Task 2", nextSlice.getContent().get(0).getDescription());
+        assertTrue(nextSlice.hasNext());
+
+        var previousSlice = taskService.findBefore(third.getId(), 2);
+        assertEquals(2, previousSlice.getContent().size());
+        assertEquals("Task 1", previousSlice.getContent().get(0).getDescription());
+        assertEquals("Task 2", previousSlice.getContent().get(1).getDescription());
+        assertFalse(previousSlice.hasNext());
+    }
+
+    @Test
+    void testFindAndExportViewsByStatus() {
+        taskService.save(new Task("Task 1", Status.DONE));
+        taskService.save(new Task("Task 2", Status.PAUSED));
+        taskService.save(new Task("Task 3", Status.DONE));
+
+        var slice = taskService.findViews(Status.DONE, 0, 1);
+        assertEquals("Task 1", slice.getContent().get(0).description());
+        assertTrue(slice.hasNext());
+
+        List<TaskView> exported = new ArrayList<>();
+        assertEquals(2, taskService.exportViews(Status.DONE, exported::add));
+        assertEquals("Task 3", exported.get(1).description());
+        assertEquals(3, taskService.exportViews(null, view -> { }));
+    }
+
     @Test
     void testDeleteById() {
         Task task = new Task("Task to Delete", Status.DONE);
@@ -57,6 +105,49 @@ class TaskServiceIntegrationTest {
         assertFalse(deletedTask.isPresent());
     }
 
+    @Test
+    void testUpdateWithSingleStatement() {
+        Task task = new Task("Initial Task", Status.IN_PROGRESS);
+        taskService.save(task);
+
+        assertTrue(taskService.update(task.getId(), "Updated Task", Status.PAUSED));
+        assertFalse(taskService.update(-1, "Updated Task", Status.PAUSED));
+        assertFalse(taskService.deleteById(-1));
+    }
+
+    @Test
+    void testUpdateWithVersionRejectsStaleWrites() {
+        Task task = new Task("Initial Task", Status.IN_PROGRESS);
+        taskService.save(task);
+        Integer version = task.getVersion();
+
+        assertTrue(taskService.update(task.getId(), "First Update", Status.DONE, version));
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> taskService.update(task.getId(), "Second Update", Status.PAUSED, version));
+        assertEquals(version + 1, taskService.findById(task.getId()).orElseThrow().getVersion());
+        assertThrows(OptimisticLockingFailureException.class, () -> taskService.deleteById(task.getId(), version));
+        assertTrue(taskService.deleteById(task.getId(), version + 1));
+    }
+
+    @Test
+    void testWritesQueuedUpdateOnlyOverItsOwnVersions() {
+        Task task = new Task("Initial Task", Status.IN_PROGRESS);
+        taskService.save(task);
+        Integer version = task.getVersion();
+
+        assertEquals(1, taskRepository.updateDescriptionAndStatusToVersion(
+                task.getId(), "Third Update", Status.DONE, version, version + 3));
+        assertEquals(0, taskRepository.updateDescriptionAndStatusToVersion(
+                task.getId(), "Third Update", Status.DONE, version, version + 3));
+        assertEquals(1, taskRepository.updateDescriptionAndStatusToVersion(
+                task.getId(), "Fifth Update", Status.PAUSED, version, version + 5));
+
+        Task updated = taskService.findById(task.getId()).orElseThrow();
+        assertEquals("Fifth Update", updated.getDescription());
+        assertEquals(Status.PAUSED, updated.getStatus());
+        assertEquals(version + 5, updated.getVersion());
+    }
+
     @Test
     void testUpdateTask() {
         Task task = new Task("Initial Task", Status.IN_PROGRESS);
@@ -71,4 +162,26 @@ class TaskServiceIntegrationTest {
         assertEquals("Updated Task", updatedTask.get().getDescription());
         assertEquals(Status.DONE, updatedTask.get().getStatus());
     }
+
+    @Test
+    void testBatchCreateUpdateAndDelete() {
+        List<TaskBatchResult> created = taskService.createAll(List.of(
+                new Task("Batch Task 1", Status.IN_PROGRESS),
+                new Task("Batch Task 2", Status.PAUSED)
+        ));
+        assertTrue(created.stream().allMatch(result -> result.outcome() == BatchOutcome.CREATED));
+        Integer firstId = created.get(0).id();
+        Integer secondId = created.get(1).id();
+
+        Task update = new Task("Batch Task 1 updated", Status.DONE);
+        ReflectionTestUtils.setField(update, "id", firstId);
+        List<TaskBatchResult> updated = taskService.updateAll(List.of(update));
+        assertEquals(BatchOutcome.UPDATED, updated.get(0).outcome());
+        assertEquals("Batch Task 1 updated", taskService.findById(firstId).orElseThrow().getDescription());
+
+        List<TaskBatchResult> deleted = taskService.deleteAll(List.of(secondId, -1));
+        assertEquals(BatchOutcome.DELETED, deleted.get(0).outcome());
+        assertEquals(BatchOutcome.NOT_FOUND, deleted.get(1).outcome());
+        assertFalse(taskService.findById(secondId).isPresent());
+    }
 }
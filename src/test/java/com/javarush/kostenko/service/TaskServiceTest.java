@@ -1,8 +1,17 @@
 package com.javarush.kostenko.service;
 
 import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.dto.TaskBatchResult;
+import com.javarush.kostenko.domain.dto.TaskFilter;
+import com.javarush.kostenko.domain.dto.TaskStatus;
+import com.javarush.kostenko.domain.dto.TaskView;
 import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.domain.enums.BatchOutcome;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import com.javarush.kostenko.domain.enums.DescriptionMatch;
 import com.javarush.kostenko.domain.enums.Status;
+import jakarta.persistence.EntityManager;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,15 +19,26 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -27,12 +47,30 @@ class TaskServiceTest {
     @Mock
     TaskRepository taskRepository;
 
+    @Mock
+    TaskCountService taskCountService;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    TaskWriteBehindQueue writeBehindQueue;
+
+    @Mock
+    TaskChangeService taskChangeService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
     @InjectMocks
     TaskService taskService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(writeBehindQueue.apply(any(Task.class))).thenAnswer(returnsFirstArg());
+        when(writeBehindQueue.apply(anyList())).thenAnswer(returnsFirstArg());
+        when(writeBehindQueue.flush()).thenReturn(true);
     }
 
     @Test
@@ -41,14 +79,115 @@ class TaskServiceTest {
                 new Task("Task 1", Status.IN_PROGRESS),
                 new Task("Task 2", Status.DONE)
         );
-        Page<Task> page = new PageImpl<>(tasks);
-        when(taskRepository.findAll(any(PageRequest.class))).thenReturn(page);
+        when(taskRepository.findAllBy(any(PageRequest.class))).thenReturn(tasks);
+        when(taskCountService.count()).thenReturn(12L);
 
         Page<Task> result = taskService.findAll(0, 10);
 
         assertEquals(2, result.getContent().size());
         assertEquals("Task 1", result.getContent().get(0).getDescription());
-        verify(taskRepository, times(1)).findAll(any(PageRequest.class));
+        assertEquals(12L, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        verify(taskRepository, times(1)).findAllBy(any(PageRequest.class));
+        verify(taskRepository, never()).count();
+    }
+
+    @Test
+    void testFindAfterFromStart() {
+        List<Task> tasks = List.of(new Task("Task 1", Status.IN_PROGRESS));
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(tasks, PageRequest.of(0, 1), true));
+
+        Slice<Task> result = taskService.findAfter(null, 1);
+
+        assertEquals(tasks, result.getContent());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void testFindBeforeReturnsAscendingOrder() {
+        Task first = new Task("Task 1", Status.IN_PROGRESS);
+        Task second = new Task("Task 2", Status.DONE);
+        when(taskRepository.findByIdLessThanOrderByIdDesc(eq(3), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(second, first), PageRequest.of(0, 2), false));
+
+        Slice<Task> result = taskService.findBefore(3, 2);
+
+        assertEquals(List.of(first, second), result.getContent());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void testFindViewsByStatusSortsById() {
+        when(taskRepository.findViewsByStatus(eq(Status.DONE), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
+
+        taskService.findViews(Status.DONE, 1, 10);
+
+        verify(taskRepository).findViewsByStatus(Status.DONE, PageRequest.of(1, 10, Sort.by("id")));
+    }
+
+    @Test
+    void testFindViewsByDescriptionPrefixEscapesWildcards() {
+        when(taskRepository.findViewsByDescriptionLike(anyString(), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
+
+        taskService.findViews(new TaskFilter(null, "50%_off!", null), 0, 10, Sort.by(Sort.Direction.DESC, "description"));
+
+        verify(taskRepository).findViewsByDescriptionLike("50!%!_off!!%",
+                PageRequest.of(0, 10, Sort.by(Sort.Order.desc("description"), Sort.Order.desc("id"))));
+    }
+
+    @Test
+    void testFindViewsByStatusRejectsDescriptionSort() {
+        TaskFilter filter = TaskFilter.byStatus(Status.DONE);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.findViews(filter, 0, 10, Sort.by("description")));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void testFindViewsByStatusAndDescriptionContaining() {
+        when(taskRepository.findViewsByStatusAndDescriptionLike(any(), anyString(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        taskService.findViews(new TaskFilter(Status.PAUSED, "report", DescriptionMatch.CONTAINS), 0, 10, Sort.by("id"));
+
+        verify(taskRepository).findViewsByStatusAndDescriptionLike(Status.PAUSED, "%report%",
+                PageRequest.of(0, 10, Sort.by("id")));
+    }
+
+    @Test
+    void testFindViewsByDescriptionContainingRequiresStatus() {
+        TaskFilter filter = new TaskFilter(null, "report", DescriptionMatch.CONTAINS);
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.findViews(filter, 0, 10, Sort.by("id")));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void testExportViews() {
+        List<TaskView> views = List.of(
+                new TaskView(1, "Task 1", Status.DONE, 0),
+                new TaskView(2, "Task 2", Status.DONE, 1)
+        );
+        when(taskRepository.streamViewsByStatus(Status.DONE)).thenReturn(views.stream());
+
+        List<TaskView> exported = new ArrayList<>();
+        long count = taskService.exportViews(Status.DONE, exported::add);
+
+        assertEquals(2, count);
+        assertEquals(views, exported);
+        verify(taskRepository, never()).streamViews();
+    }
+
+    @Test
+    void testExportViewsClosesStream() {
+        boolean[] closed = {false};
+        when(taskRepository.streamViews()).thenReturn(Stream.<TaskView>empty().onClose(() -> closed[0] = true));
+
+        taskService.exportViews(null, view -> { });
+
+        assertTrue(closed[0]);
     }
 
     @Test
@@ -77,24 +216,271 @@ class TaskServiceTest {
     @Test
     void testSave() {
         Task task = new Task("New Task", Status.PAUSED);
+        when(taskRepository.save(task)).thenReturn(task);
+
+        taskService.save(task);
+
+        verify(taskRepository, times(1)).save(task);
+        verify(taskChangeService).record(argThat(change -> change.getType() == ChangeType.CREATED
+                && "New Task".equals(change.getDescription()) && change.getStatus() == Status.PAUSED));
+        verify(taskCountService, times(1)).onInsert(List.of(Status.PAUSED));
+    }
+
+    @Test
+    void testSaveExisting() {
+        Task task = new Task("Existing Task", Status.DONE);
+        setTaskId(task);
+        when(taskRepository.findById(1)).thenReturn(Optional.of(new Task(1, "Existing Task", Status.PAUSED, 0)));
+        when(taskRepository.save(task)).thenReturn(task);
 
         taskService.save(task);
 
         verify(taskRepository, times(1)).save(task);
+        verify(taskChangeService).record(argThat(change -> change.getType() == ChangeType.UPDATED
+                && change.getTaskId().equals(task.getId())));
+        verify(taskCountService, never()).onInsert(any());
+        verify(taskCountService).onUpdate(Status.PAUSED, Status.DONE);
+    }
+
+    @Test
+    void testUpdate() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.of(new Task(1, "Task", Status.IN_PROGRESS, 2)));
+        when(taskRepository.updateDescriptionAndStatus(1, "Updated Task", Status.DONE, null)).thenReturn(1);
+        when(taskRepository.findVersionById(1)).thenReturn(3);
+
+        assertTrue(taskService.update(1, "Updated Task", Status.DONE));
+
+        verify(taskRepository, never()).findById(any());
+        verify(taskChangeService).record(
+                TaskChange.of(ChangeType.UPDATED, 1, "Updated Task", Status.DONE, 3));
+        verify(taskCountService).onUpdate(Status.IN_PROGRESS, Status.DONE);
+    }
+
+    @Test
+    void testUpdateNotFound() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.empty());
+        when(taskRepository.updateDescriptionAndStatus(1, "Updated Task", Status.DONE, null)).thenReturn(0);
+
+        assertFalse(taskService.update(1, "Updated Task", Status.DONE));
+
+        verify(taskRepository, never()).existsById(any());
+        verify(taskChangeService, never()).record(any());
+        verify(taskCountService, never()).onUpdate(any(), any());
+    }
+
+    @Test
+    void testUpdateWithExpectedVersion() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.empty());
+        when(taskRepository.updateDescriptionAndStatus(1, "Updated Task", Status.DONE, 2)).thenReturn(1);
+
+        assertTrue(taskService.update(1, "Updated Task", Status.DONE, 2));
+
+        verify(taskRepository, never()).findVersionById(any());
+        verify(taskChangeService).record(
+                TaskChange.of(ChangeType.UPDATED, 1, "Updated Task", Status.DONE, 3));
+        verify(taskCountService).onUpdate(null, Status.DONE);
+    }
+
+    @Test
+    void testUpdateIgnoresCachedTaskWithAnotherVersion() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.of(new Task(1, "Task", Status.IN_PROGRESS, 1)));
+        when(taskRepository.updateDescriptionAndStatus(1, "Updated Task", Status.DONE, null)).thenReturn(1);
+        when(taskRepository.findVersionById(1)).thenReturn(3);
+
+        assertTrue(taskService.update(1, "Updated Task", Status.DONE));
+
+        verify(taskCountService).onUpdate(null, Status.DONE);
+    }
+
+    @Test
+    void testUpdateWithStaleVersion() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.empty());
+        when(taskRepository.updateDescriptionAndStatus(1, "Updated Task", Status.DONE, 1)).thenReturn(0);
+        when(taskRepository.existsById(1)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> taskService.update(1, "Updated Task", Status.DONE, 1));
+        verify(taskChangeService, never()).record(any());
+    }
+
+    @Test
+    void testUpdateWithVersionNotFound() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.empty());
+        when(taskRepository.updateDescriptionAndStatus(1, "Updated Task", Status.DONE, 1)).thenReturn(0);
+        when(taskRepository.existsById(1)).thenReturn(false);
+
+        assertFalse(taskService.update(1, "Updated Task", Status.DONE, 1));
+    }
+
+    @Test
+    void testUpdateIsQueuedWithWriteBehind() {
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.update(1, "Updated Task", Status.DONE, 2)).thenReturn(3);
+
+        assertTrue(taskService.update(1, "Updated Task", Status.DONE, 2));
+
+        verify(taskRepository, never()).findById(any());
+        verify(taskChangeService, never()).record(any());
+    }
+
+    @Test
+    void testQueuedUpdateRejectsInvalidDescription() {
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.update(1, "x".repeat(101), Status.DONE));
+        verify(writeBehindQueue, never()).update(any(), any(), any(), any());
+    }
+
+    @Test
+    void testDeleteFlushesQueuedUpdatesFirst() {
+        when(taskRepository.removeById(1, null)).thenReturn(1);
+
+        assertTrue(taskService.deleteById(1));
+
+        var inOrder = inOrder(writeBehindQueue, transactionManager, taskRepository);
+        inOrder.verify(writeBehindQueue).flush();
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(taskRepository).removeById(1, null);
+    }
+
+    @Test
+    void testWritesFailWhenQueuedUpdatesCannotBeFlushed() {
+        when(writeBehindQueue.flush()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> taskService.deleteById(1));
+        assertThrows(IllegalStateException.class, () -> taskService.deleteById(1, 2));
+        assertThrows(IllegalStateException.class, () -> taskService.updateAll(List.of(new Task())));
+        assertThrows(IllegalStateException.class, () -> taskService.deleteAll(List.of(1)));
+
+        verify(transactionManager, never()).getTransaction(any());
+        verifyNoInteractions(taskRepository, taskChangeService);
+    }
+
+    @Test
+    void testDeleteByIdWithVersionNotFound() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.empty());
+        when(taskRepository.removeById(1, 1)).thenReturn(0);
+        when(taskRepository.existsById(1)).thenReturn(false);
+
+        assertFalse(taskService.deleteById(1, 1));
+    }
+
+    @Test
+    void testDeleteByIdWithStaleVersion() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.of(new Task(1, "Task", Status.IN_PROGRESS, 2)));
+        when(taskRepository.removeById(1, 1)).thenReturn(0);
+        when(taskRepository.existsById(1)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> taskService.deleteById(1, 1));
+        verify(taskChangeService, never()).record(any());
+        verify(taskCountService, never()).onDelete(any());
+    }
+
+    @Test
+    void testDeleteByIdWithVersion() {
+        when(taskRepository.findCachedById(1)).thenReturn(Optional.of(new Task(1, "Task", Status.IN_PROGRESS, 2)));
+        when(taskRepository.removeById(1, 2)).thenReturn(1);
+
+        assertTrue(taskService.deleteById(1, 2));
+
+        verify(taskChangeService).record(TaskChange.deleted(1));
+        verify(taskCountService).onDelete(List.of(Status.IN_PROGRESS));
     }
 
     @Test
     void testDeleteById() {
-        taskService.deleteById(1);
+        when(taskRepository.removeById(1, null)).thenReturn(1);
+
+        assertTrue(taskService.deleteById(1));
+
+        verify(taskRepository, never()).findById(any());
+        verify(taskChangeService).record(TaskChange.deleted(1));
+        verify(taskCountService, times(1)).onDelete(Collections.singletonList(null));
+    }
+
+    @Test
+    void testDeleteByIdNotFound() {
+        when(taskRepository.removeById(1, null)).thenReturn(0);
+
+        assertFalse(taskService.deleteById(1));
+
+        verify(taskRepository, never()).existsById(any());
+        verify(taskChangeService, never()).record(any());
+        verify(taskCountService, never()).onDelete(any());
+    }
+
+    @Test
+    void testCreateAll() {
+        Task valid = new Task("New Task", Status.PAUSED);
+        Task invalid = new Task(" ", Status.DONE);
+
+        List<TaskBatchResult> results = taskService.createAll(List.of(valid, invalid));
 
-        verify(taskRepository, times(1)).deleteById(1);
+        assertEquals(BatchOutcome.CREATED, results.get(0).outcome());
+        assertEquals(BatchOutcome.INVALID, results.get(1).outcome());
+        assertEquals(1, results.get(1).index());
+        verify(entityManager, times(1)).persist(valid);
+        verify(entityManager, never()).persist(invalid);
+        verify(entityManager, atLeastOnce()).flush();
+        verify(taskChangeService).recordAll(List.of(TaskChange.of(ChangeType.CREATED, valid)));
+        verify(taskCountService, times(1)).onInsert(List.of(Status.PAUSED));
+    }
+
+    @Test
+    void testUpdateAll() {
+        Task existingTask = new Task("Existing Task", Status.IN_PROGRESS);
+        setTaskId(existingTask, 1);
+        when(taskRepository.findAllById(anyIterable())).thenReturn(List.of(existingTask));
+
+        Task update = new Task("Updated Task", Status.DONE);
+        setTaskId(update, 1);
+        Task missing = new Task("Missing Task", Status.DONE);
+        setTaskId(missing, 2);
+
+        List<TaskBatchResult> results = taskService.updateAll(List.of(update, missing));
+
+        assertEquals(BatchOutcome.UPDATED, results.get(0).outcome());
+        assertEquals(BatchOutcome.NOT_FOUND, results.get(1).outcome());
+        assertEquals("Updated Task", existingTask.getDescription());
+        assertEquals(Status.DONE, existingTask.getStatus());
+        verify(taskRepository, times(1)).findAllById(anyIterable());
+        verify(taskCountService).onUpdate(Status.IN_PROGRESS, Status.DONE);
+    }
+
+    @Test
+    void testBatchWritesRejectMissingItems() {
+        Task valid = new Task("New Task", Status.PAUSED);
+
+        List<TaskBatchResult> created = taskService.createAll(Arrays.asList(null, valid));
+        List<TaskBatchResult> updated = taskService.updateAll(Arrays.asList((Task) null));
+
+        assertEquals(TaskBatchResult.failure(0, null, BatchOutcome.INVALID, "Task is required"), created.get(0));
+        assertEquals(BatchOutcome.CREATED, created.get(1).outcome());
+        assertEquals(TaskBatchResult.failure(0, null, BatchOutcome.INVALID, "Task is required"), updated.get(0));
+        verify(taskRepository).findAllById(Set.of());
+    }
+
+    @Test
+    void testDeleteAll() {
+        when(taskRepository.findStatusesById(anyCollection())).thenReturn(List.of(new TaskStatus(1, Status.PAUSED)));
+
+        List<TaskBatchResult> results = taskService.deleteAll(List.of(1, 2));
+
+        assertEquals(BatchOutcome.DELETED, results.get(0).outcome());
+        assertEquals(BatchOutcome.NOT_FOUND, results.get(1).outcome());
+        verify(taskRepository, times(1)).deleteAllByIdInBatch(Set.of(1));
+        verify(taskCountService, times(1)).onDelete(List.of(Status.PAUSED));
     }
 
     private void setTaskId(Task task) {
+        setTaskId(task, 1);
+    }
+
+    private void setTaskId(Task task, int id) {
         try {
             var idField = Task.class.getDeclaredField("id");
             idField.setAccessible(true);
-            idField.set(task, 1);
+            idField.set(task, id);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,135 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.config.TestServiceConfig;
+import com.javarush.kostenko.domain.dto.TaskFilter;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.enums.DescriptionMatch;
+import com.javarush.kostenko.domain.enums.Status;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the transaction boundaries of TaskService. Unlike TaskServiceIntegrationTest, the tests do not run in
+ * a transaction of their own, so every service call starts its own; the tasks are deleted after every test.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestServiceConfig.class)
+class TaskServiceTransactionIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JpaTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Begun> transactions = new CopyOnWriteArrayList<>();
+    private final List<Integer> taskIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            Task task = new Task("Task " + i, Status.IN_PROGRESS);
+            taskService.save(task);
+            taskIds.add(task.getId());
+        }
+        transactionManager.setTransactionExecutionListeners(List.of(new TransactionExecutionListener() {
+            @Override
+            public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+                Session session = Objects.requireNonNull(
+                        EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory))
+                        .unwrap(Session.class);
+                String name = transaction.getTransactionName();
+                transactions.add(new Begun(name.substring(name.lastIndexOf('.') + 1), transaction.isReadOnly(),
+                        session.getHibernateFlushMode(), session.isDefaultReadOnly()));
+            }
+        }));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionManager.setTransactionExecutionListeners(List.of());
+        taskService.deleteAll(taskIds);
+    }
+
+    @Test
+    void testReadsRunInOneReadOnlyTransaction() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long flushes = statistics.getFlushCount();
+
+        taskService.findAll(0, 10);
+        taskService.findAfter(taskIds.get(0), 1);
+        taskService.findBefore(taskIds.get(2), 1);
+        taskService.findViews(Status.IN_PROGRESS, 0, 10);
+        taskService.findViews(new TaskFilter(null, "Task", DescriptionMatch.PREFIX), 0, 10, Sort.by("description"));
+        taskService.findById(taskIds.get(1));
+
+        assertEquals(List.of("findAll", "findAfter", "findBefore", "findViews", "findViews", "findById"),
+                transactions.stream().map(Begun::name).toList());
+        for (Begun transaction : transactions) {
+            assertTrue(transaction.readOnly(), transaction.name());
+            assertEquals(FlushMode.MANUAL, transaction.flushMode(), transaction.name());
+            assertTrue(transaction.defaultReadOnly(), transaction.name());
+        }
+        assertEquals(flushes, statistics.getFlushCount());
+    }
+
+    @Test
+    void testWritesRunInOneReadWriteTransaction() {
+        Task task = new Task("Task 4", Status.PAUSED);
+        taskService.save(task);
+        taskIds.add(task.getId());
+        taskService.update(task.getId(), "Task 4 updated", Status.DONE, 0);
+        taskService.deleteById(taskIds.get(0), 0);
+
+        assertEquals(List.of("save", "update", "deleteById"), transactions.stream().map(Begun::name).toList());
+        for (Begun transaction : transactions) {
+            assertFalse(transaction.readOnly(), transaction.name());
+            assertEquals(FlushMode.AUTO, transaction.flushMode(), transaction.name());
+        }
+    }
+
+    @Test
+    void testCountChangesOnlyWhenWritesCommit() {
+        long count = taskService.count();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            taskService.save(new Task("Rolled back", Status.PAUSED));
+            status.setRollbackOnly();
+        });
+        assertEquals(count, taskService.count());
+
+        Task task = new Task("Committed", Status.PAUSED);
+        taskService.save(task);
+        taskIds.add(task.getId());
+        assertEquals(count + 1, taskService.count());
+    }
+
+    private record Begun(String name, boolean readOnly, FlushMode flushMode, boolean defaultReadOnly) {
+    }
+}
@@ -0,0 +1,182 @@
+package com.javarush.kostenko.service;
+
+import com.javarush.kostenko.dao.TaskRepository;
+import com.javarush.kostenko.domain.entity.Task;
+import com.javarush.kostenko.domain.entity.TaskChange;
+import com.javarush.kostenko.domain.enums.ChangeType;
+import com.javarush.kostenko.domain.enums.Status;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TaskWriteBehindQueueTest {
+
+    @Mock
+    TaskRepository taskRepository;
+
+    @Mock
+    TaskCountService taskCountService;
+
+    @Mock
+    TaskChangeService taskChangeService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    TaskWriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(taskRepository.findById(1)).thenReturn(Optional.of(new Task(1, "Write report", Status.IN_PROGRESS, 0)));
+        when(taskRepository.updateDescriptionAndStatusToVersion(any(), any(), any(), any(), any())).thenReturn(1);
+        queue = newQueue();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        queue.close();
+    }
+
+    @Test
+    void testDisabledQueueKeepsTasksUnchanged() throws Exception {
+        TaskWriteBehindQueue disabled = new TaskWriteBehindQueue(taskRepository, taskCountService, taskChangeService,
+                transactionManager, false, directory.resolve("unused.bin").toString(), 64, false, 50);
+        Task task = new Task(1, "Write report", Status.IN_PROGRESS, 0);
+
+        assertFalse(disabled.isEnabled());
+        assertSame(task, disabled.apply(task));
+        assertTrue(disabled.flush());
+        disabled.close();
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testCoalescesUpdatesAndFlushesTheLatest() {
+        assertEquals(1, queue.update(1, "Review report", Status.IN_PROGRESS, 0));
+        assertEquals(2, queue.update(1, "Publish report", Status.DONE, 1));
+        assertEquals(1, queue.getPendingCount());
+        verify(taskRepository, never()).updateDescriptionAndStatusToVersion(any(), any(), any(), any(), any());
+
+        assertTrue(queue.flush());
+
+        verify(taskRepository, times(1)).updateDescriptionAndStatusToVersion(1, "Publish report", Status.DONE, 0, 2);
+        verify(taskChangeService).recordAll(List.of(
+                TaskChange.of(ChangeType.UPDATED, 1, "Publish report", Status.DONE, 2)));
+        verify(taskCountService).onUpdate(null, Status.DONE);
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    void testReadsSeePendingUpdates() {
+        queue.update(1, "Publish report", Status.DONE, null);
+
+        Task task = queue.apply(new Task(1, "Write report", Status.IN_PROGRESS, 0));
+        List<Task> tasks = queue.apply(List.of(new Task(2, "Other task", Status.PAUSED, 3), task));
+
+        assertEquals(new Task(1, "Publish report", Status.DONE, 1), task);
+        assertEquals(new Task(2, "Other task", Status.PAUSED, 3), tasks.get(0));
+        assertEquals(task, tasks.get(1));
+    }
+
+    @Test
+    void testRejectsStaleVersionAndMissingTask() {
+        queue.update(1, "Publish report", Status.DONE, 0);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> queue.update(1, "Review report", Status.DONE, 0));
+        assertNull(queue.update(2, "Missing task", Status.DONE, null));
+        assertEquals(1, queue.getPendingCount());
+    }
+
+    @Test
+    void testFailedFlushKeepsUpdatesQueued() {
+        queue.update(1, "Publish report", Status.DONE, 0);
+        when(taskRepository.updateDescriptionAndStatusToVersion(any(), any(), any(), any(), any()))
+                .thenThrow(new QueryTimeoutException("Database unavailable"));
+
+        assertFalse(queue.flush());
+
+        assertEquals(1, queue.getPendingCount());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testReplaysJournalAfterCrash() throws Exception {
+        queue.update(1, "Review report", Status.IN_PROGRESS, 0);
+        queue.update(1, "Publish report", Status.DONE, 1);
+
+        TaskWriteBehindQueue restarted = newQueue();
+
+        assertEquals(1, restarted.getPendingCount());
+        assertEquals(new Task(1, "Publish report", Status.DONE, 2),
+                restarted.apply(new Task(1, "Write report", Status.IN_PROGRESS, 0)));
+        assertTrue(restarted.flush());
+        verify(taskRepository).updateDescriptionAndStatusToVersion(1, "Publish report", Status.DONE, 0, 2);
+        restarted.close();
+    }
+
+    @Test
+    void testFlushesWhenJournalIsFull() {
+        for (int i = 0; i < 20; i++) {
+            queue.update(1, "Update " + i + " " + "x".repeat(90), Status.DONE, null);
+        }
+
+        verify(taskRepository, atLeastOnce()).updateDescriptionAndStatusToVersion(eq(1), any(), any(), any(), any());
+        assertEquals(1, queue.getPendingCount());
+    }
+
+    @Test
+    void testReadingBaseVersionDoesNotBlockOtherTasks() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(taskRepository.findById(2)).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await();
+            return Optional.of(new Task(2, "Other task", Status.PAUSED, 3));
+        });
+        Thread other = new Thread(() -> queue.update(2, "Other task done", Status.DONE, 3));
+        other.start();
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        try {
+            assertEquals(1, assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> queue.update(1, "Publish report", Status.DONE, 0)));
+        } finally {
+            release.countDown();
+            other.join();
+        }
+        assertEquals(2, queue.getPendingCount());
+        assertEquals(4, queue.apply(new Task(2, "Other task", Status.PAUSED, 3)).getVersion());
+    }
+
+    private TaskWriteBehindQueue newQueue() throws Exception {
+        return new TaskWriteBehindQueue(taskRepository, taskCountService, taskChangeService, transactionManager,
+                true, directory.resolve("journal.bin").toString(), 1, false, 50);
+    }
+}